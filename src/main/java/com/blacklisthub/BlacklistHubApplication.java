@@ -3,9 +3,16 @@ package com.blacklisthub;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableConfigurationProperties({ com.blacklisthub.slack.config.SlackProps.class })
+@EnableScheduling
+@EnableConfigurationProperties({ com.blacklisthub.config.DatabaseProps.class,
+		com.blacklisthub.slack.config.SlackProps.class,
+		com.blacklisthub.slack.config.CommandSchedulerProps.class,
+		com.blacklisthub.slack.config.SlackIoProps.class,
+		com.blacklisthub.slack.config.SlackResponseProps.class,
+		com.blacklisthub.slack.config.BulkJobProps.class })
 public class BlacklistHubApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,102 @@
+package com.blacklisthub.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.blacklisthub.repository.DbRoute;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Provides the application's {@link ConnectionFactory}: a router over one
+ * primary pool per workload and, when {@code app.datasource.replica.url} is
+ * set, a read replica pool.
+ *
+ * <p>
+ * Interactive queries use the {@code spring.r2dbc} pool, bulk jobs
+ * ({@code app.datasource.bulk}) and feed reads ({@code app.datasource.feed})
+ * get pools of their own with independent sizes and acquire timeouts, so a
+ * bulk import or a burst of feed polls can exhaust only its own pool and
+ * never delays a single {@code /ip add}. {@link DbRoute#READ_ONLY} reads go
+ * to the replica when there is one, falling back to the interactive pool while
+ * it is unreachable. Feed reads always use the primary: a rendered feed is
+ * cached until the next change, and is invalidated by a {@code change_log} row
+ * read on the primary, so a render from a lagging replica could be cached
+ * without that row's write. Each pool is exported as {@code r2dbc.pool.*}
+ * tagged with its name.
+ */
+@Slf4j
+@Configuration
+public class DatabaseConfig implements DisposableBean {
+
+    private final List<ConnectionPool> pools = new ArrayList<>();
+
+    @Bean
+    RoutingConnectionFactory connectionFactory(R2dbcProperties r2dbc, DatabaseProps props, MeterRegistry registry) {
+        final R2dbcProperties.Pool settings = r2dbc.getPool();
+        final ConnectionFactory primaryDriver = ConnectionFactoryBuilder.withUrl(r2dbc.getUrl())
+                .username(r2dbc.getUsername())
+                .password(r2dbc.getPassword())
+                .build();
+        final ConnectionPool interactive = pool("interactive", primaryDriver, settings.getInitialSize(),
+                settings.getMaxSize(), settings.getMaxIdleTime(), settings.getMaxAcquireTime(), registry);
+        final ConnectionPool bulk = pool("bulk", primaryDriver, 1, props.bulk().maxSize(),
+                settings.getMaxIdleTime(), props.bulk().acquireTimeout(), registry);
+        final ConnectionPool feed = pool("feed", primaryDriver, 1, props.feed().maxSize(),
+                settings.getMaxIdleTime(), props.feed().acquireTimeout(), registry);
+
+        ConnectionFactory readOnly = interactive;
+        final DatabaseProps.Replica replica = props.replica();
+        if (replica.enabled()) {
+            ConnectionPool replicaPool = pool("replica", ConnectionFactoryBuilder.withUrl(replica.url())
+                    .username(replica.username())
+                    .password(replica.password())
+                    .build(), 1, replica.maxSize(), settings.getMaxIdleTime(), replica.acquireTimeout(), registry);
+            readOnly = new ReplicaFallbackConnectionFactory(replicaPool, interactive, replica.retryAfter());
+            log.info("Read-only queries are routed to the read replica");
+        }
+
+        RoutingConnectionFactory routing = new RoutingConnectionFactory();
+        routing.setTargetConnectionFactories(Map.of(
+                DbRoute.INTERACTIVE, interactive,
+                DbRoute.READ_ONLY, readOnly,
+                DbRoute.BULK, bulk,
+                DbRoute.FEED, feed));
+        routing.setDefaultTargetConnectionFactory(interactive);
+        return routing;
+    }
+
+    private ConnectionPool pool(String name, ConnectionFactory factory, int initialSize, int maxSize,
+            Duration maxIdleTime, Duration maxAcquireTime, MeterRegistry registry) {
+        ConnectionPoolConfiguration.Builder config = ConnectionPoolConfiguration.builder(factory)
+                .name(name)
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(maxIdleTime);
+        if (maxAcquireTime != null)
+            config.maxAcquireTime(maxAcquireTime);
+        ConnectionPool pool = new ConnectionPool(config.build());
+        new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry);
+        pools.add(pool);
+        return pool;
+    }
+
+    @Override
+    public void destroy() {
+        pools.forEach(ConnectionPool::dispose);
+    }
+}
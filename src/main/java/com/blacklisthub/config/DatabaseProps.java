@@ -0,0 +1,65 @@
+package com.blacklisthub.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Connection routing on top of {@code spring.r2dbc}, whose pool serves the
+ * interactive workload.
+ *
+ * @param bulk    primary pool for bulk jobs and heavy background work
+ * @param feed    primary pool for feed rendering
+ * @param replica optional read replica for lag-tolerant reads
+ */
+@ConfigurationProperties(prefix = "app.datasource")
+public record DatabaseProps(Pool bulk, Pool feed, Replica replica) {
+
+    public DatabaseProps {
+        bulk = bulk != null ? bulk : new Pool(4, Duration.ofSeconds(30));
+        feed = feed != null ? feed : new Pool(6, Duration.ofSeconds(5));
+        replica = replica != null ? replica : new Replica(null, null, null, 0, null, null);
+    }
+
+    /**
+     * @param maxSize        connections in this pool
+     * @param acquireTimeout how long a query waits for a free connection
+     *                       before failing
+     */
+    public record Pool(int maxSize, Duration acquireTimeout) {
+
+        public Pool {
+            maxSize = maxSize > 0 ? maxSize : 4;
+            acquireTimeout = acquireTimeout != null ? acquireTimeout : Duration.ofSeconds(5);
+        }
+    }
+
+    /**
+     * @param url            R2DBC URL of the replica; empty disables it
+     * @param username       replica user
+     * @param password       replica password
+     * @param maxSize        replica pool size
+     * @param acquireTimeout how long to wait for a replica connection before
+     *                       falling back to the primary
+     * @param retryAfter     how long the primary serves replica reads after
+     *                       the replica failed
+     */
+    public record Replica(
+            String url,
+            String username,
+            String password,
+            int maxSize,
+            Duration acquireTimeout,
+            Duration retryAfter) {
+
+        public Replica {
+            maxSize = maxSize > 0 ? maxSize : 10;
+            acquireTimeout = acquireTimeout != null ? acquireTimeout : Duration.ofSeconds(2);
+            retryAfter = retryAfter != null ? retryAfter : Duration.ofSeconds(30);
+        }
+
+        public boolean enabled() {
+            return url != null && !url.isBlank();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.blacklisthub.config;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.blacklisthub.service.DatabaseReadyEvent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+/**
+ * Takes the database off the startup path.
+ *
+ * <p>
+ * Flyway normally migrates while the context starts, so an unreachable MySQL
+ * fails the boot. Here the migration is deferred: once the application is
+ * ready (and already serving the feeds from their snapshots), it runs in the
+ * background and is retried every {@code app.database.startup-retry} until it
+ * succeeds. Then a {@link DatabaseReadyEvent} is published, on which the
+ * caches reload from the database and the components that write to it (Slack
+ * commands, the bulk job worker, the change bus, telemetry, expiry) start, so
+ * none of them runs against a schema that is not migrated yet. With Flyway
+ * disabled the event is published right away.
+ *
+ * <p>
+ * Only connectivity failures are retried. A migration that fails for any other
+ * reason (a bad script, a checksum mismatch) is not going to succeed on its
+ * own: the application then refuses traffic (readiness DOWN) and the
+ * {@code databaseMigration} health check reports DOWN with the error, so the
+ * deployment fails as it would have with migrate-on-startup.
+ */
+@Slf4j
+@Configuration
+public class DatabaseStartup {
+
+    private final ApplicationEventPublisher events;
+    private final Duration retryInterval;
+    private final AtomicReference<Flyway> flyway = new AtomicReference<>();
+    private volatile Disposable migration;
+    private volatile boolean migrated;
+    private volatile Throwable failure;
+
+    public DatabaseStartup(ApplicationEventPublisher events,
+            @Value("${app.database.startup-retry:PT10S}") Duration retryInterval) {
+        this.events = events;
+        this.retryInterval = retryInterval;
+    }
+
+    /** Replaces the migrate-on-startup strategy: keep the Flyway instance for {@link #migrate()}. */
+    @Bean
+    FlywayMigrationStrategy deferredFlywayMigration() {
+        return flyway::set;
+    }
+
+    /** UP while the migration is pending or done, DOWN once it failed for good. */
+    @Bean
+    HealthIndicator databaseMigrationHealthIndicator() {
+        return () -> {
+            final Throwable failed = failure;
+            if (failed != null)
+                return Health.down().withDetail("error", String.valueOf(failed.getMessage())).build();
+            return Health.up().withDetail("migrated", migrated).build();
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        final Flyway target = flyway.get();
+        migration = Mono.fromRunnable(() -> {
+            if (target != null)
+                target.migrate();
+        })
+                .subscribeOn(Schedulers.boundedElastic())
+                .doOnError(DatabaseStartup::retryable,
+                        e -> log.warn("Database not reachable yet, retrying in {}: {}", retryInterval,
+                                e.getMessage()))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, retryInterval).filter(DatabaseStartup::retryable))
+                .subscribe(null, this::failed, () -> {
+                    log.info("Database is migrated and reachable");
+                    migrated = true;
+                    events.publishEvent(new DatabaseReadyEvent());
+                });
+    }
+
+    private void failed(Throwable e) {
+        log.error("Database migration failed, refusing traffic", e);
+        failure = e;
+        AvailabilityChangeEvent.publish(events, this, ReadinessState.REFUSING_TRAFFIC);
+    }
+
+    /** Whether a failed migration may succeed later: anything but a Flyway error not caused by connectivity. */
+    static boolean retryable(Throwable e) {
+        if (!(e instanceof FlywayException))
+            return true;
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLTransientConnectionException || t instanceof SQLNonTransientConnectionException
+                    || t instanceof SQLRecoverableException || t instanceof ConnectException
+                    || t instanceof UnknownHostException || t instanceof SocketTimeoutException)
+                return true;
+            // SQLSTATE class 08: connection exception.
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("08"))
+                return true;
+        }
+        return false;
+    }
+
+    @PreDestroy
+    public void stop() {
+        final Disposable running = migration;
+        if (running != null)
+            running.dispose();
+    }
+}
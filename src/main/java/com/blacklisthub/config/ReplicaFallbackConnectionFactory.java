@@ -0,0 +1,68 @@
+package com.blacklisthub.config;
+
+import java.time.Duration;
+
+import org.reactivestreams.Publisher;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out replica connections, or primary ones while the replica is down.
+ *
+ * <p>
+ * When a replica connection cannot be acquired the caller gets a primary
+ * connection instead, and the replica is skipped for {@code retryAfter}; the
+ * next acquire after that tries it again. Callers never see replica outages,
+ * only the extra load on the primary.
+ */
+@Slf4j
+class ReplicaFallbackConnectionFactory implements ConnectionFactory {
+
+    private final ConnectionFactory replica;
+    private final ConnectionFactory primary;
+    private final long retryAfterNanos;
+
+    // System.nanoTime() until which the replica is skipped; only meaningful while down.
+    private volatile long downUntil;
+    private volatile boolean down;
+
+    ReplicaFallbackConnectionFactory(ConnectionFactory replica, ConnectionFactory primary, Duration retryAfter) {
+        this.replica = replica;
+        this.primary = primary;
+        this.retryAfterNanos = retryAfter.toNanos();
+    }
+
+    @Override
+    public Publisher<? extends Connection> create() {
+        if (down && System.nanoTime() - downUntil < 0)
+            return primary.create();
+        return Mono.<Connection>from(replica.create())
+                .doOnNext(connection -> {
+                    if (down) {
+                        down = false;
+                        log.info("Read replica is back, routing read-only queries to it again");
+                    }
+                })
+                .onErrorResume(e -> {
+                    if (!down)
+                        log.warn("Read replica unavailable, using the primary for {}: {}",
+                                Duration.ofNanos(retryAfterNanos), e.getMessage());
+                    downUntil = System.nanoTime() + retryAfterNanos;
+                    down = true;
+                    return Mono.from(primary.create());
+                });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return primary.getMetadata();
+    }
+
+    boolean isReplicaDown() {
+        return down;
+    }
+}
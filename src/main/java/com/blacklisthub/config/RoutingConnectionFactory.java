@@ -0,0 +1,16 @@
+package com.blacklisthub.config;
+
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+
+import com.blacklisthub.repository.DbRoute;
+
+import reactor.core.publisher.Mono;
+
+/** Picks the target connection factory from the {@link DbRoute} in the subscriber context. */
+class RoutingConnectionFactory extends AbstractRoutingConnectionFactory {
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(context -> Mono.just(DbRoute.of(context)));
+    }
+}
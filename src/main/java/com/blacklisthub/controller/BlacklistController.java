@@ -1,14 +1,27 @@
 package com.blacklisthub.controller;
 
+import java.time.Duration;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 
-import com.blacklisthub.service.DomainService;
-import com.blacklisthub.service.HashService;
-import com.blacklisthub.service.IpService;
-import com.blacklisthub.service.UrlService;
+import com.blacklisthub.controller.format.FeedFormat;
+import com.blacklisthub.controller.format.RenderedFeeds;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.security.BlocklistAuthFilter;
+import com.blacklisthub.service.ConsumerTelemetry;
+import com.blacklisthub.service.Snapshot;
 
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Mono;
@@ -18,36 +31,76 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class BlacklistController {
 
-    private final IpService ipService;
-    private final HashService hashService;
-    private final DomainService domainService;
-    private final UrlService urlService;
+    /** Set to {@code true} when the feed was served from a snapshot the database could not confirm. */
+    public static final String STALE_HEADER = "X-Feed-Stale";
 
-    @GetMapping(value = "/ips.txt", produces = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<String> getIpBlocklist() {
-        return ipService.findActiveIps()
-                .collectList()
-                .map(list -> String.join("\n", list) + "\n");
-    }
+    private final RenderedFeeds renderedFeeds;
+    private final FeedCachePolicy cachePolicy;
+    private final ConsumerTelemetry telemetry;
 
-    @GetMapping(value = "/hashes.txt", produces = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<String> getHashBlocklist() {
-        return hashService.findActiveHashes()
-                .collectList()
-                .map(list -> String.join("\n", list) + "\n");
+    /**
+     * A list in one of its formats, e.g. {@code /blacklist/ips.txt} or
+     * {@code /blacklist/ips.ipset} (see {@link FeedFormat}). Served from the
+     * snapshot file of the last render, with zero-copy transfer. The ETag is
+     * the content hash, so {@code If-None-Match} polls get a 304 until the
+     * list changes. Downloads can be resumed with {@code Range} and
+     * {@code If-Range} (see {@link SnapshotResponses}).
+     *
+     * <p>
+     * With {@code ?shard=i&of=N} only the values hashed to shard {@code i}
+     * (0-based) of {@code N} are served, so {@code N} nodes can split a list
+     * between them.
+     */
+    @GetMapping("/{list}.{extension}")
+    public Mono<ResponseEntity<?>> getBlocklist(@PathVariable String list, @PathVariable String extension,
+            @RequestParam(required = false) Integer shard, @RequestParam(name = "of", required = false) Integer of,
+            ServerWebExchange exchange) {
+        final FeedFormat format = renderedFeeds.format(list + "." + extension);
+        if (format == null)
+            return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND));
+        if (shard == null && of == null)
+            return renderedFeeds.get(format).map(snapshot -> respond(exchange, RenderedFeeds.fileName(format),
+                    format.type(), format.mediaType(), snapshot));
+        if (shard == null || of == null)
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "shard and of go together"));
+        return renderedFeeds.get(format, shard, of)
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .map(snapshot -> respond(exchange, RenderedFeeds.fileName(format, shard, of), format.type(),
+                        format.mediaType(), snapshot));
     }
 
-    @GetMapping(value = "/domains.txt", produces = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<String> getDomainBlocklist() {
-        return domainService.findActiveDomains()
-                .collectList()
-                .map(list -> String.join("\n", list) + "\n");
+    /**
+     * Every list in one NDJSON document, read from a single consistent
+     * database snapshot, with one ETag for the whole bundle.
+     */
+    @GetMapping("/bundle")
+    public Mono<ResponseEntity<?>> getBundle(ServerWebExchange exchange) {
+        return renderedFeeds.bundle()
+                .map(snapshot -> respond(exchange, RenderedFeeds.BUNDLE, null, MediaType.APPLICATION_NDJSON, snapshot));
     }
 
-    @GetMapping(value = "/urls.txt", produces = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<String> getUrlBlocklist() {
-        return urlService.findActiveUrls()
-                .collectList()
-                .map(list -> String.join("\n", list) + "\n");
+    /**
+     * Builds the response with the adaptive max-age, repeated as
+     * {@code Retry-After} on a {@code 304}, and records the poll in the
+     * consumer's telemetry once the status is known.
+     */
+    private ResponseEntity<?> respond(ServerWebExchange exchange, String feed, IocType type, MediaType mediaType,
+            Snapshot snapshot) {
+        final Duration maxAge = cachePolicy.maxAge(type, snapshot.stale());
+        final ServerHttpResponse response = exchange.getResponse();
+        final String consumer = exchange.getAttribute(BlocklistAuthFilter.CONSUMER_ATTRIBUTE);
+        final boolean head = HttpMethod.HEAD.equals(exchange.getRequest().getMethod());
+        response.beforeCommit(() -> {
+            final boolean notModified = response.getStatusCode() != null
+                    && response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value();
+            if (notModified)
+                response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(maxAge.toSeconds()));
+            if (consumer != null)
+                telemetry.record(consumer, feed, snapshot.etag(), notModified,
+                        head || notModified ? 0 : Math.max(0, response.getHeaders().getContentLength()));
+            return Mono.empty();
+        });
+        return SnapshotResponses.of(exchange.getRequest(), mediaType, snapshot, maxAge);
     }
-}
\ No newline at end of file
+}
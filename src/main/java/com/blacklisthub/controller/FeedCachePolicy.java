@@ -0,0 +1,95 @@
+package com.blacklisthub.controller;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.service.DataChangedEvent;
+
+/**
+ * Picks the {@code Cache-Control: max-age} of each feed response from how
+ * often its list actually changes.
+ *
+ * <p>
+ * The time between two changes of a list is tracked as a moving average (the
+ * time since startup until the first change is seen). Consumers are told to
+ * come back after half of it, clamped to {@code app.feed-cache.min-age} ..
+ * {@code app.feed-cache.max-age}: a list under a bulk import is polled at the
+ * minimum, a list that changes once a day at the maximum. Each response then
+ * gets a random share of up to {@code app.feed-cache.jitter} taken off or
+ * added, so devices that polled together drift apart instead of all coming
+ * back on the same second. Stale responses get the minimum, so consumers pick
+ * up the real list soon after the database is back.
+ */
+@Component
+public class FeedCachePolicy {
+
+    private final long minNanos;
+    private final long maxNanos;
+    private final double jitter;
+    private final Map<IocType, AtomicLong> lastChangeNanos = new EnumMap<>(IocType.class);
+    private final Map<IocType, AtomicLong> changeIntervalNanos = new EnumMap<>(IocType.class);
+
+    public FeedCachePolicy(@Value("${app.feed-cache.min-age:PT30S}") Duration minAge,
+            @Value("${app.feed-cache.max-age:PT10M}") Duration maxAge,
+            @Value("${app.feed-cache.jitter:0.2}") double jitter) {
+        this(minAge, maxAge, jitter, System.nanoTime());
+    }
+
+    FeedCachePolicy(Duration minAge, Duration maxAge, double jitter, long startNanos) {
+        this.minNanos = minAge.toNanos();
+        this.maxNanos = Math.max(minNanos, maxAge.toNanos());
+        this.jitter = Math.clamp(jitter, 0, 1);
+        for (IocType type : IocType.values()) {
+            lastChangeNanos.put(type, new AtomicLong(startNanos));
+            changeIntervalNanos.put(type, new AtomicLong());
+        }
+    }
+
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        final long now = System.nanoTime();
+        for (IocType type : IocType.values()) {
+            if (event.touches(ChangeEntity.of(type)))
+                changed(type, now);
+        }
+    }
+
+    void changed(IocType type, long nowNanos) {
+        final long interval = nowNanos - lastChangeNanos.get(type).getAndSet(nowNanos);
+        changeIntervalNanos.get(type).accumulateAndGet(interval, (avg, x) -> avg == 0 ? x : avg + (x - avg) / 4);
+    }
+
+    /** The max-age for a feed of {@code type}, or of the bundle if {@code type} is null. */
+    public Duration maxAge(IocType type, boolean stale) {
+        return maxAge(type, stale, System.nanoTime(), ThreadLocalRandom.current().nextDouble(-1, 1));
+    }
+
+    Duration maxAge(IocType type, boolean stale, long nowNanos, double random) {
+        if (stale)
+            return seconds(minNanos);
+        long expected = Long.MAX_VALUE;
+        for (IocType t : type == null ? IocType.values() : new IocType[] { type })
+            expected = Math.min(expected, expectedChangeInterval(t, nowNanos));
+        final long age = Math.clamp(expected / 2, minNanos, maxNanos);
+        final long jittered = Math.clamp((long) (age * (1 + jitter * random)), minNanos, maxNanos);
+        return seconds(jittered);
+    }
+
+    private static Duration seconds(long nanos) {
+        return Duration.ofSeconds(Math.max(1, Duration.ofNanos(nanos).toSeconds()));
+    }
+
+    private long expectedChangeInterval(IocType type, long nowNanos) {
+        final long average = changeIntervalNanos.get(type).get();
+        return average != 0 ? average : nowNanos - lastChangeNanos.get(type).get();
+    }
+}
@@ -0,0 +1,111 @@
+package com.blacklisthub.controller;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+import com.blacklisthub.service.Snapshot;
+
+/**
+ * Builds the response for a feed {@link Snapshot}, with resumable downloads.
+ *
+ * <p>
+ * Snapshot files are immutable and their ETag is a strong content hash, so a
+ * byte range of a given ETag always means the same bytes. A {@code Range}
+ * request is answered with {@code 206 Partial Content} for just those bytes
+ * (the ranges themselves are written by Spring's resource writer). With
+ * {@code If-Range}, the range is only honoured while the ETag (or
+ * {@code Last-Modified} date) still matches; after a change the whole new
+ * feed is sent with {@code 200}, and the client starts over. An
+ * unsatisfiable range gets {@code 416} with the feed length. {@code HEAD}
+ * returns the headers, {@code Content-Length} included, without reading the
+ * file. {@code If-None-Match} is handled by Spring and gives {@code 304}.
+ * Every response carries the {@code Cache-Control} max-age chosen by
+ * {@link FeedCachePolicy}.
+ */
+final class SnapshotResponses {
+    private SnapshotResponses() {
+    }
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    static ResponseEntity<?> of(ServerHttpRequest request, MediaType mediaType, Snapshot snapshot,
+            Duration maxAge) {
+        final long length = contentLength(snapshot);
+        final ResponseEntity.BodyBuilder ok = headers(ResponseEntity.ok(), mediaType, snapshot, maxAge);
+        if (HttpMethod.HEAD.equals(request.getMethod()))
+            return ok.contentLength(length).build();
+
+        final String range = request.getHeaders().getFirst(HttpHeaders.RANGE);
+        if (range == null)
+            return ok.body(snapshot.body());
+        if (!ifRangeMatches(request.getHeaders().getFirst(HttpHeaders.IF_RANGE), snapshot)) {
+            // Streamed rather than handed to the resource writer, which would apply the range.
+            return ok.contentLength(length)
+                    .body(DataBufferUtils.read(snapshot.body(), DefaultDataBufferFactory.sharedInstance, BUFFER_SIZE));
+        }
+        try {
+            HttpRange.toResourceRegions(HttpRange.parseRanges(range), snapshot.body());
+        } catch (IllegalArgumentException e) {
+            return headers(ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE), mediaType, snapshot,
+                    maxAge)
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                    .build();
+        }
+        return ok.body(snapshot.body());
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder response, MediaType mediaType,
+            Snapshot snapshot, Duration maxAge) {
+        response.contentType(mediaType)
+                .cacheControl(CacheControl.maxAge(maxAge).cachePrivate())
+                .eTag(snapshot.etag())
+                .lastModified(snapshot.renderedAt())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (snapshot.stale())
+            response.header(BlacklistController.STALE_HEADER, "true");
+        return response;
+    }
+
+    /**
+     * Whether a range may be served: no {@code If-Range}, or one naming this
+     * snapshot by its strong ETag or its exact {@code Last-Modified} date.
+     */
+    static boolean ifRangeMatches(String ifRange, Snapshot snapshot) {
+        if (ifRange == null)
+            return true;
+        final String value = ifRange.trim();
+        if (value.startsWith("\"") || value.startsWith("W/"))
+            return value.equals("\"" + snapshot.etag() + "\"");
+        try {
+            final Instant date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return date.equals(snapshot.renderedAt().truncatedTo(ChronoUnit.SECONDS));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static long contentLength(Snapshot snapshot) {
+        try {
+            return snapshot.body().contentLength();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+
+import org.springframework.http.MediaType;
+
+/** Encoding helpers shared by the binary feed formats. All integers are big-endian or LEB128. */
+final class BinaryFeeds {
+    private BinaryFeeds() {
+    }
+
+    static final MediaType OCTET_STREAM = MediaType.APPLICATION_OCTET_STREAM;
+
+    static void writeInt(ByteArrayOutputStream out, int value) {
+        out.write(value >>> 24);
+        out.write(value >>> 16);
+        out.write(value >>> 8);
+        out.write(value);
+    }
+
+    /** Unsigned LEB128: 7 bits per byte, least significant group first, high bit set on all but the last. */
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /** {@link #writeVarint} for an unsigned 128-bit value given as two longs. */
+    static void writeVarint(ByteArrayOutputStream out, long hi, long lo) {
+        while (hi != 0 || (lo & ~0x7FL) != 0) {
+            out.write((int) (lo & 0x7F) | 0x80);
+            lo = (lo >>> 7) | (hi << 57);
+            hi >>>= 7;
+        }
+        out.write((int) lo);
+    }
+
+    static long readLong(byte[] bytes, int from) {
+        long value = 0;
+        for (int i = from; i < from + 8; i++)
+            value = (value << 8) | (bytes[i] & 0xFF);
+        return value;
+    }
+
+    static long readUnsignedInt(byte[] bytes) {
+        return ((bytes[0] & 0xFFL) << 24) | ((bytes[1] & 0xFF) << 16) | ((bytes[2] & 0xFF) << 8) | (bytes[3] & 0xFF);
+    }
+}
@@ -0,0 +1,62 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/bundle}: every list in one NDJSON document, one indicator
+ * per line, e.g. {@code {"type":"ip","value":"10.0.0.1"}}. Types come in
+ * {@link IocType} order and each type in its feed order.
+ */
+final class FeedBundle {
+    private FeedBundle() {
+    }
+
+    static final String FILE_NAME = "bundle.ndjson";
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] VALUE = "\",\"value\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] END = "\"}\n".getBytes(StandardCharsets.US_ASCII);
+
+    static byte[] render(Map<IocType, List<byte[]>> values) {
+        int size = 0;
+        for (List<byte[]> list : values.values())
+            size += list.size() * 48;
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(size);
+        for (IocType type : IocType.values()) {
+            final byte[] start = ("{\"type\":\"" + type.name().toLowerCase(Locale.ROOT))
+                    .getBytes(StandardCharsets.US_ASCII);
+            for (byte[] value : values.getOrDefault(type, List.of())) {
+                out.writeBytes(start);
+                out.writeBytes(VALUE);
+                writeJsonString(out, value);
+                out.writeBytes(END);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /** Copies UTF-8 bytes into a JSON string body, escaping quotes, backslashes and control characters. */
+    private static void writeJsonString(ByteArrayOutputStream out, byte[] utf8) {
+        for (byte b : utf8) {
+            if (b == '"' || b == '\\') {
+                out.write('\\');
+                out.write(b);
+            } else if (b >= 0 && b < 0x20) {
+                out.write('\\');
+                out.write('u');
+                out.write('0');
+                out.write('0');
+                out.write(HEX[b >> 4]);
+                out.write(HEX[b & 0xF]);
+            } else {
+                out.write(b);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.blacklisthub.controller.format;
+
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * A consumer-specific rendering of one blocklist, served as
+ * {@code /blacklist/<list>.<extension>} (e.g. {@code /blacklist/ips.ipset}).
+ *
+ * <p>
+ * Implementations are Spring beans and are picked up automatically. Output is
+ * rendered once per data change by {@link RenderedFeeds} and shared by every
+ * request until the list changes again, so {@link #render(List)} may be
+ * expensive but must depend on nothing but its input (and the clock, for
+ * serials).
+ */
+public interface FeedFormat {
+
+    MediaType TEXT_PLAIN_UTF8 = MediaType.parseMediaType("text/plain;charset=UTF-8");
+
+    /** The list this format renders. */
+    IocType type();
+
+    /** File extension under {@code /blacklist}, lowercase, e.g. {@code ipset}. */
+    String extension();
+
+    default MediaType mediaType() {
+        return TEXT_PLAIN_UTF8;
+    }
+
+    /**
+     * Whether {@link #render(List)} takes the values' binary form (see
+     * {@code FeedQueries.activeBinaryValues}) instead of their text.
+     */
+    default boolean binaryValues() {
+        return false;
+    }
+
+    /**
+     * Renders the whole feed.
+     *
+     * @param values UTF-8 bytes of each active value, in feed order, or their
+     *               binary form if {@link #binaryValues()}
+     */
+    byte[] render(List<byte[]> values);
+}
@@ -0,0 +1,42 @@
+package com.blacklisthub.controller.format;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Splits a feed into {@code count} disjoint shards for consumers that spread
+ * matching over several nodes ({@code ?shard=i&of=N}).
+ *
+ * <p>
+ * A value belongs to shard {@code CRC-32(value) mod count}, computed over the
+ * exact bytes the format renders: the normalized text for text formats, the
+ * binary key for binary ones. The assignment only depends on the value and
+ * {@code count}, so it is the same on every replica and across data changes,
+ * and a value never moves between shards while {@code count} stays the same.
+ * Each shard keeps the feed order.
+ */
+final class FeedShards {
+    private FeedShards() {
+    }
+
+    static int shardOf(byte[] value, int count) {
+        final CRC32 crc = new CRC32();
+        crc.update(value);
+        return (int) (crc.getValue() % count);
+    }
+
+    static List<List<byte[]>> split(List<byte[]> values, int count) {
+        final List<List<byte[]>> shards = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            shards.add(new ArrayList<>(values.size() / count + 1));
+        for (byte[] value : values)
+            shards.get(shardOf(value, count)).add(value);
+        return shards;
+    }
+
+    /** {@code ips.shard-0-of-4.nginx} for shard 0 of {@code ips.nginx}. */
+    static String fileName(FeedFormat format, int shard, int count) {
+        return RenderedFeeds.listName(format.type()) + ".shard-" + shard + "-of-" + count + "." + format.extension();
+    }
+}
@@ -0,0 +1,79 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/hashes.bin}: the hash list as raw digest bytes, one
+ * section per digest length.
+ *
+ * <pre>
+ * magic     4 bytes  "BHHS"
+ * version   1 byte   1
+ * sections  uint8    number of sections
+ * then per section, by ascending digest length:
+ *   length  uint8    digest length in bytes (16 MD5, 20 SHA-1, 32 SHA-256)
+ *   count   uint32   number of digests
+ *   digests count * length bytes, in ascending byte order
+ * </pre>
+ *
+ * Sections without digests are left out. Digests are random, so they are not
+ * delta-encoded; at half the size of their hex text there is nothing else to
+ * gain, and clients can binary-search a section in place.
+ */
+@Component
+class HashBinaryFormat implements FeedFormat {
+
+    static final byte[] MAGIC = { 'B', 'H', 'H', 'S' };
+    static final int VERSION = 1;
+
+    @Override
+    public IocType type() {
+        return IocType.HASH;
+    }
+
+    @Override
+    public String extension() {
+        return "bin";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return BinaryFeeds.OCTET_STREAM;
+    }
+
+    @Override
+    public boolean binaryValues() {
+        return true;
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        // Values come sorted by their hex text, so each length is sorted by bytes.
+        final Map<Integer, ByteArrayOutputStream> sections = new TreeMap<>();
+        int size = 6;
+        for (byte[] digest : values) {
+            if (digest.length == 0 || digest.length > 255)
+                throw new IllegalStateException("Unexpected digest length " + digest.length);
+            sections.computeIfAbsent(digest.length, length -> new ByteArrayOutputStream()).writeBytes(digest);
+            size += digest.length;
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(size + sections.size() * 5);
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        out.write(sections.size());
+        sections.forEach((length, digests) -> {
+            out.write(length);
+            BinaryFeeds.writeInt(out, digests.size() / length);
+            out.writeBytes(digests.toByteArray());
+        });
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,98 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/ips.bin}: the IP list as sorted, delta-encoded integers,
+ * built straight from {@code ip_bin}.
+ *
+ * <pre>
+ * magic    4 bytes  "BHIP"
+ * version  1 byte   1
+ * count4   uint32   number of IPv4 addresses
+ * count6   uint32   number of IPv6 addresses
+ * ipv4     count4 varints
+ * ipv6     count6 varints
+ * </pre>
+ *
+ * Each section holds its addresses in ascending order as unsigned 32- or
+ * 128-bit integers. Every address is stored as the difference to the previous
+ * one in its section (the first one as itself), as an unsigned LEB128 varint.
+ * Dense ranges thus take about one byte per address.
+ */
+@Component
+class IpBinaryFormat implements FeedFormat {
+
+    static final byte[] MAGIC = { 'B', 'H', 'I', 'P' };
+    static final int VERSION = 1;
+
+    @Override
+    public IocType type() {
+        return IocType.IP;
+    }
+
+    @Override
+    public String extension() {
+        return "bin";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return BinaryFeeds.OCTET_STREAM;
+    }
+
+    @Override
+    public boolean binaryValues() {
+        return true;
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        final ByteArrayOutputStream v4 = new ByteArrayOutputStream(values.size() * 2);
+        final ByteArrayOutputStream v6 = new ByteArrayOutputStream();
+        int count4 = 0;
+        int count6 = 0;
+        long prev4 = 0;
+        long prevHi = 0;
+        long prevLo = 0;
+        for (byte[] ip : values) {
+            if (ip.length == 4) {
+                final long value = BinaryFeeds.readUnsignedInt(ip);
+                if (count4 > 0 && value <= prev4)
+                    throw new IllegalStateException("IPv4 addresses are not in ascending order");
+                BinaryFeeds.writeVarint(v4, value - prev4);
+                prev4 = value;
+                count4++;
+            } else if (ip.length == 16) {
+                final long hi = BinaryFeeds.readLong(ip, 0);
+                final long lo = BinaryFeeds.readLong(ip, 8);
+                final int order = Long.compareUnsigned(hi, prevHi) != 0
+                        ? Long.compareUnsigned(hi, prevHi)
+                        : Long.compareUnsigned(lo, prevLo);
+                if (count6 > 0 && order <= 0)
+                    throw new IllegalStateException("IPv6 addresses are not in ascending order");
+                final long borrow = Long.compareUnsigned(lo, prevLo) < 0 ? 1 : 0;
+                BinaryFeeds.writeVarint(v6, hi - prevHi - borrow, lo - prevLo);
+                prevHi = hi;
+                prevLo = lo;
+                count6++;
+            } else {
+                throw new IllegalStateException("Unexpected ip_bin length " + ip.length);
+            }
+        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(13 + v4.size() + v6.size());
+        out.writeBytes(MAGIC);
+        out.write(VERSION);
+        BinaryFeeds.writeInt(out, count4);
+        BinaryFeeds.writeInt(out, count6);
+        out.writeBytes(v4.toByteArray());
+        out.writeBytes(v6.toByteArray());
+        return out.toByteArray();
+    }
+}
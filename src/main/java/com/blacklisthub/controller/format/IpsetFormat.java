@@ -0,0 +1,66 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/ips.ipset}: input for {@code ipset restore}. IPv4 and IPv6
+ * addresses go to two {@code hash:ip} sets, {@value #SET_V4} and
+ * {@value #SET_V6}, which are created if missing and flushed first, so
+ * applying the file replaces the sets' contents:
+ *
+ * <pre>
+ * curl ... /blacklist/ips.ipset | ipset restore
+ * </pre>
+ */
+@Component
+class IpsetFormat implements FeedFormat {
+
+    static final String SET_V4 = "blacklisthub4";
+    static final String SET_V6 = "blacklisthub6";
+
+    private static final byte[] ADD_V4 = ("add " + SET_V4 + " ").getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ADD_V6 = ("add " + SET_V6 + " ").getBytes(StandardCharsets.US_ASCII);
+
+    @Override
+    public IocType type() {
+        return IocType.IP;
+    }
+
+    @Override
+    public String extension() {
+        return "ipset";
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        final ByteArrayOutputStream v4 = new ByteArrayOutputStream(values.size() * 36);
+        final ByteArrayOutputStream v6 = new ByteArrayOutputStream();
+        v4.writeBytes(("create " + SET_V4 + " hash:ip family inet -exist\n"
+                + "create " + SET_V6 + " hash:ip family inet6 -exist\n"
+                + "flush " + SET_V4 + "\n"
+                + "flush " + SET_V6 + "\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] ip : values) {
+            final boolean isV6 = indexOf(ip, (byte) ':') >= 0;
+            final ByteArrayOutputStream out = isV6 ? v6 : v4;
+            out.writeBytes(isV6 ? ADD_V6 : ADD_V4);
+            out.writeBytes(ip);
+            out.write('\n');
+        }
+        v4.writeBytes(v6.toByteArray());
+        return v4.toByteArray();
+    }
+
+    private static int indexOf(byte[] bytes, byte b) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == b)
+                return i;
+        }
+        return -1;
+    }
+}
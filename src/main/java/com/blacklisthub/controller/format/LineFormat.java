@@ -0,0 +1,45 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import com.blacklisthub.entity.IocType;
+
+/** A format that writes each value on its own line between a fixed prefix and suffix. */
+abstract class LineFormat implements FeedFormat {
+
+    private final IocType type;
+    private final String extension;
+    private final byte[] prefix;
+    private final byte[] suffix;
+
+    LineFormat(IocType type, String extension, String prefix, String suffix) {
+        this.type = type;
+        this.extension = extension;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.suffix = (suffix + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public IocType type() {
+        return type;
+    }
+
+    @Override
+    public String extension() {
+        return extension;
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(
+                values.size() * (prefix.length + suffix.length + 16));
+        for (byte[] value : values) {
+            out.writeBytes(prefix);
+            out.writeBytes(value);
+            out.writeBytes(suffix);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,14 @@
+package com.blacklisthub.controller.format;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/** {@code /blacklist/ips.nginx}: one {@code deny <ip>;} per line, for an {@code include} in a server block. */
+@Component
+class NginxFormat extends LineFormat {
+
+    NginxFormat() {
+        super(IocType.IP, "nginx", "deny ", ";");
+    }
+}
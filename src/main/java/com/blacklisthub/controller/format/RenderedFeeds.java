@@ -0,0 +1,255 @@
+package com.blacklisthub.controller.format;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.FeedQueries;
+import com.blacklisthub.service.ChangeLogPoller;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.DatabaseReadyEvent;
+import com.blacklisthub.service.Snapshot;
+import com.blacklisthub.service.SnapshotStore;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Renders each {@link FeedFormat}, and the all-lists bundle, once per data
+ * change and serves that snapshot to every request in between.
+ *
+ * <p>
+ * The first request after a change runs the feed query and the render, and
+ * persists the result with {@link SnapshotStore}; concurrent requests
+ * share that render. The snapshot of a list is dropped when a
+ * {@link DataChangedEvent} touches its indicator type, i.e. within
+ * {@code app.change-bus.poll-interval} of a write on any replica.
+ *
+ * <p>
+ * If a render fails, the newest snapshot on disk (possibly from a previous
+ * run) is served instead, marked stale, and the render is retried after
+ * {@code app.feed-snapshots.retry-after}. Snapshots are also marked stale
+ * while the change bus cannot reach the database, since changes made
+ * elsewhere would go unseen.
+ *
+ * <p>
+ * At startup every format is preloaded, stale, from its newest snapshot on
+ * disk, so the feeds are served before the database is reachable. They are
+ * re-rendered in the background on {@link DatabaseReadyEvent}.
+ *
+ * <p>
+ * A sharded feed ({@link FeedShards}) is rendered as a whole: the first
+ * request for shard {@code i} of {@code N} after a change splits the list once
+ * and renders all {@code N} shards, which the other nodes then share. Counts
+ * up to {@code app.feed-shards.max-count} are accepted.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class RenderedFeeds {
+
+    /** File name of the all-lists bundle. */
+    public static final String BUNDLE = FeedBundle.FILE_NAME;
+
+    private static final Duration FOREVER = Duration.ofMillis(Long.MAX_VALUE);
+
+    private final FeedQueries feedQueries;
+    private final SnapshotStore store;
+    private final ChangeLogPoller changeBus;
+    private final BlacklistMetrics metrics;
+    private final Duration retryAfter;
+    private final int maxShards;
+    private final Map<String, FeedFormat> formats = new HashMap<>();
+    // Keyed by file name: every format, plus the bundle.
+    private final Map<String, Mono<Snapshot>> rendered = new ConcurrentHashMap<>();
+    private final Map<Sharding, Mono<List<Snapshot>>> sharded = new ConcurrentHashMap<>();
+
+    private record Sharding(FeedFormat format, int count) {
+    }
+
+    public RenderedFeeds(FeedQueries feedQueries, SnapshotStore store, ChangeLogPoller changeBus,
+            BlacklistMetrics metrics, List<FeedFormat> formats,
+            @Value("${app.feed-snapshots.retry-after:PT5S}") Duration retryAfter,
+            @Value("${app.feed-shards.max-count:64}") int maxShards) {
+        this.feedQueries = feedQueries;
+        this.store = store;
+        this.changeBus = changeBus;
+        this.metrics = metrics;
+        this.retryAfter = retryAfter;
+        this.maxShards = maxShards;
+        for (FeedFormat format : formats) {
+            FeedFormat previous = this.formats.put(fileName(format), format);
+            if (previous != null)
+                throw new IllegalStateException("Two feed formats serve " + fileName(format) + ": "
+                        + previous.getClass().getSimpleName() + " and " + format.getClass().getSimpleName());
+        }
+        log.info("Feed formats: {}", this.formats.keySet().stream().sorted().toList());
+        preload();
+    }
+
+    /** Serves the snapshots of the previous run until the database confirms them. */
+    private void preload() {
+        final List<String> loaded = new ArrayList<>();
+        for (String name : names()) {
+            try {
+                Snapshot snapshot = store.latest(name).block();
+                if (snapshot != null) {
+                    rendered.put(name, Mono.just(snapshot.asStale()));
+                    loaded.add(name + "@" + snapshot.renderedAt());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not load the {} snapshot: {}", name, e.getMessage());
+            }
+        }
+        if (!loaded.isEmpty())
+            log.info("Serving feed snapshots until the database is ready: {}", loaded);
+    }
+
+    private List<String> names() {
+        final List<String> names = new ArrayList<>(formats.keySet());
+        names.add(FeedBundle.FILE_NAME);
+        return names;
+    }
+
+    /** {@code ips.ipset}, {@code domains.rpz}, ... */
+    public static String fileName(FeedFormat format) {
+        return listName(format.type()) + "." + format.extension();
+    }
+
+    /** {@code ips.shard-0-of-4.nginx}, see {@link FeedShards}. */
+    public static String fileName(FeedFormat format, int shard, int count) {
+        return FeedShards.fileName(format, shard, count);
+    }
+
+    static String listName(IocType type) {
+        return switch (type) {
+            case IP -> "ips";
+            case HASH -> "hashes";
+            case DOMAIN -> "domains";
+            case URL -> "urls";
+        };
+    }
+
+    /** The format served as {@code /blacklist/<fileName>}, or null. */
+    public FeedFormat format(String fileName) {
+        return formats.get(fileName);
+    }
+
+    public Mono<Snapshot> get(FeedFormat format) {
+        return cached(fileName(format), () -> render(format));
+    }
+
+    /**
+     * Shard {@code shard} of {@code count} of a feed; all shards of that count
+     * are rendered together, once per data change. Fails with
+     * {@link IllegalArgumentException} if the shard is out of range.
+     */
+    public Mono<Snapshot> get(FeedFormat format, int shard, int count) {
+        if (count < 1 || count > maxShards || shard < 0 || shard >= count)
+            return Mono.error(new IllegalArgumentException(
+                    "Shard " + shard + " of " + count + " is out of range (1 to " + maxShards + " shards)"));
+        if (count == 1)
+            return get(format);
+        final String name = FeedShards.fileName(format, shard, count);
+        return served(name, sharded
+                .computeIfAbsent(new Sharding(format, count), key -> memoized(
+                        fileName(format) + " in " + count + " shards", renderShards(format, count)))
+                .map(shards -> shards.get(shard)));
+    }
+
+    /**
+     * All lists as one NDJSON document (see {@link FeedBundle}), read in a
+     * single transaction so the lists are consistent with each other.
+     */
+    public Mono<Snapshot> bundle() {
+        return cached(FeedBundle.FILE_NAME, () -> feedQueries.activeValueBytesOfAllTypes().map(FeedBundle::render));
+    }
+
+    private Mono<Snapshot> snapshot(String name) {
+        return FeedBundle.FILE_NAME.equals(name) ? bundle() : get(formats.get(name));
+    }
+
+    private Mono<Snapshot> cached(String name, Supplier<Mono<byte[]>> render) {
+        return served(name, rendered.computeIfAbsent(name,
+                n -> memoized(n, render.get().flatMap(body -> store.write(n, body)))));
+    }
+
+    /** Shares a render until it is dropped; a failure is kept for {@code retryAfter}. */
+    private <T> Mono<T> memoized(String name, Mono<T> render) {
+        return render
+                .doOnError(e -> log.warn("Could not render {}: {}", name, e.getMessage()))
+                .cache(value -> FOREVER, e -> retryAfter, () -> Duration.ZERO);
+    }
+
+    private Mono<Snapshot> served(String name, Mono<Snapshot> render) {
+        return render
+                .map(snapshot -> changeBus.isConnected() ? snapshot : snapshot.asStale())
+                .onErrorResume(e -> store.latest(name)
+                        .doOnNext(snapshot -> log.debug("Serving the {} snapshot of {} stale: {}", name,
+                                snapshot.renderedAt(), e.getMessage()))
+                        .map(Snapshot::asStale)
+                        .switchIfEmpty(Mono.error(e)));
+    }
+
+    private Mono<byte[]> render(FeedFormat format) {
+        return metrics.timeFeedBytes(format.type(), fileName(format), values(format).map(format::render));
+    }
+
+    private Mono<List<Snapshot>> renderShards(FeedFormat format, int count) {
+        return metrics.timeFeedShards(format.type(), fileName(format), count, values(format)
+                .map(values -> FeedShards.split(values, count).stream().map(format::render).toList()))
+                .flatMapMany(Flux::fromIterable)
+                .index()
+                .concatMap(shard -> store.write(FeedShards.fileName(format, shard.getT1().intValue(), count),
+                        shard.getT2()))
+                .collectList();
+    }
+
+    private Mono<List<byte[]>> values(FeedFormat format) {
+        final Flux<byte[]> values = format.binaryValues()
+                ? feedQueries.activeBinaryValues(format.type())
+                : feedQueries.activeValueBytes(format.type());
+        return values.collectList();
+    }
+
+    /** Re-renders every feed now that the database is reachable, replacing boot snapshots. */
+    @EventListener(DatabaseReadyEvent.class)
+    public void reconcile() {
+        final List<String> names = names();
+        sharded.clear();
+        Flux.fromIterable(names)
+                .concatMap(name -> {
+                    rendered.remove(name);
+                    return snapshot(name).onErrorResume(e -> Mono.empty());
+                })
+                .filter(snapshot -> !snapshot.stale())
+                .count()
+                .subscribe(count -> log.info("Reconciled {} of {} feeds with the database", count, names.size()));
+    }
+
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        boolean anyList = false;
+        for (IocType type : IocType.values())
+            anyList |= event.touches(ChangeEntity.of(type));
+        if (anyList)
+            rendered.remove(FeedBundle.FILE_NAME);
+        formats.forEach((name, format) -> {
+            if (event.touches(ChangeEntity.of(format.type())))
+                rendered.remove(name);
+        });
+        sharded.keySet().removeIf(key -> event.touches(ChangeEntity.of(key.format().type())));
+    }
+}
@@ -0,0 +1,67 @@
+package com.blacklisthub.controller.format;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/domains.rpz}: a DNS Response Policy Zone for BIND or
+ * Unbound. Each domain and its subdomains get {@code CNAME .} (NXDOMAIN). The
+ * SOA serial is the render time in epoch seconds, so it grows with every
+ * change and secondaries pick up the new zone.
+ */
+@Component
+class RpzFormat implements FeedFormat {
+
+    private static final MediaType DNS_ZONE = MediaType.parseMediaType("text/dns;charset=UTF-8");
+    private static final byte[] WILDCARD = "*.".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NXDOMAIN = " CNAME .\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final Clock clock;
+
+    RpzFormat() {
+        this(Clock.systemUTC());
+    }
+
+    RpzFormat(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public IocType type() {
+        return IocType.DOMAIN;
+    }
+
+    @Override
+    public String extension() {
+        return "rpz";
+    }
+
+    @Override
+    public MediaType mediaType() {
+        return DNS_ZONE;
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(values.size() * 64 + 128);
+        final long serial = clock.instant().getEpochSecond();
+        out.writeBytes(("$TTL 300\n"
+                + "@ IN SOA localhost. hostmaster.localhost. " + serial + " 3600 600 86400 300\n"
+                + "@ IN NS localhost.\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] domain : values) {
+            out.writeBytes(domain);
+            out.writeBytes(NXDOMAIN);
+            out.writeBytes(WILDCARD);
+            out.writeBytes(domain);
+            out.writeBytes(NXDOMAIN);
+        }
+        return out.toByteArray();
+    }
+}
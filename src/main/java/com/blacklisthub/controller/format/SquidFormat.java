@@ -0,0 +1,17 @@
+package com.blacklisthub.controller.format;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/domains.squid}: a {@code dstdomain} ACL file. The leading
+ * dot makes each entry match the domain and all of its subdomains.
+ */
+@Component
+class SquidFormat extends LineFormat {
+
+    SquidFormat() {
+        super(IocType.DOMAIN, "squid", ".", "");
+    }
+}
@@ -0,0 +1,22 @@
+package com.blacklisthub.controller.format;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/ips.suricata}: a Suricata IP reputation file
+ * ({@code <ip>,<category>,<score>}). Every address is in category
+ * {@value #CATEGORY} with the maximum score, so the categories file needs one
+ * line: {@code 1,BlacklistHub,Blacklist Hub indicators}.
+ */
+@Component
+class SuricataFormat extends LineFormat {
+
+    static final int CATEGORY = 1;
+    static final int SCORE = 127;
+
+    SuricataFormat() {
+        super(IocType.IP, "suricata", "", "," + CATEGORY + "," + SCORE);
+    }
+}
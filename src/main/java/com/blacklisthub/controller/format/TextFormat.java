@@ -0,0 +1,24 @@
+package com.blacklisthub.controller.format;
+
+import java.util.List;
+
+import com.blacklisthub.entity.IocType;
+
+/**
+ * {@code /blacklist/<list>.txt}: one value per line, copied byte for byte. An
+ * empty list is a single newline. Registered per type in
+ * {@link TextFormatConfig}.
+ */
+class TextFormat extends LineFormat {
+
+    private static final byte[] EMPTY_FEED = { '\n' };
+
+    TextFormat(IocType type) {
+        super(type, "txt", "", "");
+    }
+
+    @Override
+    public byte[] render(List<byte[]> values) {
+        return values.isEmpty() ? EMPTY_FEED.clone() : super.render(values);
+    }
+}
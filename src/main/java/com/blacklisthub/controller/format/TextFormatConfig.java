@@ -0,0 +1,31 @@
+package com.blacklisthub.controller.format;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.blacklisthub.entity.IocType;
+
+/** The plain-text lists ({@code ips.txt}, {@code hashes.txt}, ...), one per IoC type. */
+@Configuration
+public class TextFormatConfig {
+
+    @Bean
+    FeedFormat ipTextFormat() {
+        return new TextFormat(IocType.IP);
+    }
+
+    @Bean
+    FeedFormat hashTextFormat() {
+        return new TextFormat(IocType.HASH);
+    }
+
+    @Bean
+    FeedFormat domainTextFormat() {
+        return new TextFormat(IocType.DOMAIN);
+    }
+
+    @Bean
+    FeedFormat urlTextFormat() {
+        return new TextFormat(IocType.URL);
+    }
+}
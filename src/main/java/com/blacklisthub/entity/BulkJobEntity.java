@@ -0,0 +1,51 @@
+package com.blacklisthub.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("bulk_jobs")
+public class BulkJobEntity {
+    @Id
+    private Long id;
+
+    private IocType iocType;
+    private String command;
+    private String slackUserId;
+    private String teamId;
+    private String channelId;
+    private String reason;
+    /** Expiry given to the indicators the job adds or reactivates; null if none. */
+    private LocalDateTime expiresAt;
+
+    /** Requested values, one per line. */
+    private String items;
+    private Integer total;
+
+    /** Checkpoint: number of items already processed. */
+    private Integer processed;
+    private Integer added;
+    private Integer reactivated;
+    private Integer alreadyActive;
+    private Integer invalid;
+    private Integer errors;
+    private String details;
+
+    private BulkJobStatus status;
+    private String owner;
+    private LocalDateTime heartbeatAt;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+
+}
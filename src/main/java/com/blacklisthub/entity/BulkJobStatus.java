@@ -0,0 +1,11 @@
+package com.blacklisthub.entity;
+
+/**
+ * Lifecycle of a persisted bulk job. Maps to the bulk_jobs.status ENUM.
+ */
+public enum BulkJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
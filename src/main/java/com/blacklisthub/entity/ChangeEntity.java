@@ -0,0 +1,18 @@
+package com.blacklisthub.entity;
+
+/**
+ * What a {@code change_log} row refers to. Maps to the entity ENUM of the
+ * {@code change_log} table.
+ */
+public enum ChangeEntity {
+    IP,
+    HASH,
+    DOMAIN,
+    URL,
+    CHANNEL,
+    USER;
+
+    public static ChangeEntity of(IocType type) {
+        return valueOf(type.name());
+    }
+}
@@ -0,0 +1,28 @@
+package com.blacklisthub.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("change_log")
+public class ChangeLogEntity {
+    @Id
+    private Long id;
+
+    private ChangeEntity entity;
+
+    /** Indicator id, channel id or Slack user id. */
+    private String entityKey;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,33 @@
+package com.blacklisthub.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("consumer_polls")
+public class ConsumerPollEntity {
+    @Id
+    private Long id;
+
+    private String consumer;
+
+    /** Feed file name, e.g. {@code ips.txt} or {@code hashes.shard-0-of-4.txt}. */
+    private String feed;
+
+    private String lastEtag;
+    private LocalDateTime lastPollAt;
+    private Long pollIntervalMs;
+    private Long requests;
+    private Long notModified;
+    private Long bytes;
+}
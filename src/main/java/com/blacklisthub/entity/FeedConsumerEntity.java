@@ -0,0 +1,31 @@
+package com.blacklisthub.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("feed_consumers")
+public class FeedConsumerEntity {
+    @Id
+    private Long id;
+
+    private String name;
+    private String tokenSha256;
+    private Integer requestsPerMinute;
+    private Integer burst;
+    private Boolean active;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+}
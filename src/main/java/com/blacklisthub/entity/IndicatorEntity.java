@@ -0,0 +1,45 @@
+package com.blacklisthub.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lifecycle columns shared by every indicator table (ip_addresses,
+ * hash_indicators, domain_indicators, url_indicators). Implemented by the
+ * Lombok-generated accessors of each entity, so the command engine can drive
+ * all IoC types through one code path.
+ */
+public interface IndicatorEntity {
+
+    Long getId();
+
+    String getReason();
+
+    void setReason(String reason);
+
+    Boolean getActive();
+
+    void setActive(Boolean active);
+
+    void setUpdatedAt(LocalDateTime updatedAt);
+
+    void setDeactivatedBy(Long deactivatedBy);
+
+    void setDeactivatedAt(LocalDateTime deactivatedAt);
+
+    /**
+     * Position of the last write in the global change sequence shared by all
+     * indicator tables, taken from {@code change_seq_counter} just before the
+     * write committed. Higher means committed later.
+     */
+    Long getChangeSeq();
+
+    void setChangeSeq(Long changeSeq);
+
+    /**
+     * When the indicator is deactivated by the expiry engine, or null if it
+     * never expires. Only meaningful while it is active.
+     */
+    LocalDateTime getExpiresAt();
+
+    void setExpiresAt(LocalDateTime expiresAt);
+}
@@ -16,7 +16,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table("ip_addresses")
-public class IpEntity {
+public class IpEntity implements IndicatorEntity {
     @Id
     private Long id;
 
@@ -37,4 +37,12 @@ public class IpEntity {
     @Column("deactivated_at")
     private LocalDateTime deactivatedAt;
 
+    /** Global change sequence, see {@link IndicatorEntity#getChangeSeq()}. */
+    @Column("change_seq")
+    private Long changeSeq;
+
+    /** When the indicator is deactivated automatically; null if never. */
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
 }
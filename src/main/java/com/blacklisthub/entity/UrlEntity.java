@@ -16,7 +16,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table("url_indicators")
-public class UrlEntity {
+public class UrlEntity implements IndicatorEntity {
     @Id
     private Long id;
 
@@ -39,4 +39,12 @@ public class UrlEntity {
     @Column("deactivated_at")
     private LocalDateTime deactivatedAt;
 
+    /** Global change sequence, see {@link IndicatorEntity#getChangeSeq()}. */
+    @Column("change_seq")
+    private Long changeSeq;
+
+    /** When the indicator is deactivated automatically; null if never. */
+    @Column("expires_at")
+    private LocalDateTime expiresAt;
+
 }
\ No newline at end of file
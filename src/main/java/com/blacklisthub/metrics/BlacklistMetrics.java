@@ -0,0 +1,271 @@
+package com.blacklisthub.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.IocType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.management.VirtualThreadSchedulerMXBean;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Central place for the application's custom Micrometer meters, so meter names
+ * and tag sets stay consistent across the Slack command, feed and Slack API
+ * paths. Exported through the actuator {@code prometheus} endpoint.
+ *
+ * <p>
+ * Tag values are deliberately bounded: subcommands outside the known set are
+ * reported as {@code unknown} so a typo in Slack cannot create new time series.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlacklistMetrics {
+
+    public static final String COMMAND_TIMER = "blacklist.command";
+    public static final String BULK_ITEMS_COUNTER = "blacklist.command.bulk.items";
+    public static final String FEED_RENDER_TIMER = "blacklist.feed.render";
+    public static final String FEED_BYTES_SUMMARY = "blacklist.feed.bytes";
+    public static final String SLACK_API_TIMER = "blacklist.slack.api";
+    public static final String COMMANDS_IN_FLIGHT_GAUGE = "blacklist.command.inflight";
+    public static final String COMMANDS_QUEUED_GAUGE = "blacklist.command.queued";
+    public static final String COMMANDS_REJECTED_COUNTER = "blacklist.command.rejected";
+    public static final String BULK_JOBS_RUNNING_GAUGE = "blacklist.bulk.jobs.running";
+    public static final String SLACK_IO_ACTIVE_GAUGE = "blacklist.slack.io.active";
+    public static final String VT_CARRIERS_PREFIX = "blacklist.vthreads.carriers";
+    public static final String CONSUMER_REQUESTS_COUNTER = "blacklist.consumer.requests";
+    public static final String CONSUMER_BYTES_COUNTER = "blacklist.consumer.bytes";
+    public static final String EXPIRED_COUNTER = "blacklist.indicators.expired";
+    public static final String EXPIRY_SCHEDULED_GAUGE = "blacklist.indicators.expiry.scheduled";
+
+    private static final Set<String> KNOWN_SUBCOMMANDS = Set.of(
+            "add", "deactivate", "reactivate", "edit", "list", "bulk");
+
+    private final MeterRegistry registry;
+
+    /**
+     * Times a command execution from subscription to completion. The outcome tag
+     * is derived from the emoji prefix of the Slack reply, since the command
+     * services map failures to user-facing messages instead of error signals.
+     */
+    public Mono<String> timeCommand(IocType type, String sub, Mono<String> execution) {
+        return Mono.defer(() -> {
+            final Timer.Sample sample = Timer.start(registry);
+            final AtomicReference<String> outcome = new AtomicReference<>("error");
+            return execution
+                    .doOnNext(reply -> outcome.set(outcomeOf(reply)))
+                    .doFinally(signal -> sample.stop(Timer.builder(COMMAND_TIMER)
+                            .description("Slack command execution time")
+                            .tag("type", type.name())
+                            .tag("sub", subcommandTag(sub))
+                            .tag("outcome", signal == SignalType.CANCEL ? "cancelled" : outcome.get())
+                            .register(registry)));
+        });
+    }
+
+    /** Counts one per-item result of a bulk operation (added, reactivated, ...). */
+    public void bulkItem(IocType type, String outcome) {
+        Counter.builder(BULK_ITEMS_COUNTER)
+                .description("Per-item outcomes of bulk commands")
+                .tag("type", type.name())
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment();
+    }
+
+    /** See {@link #timeFeed(IocType, String, int, Mono, ToLongFunction)}; records the body's length. */
+    public Mono<byte[]> timeFeedBytes(IocType type, String feed, Mono<byte[]> render) {
+        return timeFeed(type, feed, 1, render, body -> body.length);
+    }
+
+    /**
+     * See {@link #timeFeed(IocType, String, int, Mono, ToLongFunction)};
+     * records the total size of the {@code count} shards.
+     */
+    public Mono<List<byte[]>> timeFeedShards(IocType type, String feed, int count, Mono<List<byte[]>> render) {
+        return timeFeed(type, feed, count, render, shards -> shards.stream().mapToLong(body -> body.length).sum());
+    }
+
+    /**
+     * Times the rendering of a feed and records its size in bytes, tagged by
+     * the feed's file name (e.g. {@code ips.nginx}) and the number of shards it
+     * is split into, so a slow or growing feed can be told apart from the
+     * other formats of the same type.
+     */
+    private <T> Mono<T> timeFeed(IocType type, String feed, int shards, Mono<T> render, ToLongFunction<T> size) {
+        return Mono.defer(() -> {
+            final Timer.Sample sample = Timer.start(registry);
+            return render
+                    .doOnNext(body -> DistributionSummary.builder(FEED_BYTES_SUMMARY)
+                            .description("Size of rendered blocklist feeds")
+                            .baseUnit("bytes")
+                            .tag("type", type.name())
+                            .tag("feed", feed)
+                            .tag("shards", String.valueOf(shards))
+                            .register(registry)
+                            .record(size.applyAsLong(body)))
+                    .doOnSuccess(body -> sample.stop(feedTimer(type, feed, shards, "success")))
+                    .doOnError(e -> sample.stop(feedTimer(type, feed, shards, "error")));
+        });
+    }
+
+    /**
+     * Runs a blocking Slack Web API call and records its latency, tagged by API
+     * method and whether it threw.
+     */
+    public <T> T timeSlackCall(String method, Callable<T> call) throws Exception {
+        final Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = call.call();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder(SLACK_API_TIMER)
+                    .description("Latency of Slack Web API calls")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .register(registry));
+        }
+    }
+
+    /** Exposes the command scheduler's occupancy. */
+    public void commandSchedulerGauges(Supplier<Number> inFlight, Supplier<Number> queued) {
+        Gauge.builder(COMMANDS_IN_FLIGHT_GAUGE, inFlight)
+                .description("Slack commands currently executing")
+                .register(registry);
+        Gauge.builder(COMMANDS_QUEUED_GAUGE, queued)
+                .description("Slack commands waiting for an execution slot")
+                .register(registry);
+    }
+
+    /** Counts a command turned away because the scheduler was saturated. */
+    public void commandRejected() {
+        Counter.builder(COMMANDS_REJECTED_COUNTER)
+                .description("Slack commands rejected with a busy reply")
+                .register(registry)
+                .increment();
+    }
+
+    /** Exposes the bulk jobs currently processed by this instance. */
+    public void bulkJobsGauge(Supplier<Number> running) {
+        Gauge.builder(BULK_JOBS_RUNNING_GAUGE, running)
+                .description("Bulk jobs currently being processed by this instance")
+                .register(registry);
+    }
+
+    /** Counts indicators deactivated by the expiry engine on this instance. */
+    public void expired(IocType type, long count) {
+        Counter.builder(EXPIRED_COUNTER)
+                .description("Indicators deactivated because their expiry passed")
+                .tag("type", type.name())
+                .register(registry)
+                .increment(count);
+    }
+
+    /** Exposes the number of upcoming expirations held in memory. */
+    public void expiryScheduledGauge(Supplier<Number> scheduled) {
+        Gauge.builder(EXPIRY_SCHEDULED_GAUGE, scheduled)
+                .description("Upcoming indicator expirations scheduled in memory")
+                .register(registry);
+    }
+
+    /** Meters of one blocklist consumer, see {@link #consumerMeters(String)}. */
+    public record ConsumerMeters(Counter served, Counter rateLimited, Counter bytes) {
+    }
+
+    /**
+     * Registers the request and byte counters of a blocklist consumer, tagged
+     * by its name. Called when the consumer registry is loaded, so the request
+     * path only increments counters it already holds.
+     */
+    public ConsumerMeters consumerMeters(String consumer) {
+        return new ConsumerMeters(consumerRequests(consumer, "served"), consumerRequests(consumer, "rate_limited"),
+                Counter.builder(CONSUMER_BYTES_COUNTER)
+                        .description("Feed bytes sent to a blocklist consumer")
+                        .baseUnit("bytes")
+                        .tag("consumer", consumer)
+                        .register(registry));
+    }
+
+    private Counter consumerRequests(String consumer, String outcome) {
+        return Counter.builder(CONSUMER_REQUESTS_COUNTER)
+                .description("Authenticated blocklist requests per consumer")
+                .tag("consumer", consumer)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * Exposes the Slack I/O scheduler's running tasks, tagged by thread mode.
+     * In virtual-thread mode the JDK carrier pool is exported as well, so the
+     * number of concurrent Slack calls can be compared with the handful of
+     * carrier threads actually mounted to serve them.
+     */
+    public void slackIoGauges(String threadMode, Supplier<Number> activeTasks) {
+        Gauge.builder(SLACK_IO_ACTIVE_GAUGE, activeTasks)
+                .description("Slack SDK calls currently running on the Slack I/O scheduler")
+                .tag("threads", threadMode)
+                .register(registry);
+        if (!"virtual".equals(threadMode))
+            return;
+
+        VirtualThreadSchedulerMXBean carriers = ManagementFactory
+                .getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+        Gauge.builder(VT_CARRIERS_PREFIX + ".parallelism", carriers, VirtualThreadSchedulerMXBean::getParallelism)
+                .description("Target number of carrier threads")
+                .register(registry);
+        Gauge.builder(VT_CARRIERS_PREFIX + ".pool.size", carriers, VirtualThreadSchedulerMXBean::getPoolSize)
+                .description("Carrier threads started")
+                .register(registry);
+        Gauge.builder(VT_CARRIERS_PREFIX + ".mounted", carriers,
+                VirtualThreadSchedulerMXBean::getMountedVirtualThreadCount)
+                .description("Virtual threads currently mounted on a carrier")
+                .register(registry);
+        Gauge.builder(VT_CARRIERS_PREFIX + ".queued", carriers,
+                VirtualThreadSchedulerMXBean::getQueuedVirtualThreadCount)
+                .description("Virtual threads waiting for a carrier")
+                .register(registry);
+    }
+
+    private Timer feedTimer(IocType type, String feed, int shards, String outcome) {
+        return Timer.builder(FEED_RENDER_TIMER)
+                .description("Time to load and render a blocklist feed")
+                .tag("type", type.name())
+                .tag("feed", feed)
+                .tag("shards", String.valueOf(shards))
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    static String subcommandTag(String sub) {
+        if (sub == null || sub.isBlank())
+            return "usage";
+        String lower = sub.toLowerCase(Locale.ROOT);
+        return KNOWN_SUBCOMMANDS.contains(lower) ? lower : "unknown";
+    }
+
+    static String outcomeOf(String reply) {
+        if (reply == null)
+            return "error";
+        if (reply.startsWith(":x:"))
+            return "error";
+        if (reply.startsWith(":warning:"))
+            return "rejected";
+        return "success";
+    }
+}
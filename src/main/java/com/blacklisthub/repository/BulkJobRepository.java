@@ -0,0 +1,61 @@
+package com.blacklisthub.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.blacklisthub.entity.BulkJobEntity;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface BulkJobRepository extends ReactiveCrudRepository<BulkJobEntity, Long> {
+
+    /** Queued jobs and running jobs whose owner stopped heart-beating, oldest first. */
+    @Query("SELECT * FROM bulk_jobs WHERE status = 'QUEUED' "
+            + "OR (status = 'RUNNING' AND heartbeat_at < :staleBefore) ORDER BY id LIMIT :limit")
+    Flux<BulkJobEntity> findClaimable(LocalDateTime staleBefore, int limit);
+
+    /**
+     * Takes the lease on a job. Emits 1 if this caller won it, 0 if another
+     * worker claimed it first.
+     */
+    @Modifying
+    @Query("UPDATE bulk_jobs SET status = 'RUNNING', owner = :owner, heartbeat_at = :now WHERE id = :id "
+            + "AND (status = 'QUEUED' OR (status = 'RUNNING' AND heartbeat_at < :staleBefore))")
+    Mono<Integer> claim(Long id, String owner, LocalDateTime now, LocalDateTime staleBefore);
+
+    /**
+     * Saves the progress of a chunk and renews the lease, if the caller still
+     * holds it. Only the chunk's detail lines are appended; the items are never
+     * rewritten. Emits 0 if the job was re-claimed by another worker.
+     */
+    @Modifying
+    @Query("UPDATE bulk_jobs SET processed = :processed, added = :added, reactivated = :reactivated, "
+            + "already_active = :alreadyActive, invalid = :invalid, errors = :errors, "
+            + "details = CONCAT(COALESCE(details, ''), :details), heartbeat_at = :now "
+            + "WHERE id = :id AND owner = :owner AND status = 'RUNNING'")
+    Mono<Integer> checkpoint(Long id, String owner, int processed, int added, int reactivated, int alreadyActive,
+            int invalid, int errors, String details, LocalDateTime now);
+
+    /** Renews the lease of a running job. Emits 0 if the caller no longer holds it. */
+    @Modifying
+    @Query("UPDATE bulk_jobs SET heartbeat_at = :now WHERE id = :id AND owner = :owner AND status = 'RUNNING'")
+    Mono<Integer> heartbeat(Long id, String owner, LocalDateTime now);
+
+    /**
+     * Moves a running job to {@code DONE} or {@code FAILED}. Emits 0 if the
+     * caller no longer holds the lease.
+     */
+    @Modifying
+    @Query("UPDATE bulk_jobs SET status = :status, finished_at = :finishedAt "
+            + "WHERE id = :id AND owner = :owner AND status = 'RUNNING'")
+    Mono<Integer> finish(Long id, String owner, String status, LocalDateTime finishedAt);
+
+    /** Hands an owner's running jobs back to the queue, e.g. on shutdown. */
+    @Modifying
+    @Query("UPDATE bulk_jobs SET status = 'QUEUED', owner = NULL WHERE owner = :owner AND status = 'RUNNING'")
+    Mono<Integer> release(String owner);
+}
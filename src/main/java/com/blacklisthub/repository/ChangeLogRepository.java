@@ -0,0 +1,31 @@
+package com.blacklisthub.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.blacklisthub.entity.ChangeLogEntity;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ChangeLogRepository extends ReactiveCrudRepository<ChangeLogEntity, Long> {
+
+    @Query("SELECT COALESCE(MAX(id), 0) FROM change_log")
+    Mono<Long> findMaxId();
+
+    /** Primary-key range scan of the changes after {@code after}, oldest first. */
+    @Query("SELECT * FROM change_log WHERE id > :after ORDER BY id LIMIT :limit")
+    Flux<ChangeLogEntity> findAfter(long after, int limit);
+
+    /** Primary-key lookups of changes the poller skipped before they committed. */
+    @Query("SELECT * FROM change_log WHERE id IN (:ids)")
+    Flux<ChangeLogEntity> findByIds(Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM change_log WHERE created_at < :before")
+    Mono<Integer> deleteOlderThan(LocalDateTime before);
+}
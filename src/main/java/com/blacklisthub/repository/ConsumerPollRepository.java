@@ -0,0 +1,32 @@
+package com.blacklisthub.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.blacklisthub.entity.ConsumerPollEntity;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ConsumerPollRepository extends ReactiveCrudRepository<ConsumerPollEntity, Long> {
+
+    /**
+     * Adds one replica's counts since its last flush to the consumer's row of
+     * the feed, creating it if needed, and replaces the last-poll columns.
+     */
+    @Modifying
+    @Query("INSERT INTO consumer_polls "
+            + "(consumer, feed, last_etag, last_poll_at, poll_interval_ms, requests, not_modified, bytes) "
+            + "VALUES (:consumer, :feed, :lastEtag, :lastPollAt, :pollIntervalMs, :requests, :notModified, :bytes) "
+            + "ON DUPLICATE KEY UPDATE last_etag = VALUES(last_etag), last_poll_at = VALUES(last_poll_at), "
+            + "poll_interval_ms = COALESCE(VALUES(poll_interval_ms), poll_interval_ms), "
+            + "requests = requests + VALUES(requests), not_modified = not_modified + VALUES(not_modified), "
+            + "bytes = bytes + VALUES(bytes)")
+    Mono<Integer> addPolls(String consumer, String feed, String lastEtag, LocalDateTime lastPollAt,
+            Long pollIntervalMs, long requests, long notModified, long bytes);
+
+    Flux<ConsumerPollEntity> findByConsumer(String consumer);
+}
@@ -0,0 +1,52 @@
+package com.blacklisthub.repository;
+
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+/**
+ * Which connection pool a query uses, carried in the Reactor context and read
+ * when a connection is acquired. Unmarked queries are {@link #INTERACTIVE}.
+ *
+ * <pre>
+ * repository.findActiveValues().contextWrite(DbRoute::readOnly)
+ * </pre>
+ *
+ * Inside a transaction the transaction's connection is used regardless, so
+ * the route of a transactional write is the one in effect where the
+ * transaction starts.
+ */
+public enum DbRoute {
+    /** Slack commands and everything unmarked: small pool slice, short waits. */
+    INTERACTIVE,
+    /** Lag-tolerant interactive reads (listings); the replica when configured. */
+    READ_ONLY,
+    /** Bulk jobs and other heavy background work. */
+    BULK,
+    /**
+     * Feed rendering; always the primary, since a render is cached until the
+     * next change seen in the primary's {@code change_log}.
+     */
+    FEED;
+
+    private static final Object KEY = DbRoute.class;
+
+    /**
+     * Marks the queries upstream of {@code contextWrite} as reads that tolerate
+     * replication lag. Reads that precede a write must stay interactive.
+     */
+    public static Context readOnly(Context context) {
+        return context.put(KEY, READ_ONLY);
+    }
+
+    public static Context bulk(Context context) {
+        return context.put(KEY, BULK);
+    }
+
+    public static Context feed(Context context) {
+        return context.put(KEY, FEED);
+    }
+
+    public static DbRoute of(ContextView context) {
+        return context.getOrDefault(KEY, INTERACTIVE);
+    }
+}
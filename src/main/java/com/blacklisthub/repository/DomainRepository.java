@@ -9,7 +9,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface DomainRepository extends ReactiveCrudRepository<DomainEntity, Long> {
-    Flux<DomainEntity> findByActiveTrueOrderByDomainNameAsc();
+    /**
+     * Values of the active indicators in feed order, read from the covering
+     * index {@code idx_domain_active_name} without loading the entities.
+     */
+    @Query("SELECT domain_name FROM domain_indicators WHERE active = 1 ORDER BY domain_name")
+    Flux<String> findActiveValues();
 
     /**
      * Finds a domain by its normalized (lowercase) value.
@@ -17,4 +22,12 @@ public interface DomainRepository extends ReactiveCrudRepository<DomainEntity, L
      */
     @Query("SELECT * FROM domain_indicators WHERE domain_norm = :normalizedDomain")
     Mono<DomainEntity> findByNormalizedDomain(String normalizedDomain);
-}
\ No newline at end of file
+
+    /**
+     * Indicators written after {@code afterSeq} (active or not), in change
+     * order. Sequences are taken in commit order, so an incremental reader
+     * that resumes from the last sequence it read misses no write.
+     */
+    @Query("SELECT * FROM domain_indicators WHERE change_seq > :afterSeq ORDER BY change_seq LIMIT :limit")
+    Flux<DomainEntity> findChangedSince(long afterSeq, int limit);
+}
@@ -0,0 +1,59 @@
+package com.blacklisthub.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.blacklisthub.entity.IocType;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Queries of the indicator expiry engine, the same for every indicator table.
+ * Expiring rows are found by a range scan of {@code idx_*_active_expires},
+ * never by scanning a table, and deactivated one conditional update at a
+ * time, so an indicator is expired once even when several replicas try.
+ */
+@Repository
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class ExpiryQueries {
+
+    private final DatabaseClient db;
+
+    /** An active indicator with an expiry. */
+    public record Expiring(long id, LocalDateTime expiresAt) {
+    }
+
+    /** Active indicators expiring at or before {@code :until}, read from the index alone. */
+    public static String expiringSql(IocType type) {
+        return "SELECT id, expires_at FROM " + IndicatorQueries.table(type)
+                + " WHERE active = 1 AND expires_at <= :until ORDER BY expires_at";
+    }
+
+    public Flux<Expiring> expiring(IocType type, LocalDateTime until) {
+        return db.sql(expiringSql(type))
+                .bind("until", until)
+                .map(row -> new Expiring(row.get("id", Long.class), row.get("expires_at", LocalDateTime.class)))
+                .all();
+    }
+
+    /**
+     * Deactivates the indicator if it is still active and its expiry has
+     * passed at {@code now}. Emits the number of rows changed: 0 if it was
+     * deactivated, extended or expired by someone else in the meantime.
+     */
+    public Mono<Long> deactivateIfExpired(IocType type, long id, LocalDateTime now, long actorUserId) {
+        return db.sql("UPDATE " + IndicatorQueries.table(type)
+                + " SET active = 0, updated_at = :now, deactivated_by = :actor, deactivated_at = :now"
+                + " WHERE id = :id AND active = 1 AND expires_at <= :now")
+                .bind("now", now)
+                .bind("actor", actorUserId)
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,12 @@
+package com.blacklisthub.repository;
+
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+import com.blacklisthub.entity.FeedConsumerEntity;
+
+import reactor.core.publisher.Flux;
+
+public interface FeedConsumerRepository extends ReactiveCrudRepository<FeedConsumerEntity, Long> {
+
+    Flux<FeedConsumerEntity> findByActiveTrue();
+}
@@ -0,0 +1,100 @@
+package com.blacklisthub.repository;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import com.blacklisthub.entity.IocType;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Feed queries that bypass entity mapping: each row is read straight off the
+ * R2DBC {@code Row} as the raw UTF-8 bytes of the value column, so rendering
+ * a feed allocates neither entities nor intermediate strings.
+ */
+@Repository
+public class FeedQueries {
+
+    private final DatabaseClient db;
+    private final TransactionalOperator snapshotRead;
+
+    public FeedQueries(DatabaseClient db, ReactiveTransactionManager transactionManager) {
+        this.db = db;
+        final DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        definition.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotRead = TransactionalOperator.create(transactionManager, definition);
+    }
+
+    /**
+     * Active values in feed order, cast to binary so the driver hands the
+     * stored bytes over as-is. Same plan as the repositories'
+     * {@code findActiveValues} (index order, no filesort).
+     */
+    public static String activeValueBytesSql(IocType type) {
+        return switch (type) {
+            case IP -> "SELECT CAST(ip AS BINARY) FROM ip_addresses WHERE active = 1 ORDER BY ip";
+            case HASH -> "SELECT CAST(hash_value AS BINARY) FROM hash_indicators WHERE active = 1 "
+                    + "ORDER BY hash_value";
+            case DOMAIN -> "SELECT CAST(domain_name AS BINARY) FROM domain_indicators WHERE active = 1 "
+                    + "ORDER BY domain_name";
+            case URL -> "SELECT CAST(url_value AS BINARY) FROM url_indicators WHERE active = 1 ORDER BY url_sort";
+        };
+    }
+
+    /**
+     * Active values in their binary form, for the binary feeds: {@code ip_bin}
+     * (4 or 16 bytes) for IPs, the digest bytes for hashes. Sorted by those
+     * bytes within each length.
+     */
+    public static String activeBinaryValuesSql(IocType type) {
+        return switch (type) {
+            case IP -> "SELECT ip_bin FROM ip_addresses WHERE active = 1 ORDER BY ip_bin";
+            // Hex order is byte order; hash_value is already indexed with active.
+            case HASH -> "SELECT UNHEX(hash_value) FROM hash_indicators WHERE active = 1 ORDER BY hash_value";
+            case DOMAIN, URL -> throw new IllegalArgumentException(type + " values have no binary form");
+        };
+    }
+
+    /** UTF-8 bytes of each active value of {@code type}, in feed order, from the feed pool. */
+    public Flux<byte[]> activeValueBytes(IocType type) {
+        return db.sql(activeValueBytesSql(type))
+                .map(row -> row.get(0, byte[].class))
+                .all()
+                .contextWrite(DbRoute::feed);
+    }
+
+    /** See {@link #activeBinaryValuesSql(IocType)}. Read from the feed pool. */
+    public Flux<byte[]> activeBinaryValues(IocType type) {
+        return db.sql(activeBinaryValuesSql(type))
+                .map(row -> row.get(0, byte[].class))
+                .all()
+                .contextWrite(DbRoute::feed);
+    }
+
+    /**
+     * The active values of every type as of one point in time: all four
+     * queries run in a single read-only REPEATABLE READ transaction, so they
+     * read the same InnoDB snapshot and a write cannot land between them.
+     */
+    public Mono<Map<IocType, List<byte[]>>> activeValueBytesOfAllTypes() {
+        return Flux.fromArray(IocType.values())
+                .concatMap(type -> db.sql(activeValueBytesSql(type))
+                        .map(row -> row.get(0, byte[].class))
+                        .all()
+                        .collectList()
+                        .map(values -> Map.entry(type, values)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, () -> new EnumMap<>(IocType.class))
+                .as(snapshotRead::transactional)
+                .contextWrite(DbRoute::feed);
+    }
+}
@@ -9,7 +9,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface HashRepository extends ReactiveCrudRepository<HashEntity, Long> {
-    Flux<HashEntity> findByActiveTrueOrderByHashValueAsc();
+    /**
+     * Values of the active indicators in feed order, read from the covering
+     * index {@code idx_hash_active_value} without loading the entities.
+     */
+    @Query("SELECT hash_value FROM hash_indicators WHERE active = 1 ORDER BY hash_value")
+    Flux<String> findActiveValues();
 
     /**
      * Finds a hash by its normalized (lowercase) value.
@@ -17,4 +22,12 @@ public interface HashRepository extends ReactiveCrudRepository<HashEntity, Long>
      */
     @Query("SELECT * FROM hash_indicators WHERE hash_norm = :normalizedHash")
     Mono<HashEntity> findByNormalizedHash(String normalizedHash);
-}
\ No newline at end of file
+
+    /**
+     * Indicators written after {@code afterSeq} (active or not), in change
+     * order. Sequences are taken in commit order, so an incremental reader
+     * that resumes from the last sequence it read misses no write.
+     */
+    @Query("SELECT * FROM hash_indicators WHERE change_seq > :afterSeq ORDER BY change_seq LIMIT :limit")
+    Flux<HashEntity> findChangedSince(long afterSeq, int limit);
+}
@@ -0,0 +1,54 @@
+package com.blacklisthub.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.blacklisthub.entity.IocType;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/**
+ * Queries shared by every write to the indicator tables, whatever issued it
+ * (Slack commands, bulk jobs, the expiry engine).
+ */
+@Repository
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class IndicatorQueries {
+
+    private final DatabaseClient db;
+
+    public static String table(IocType type) {
+        return switch (type) {
+            case IP -> "ip_addresses";
+            case HASH -> "hash_indicators";
+            case DOMAIN -> "domain_indicators";
+            case URL -> "url_indicators";
+        };
+    }
+
+    /**
+     * Takes the next value of {@code change_seq_counter} and records it as the
+     * indicator's position in the global change sequence, see
+     * {@code IndicatorEntity}. Emits the sequence.
+     *
+     * <p>
+     * Must run inside the write's transaction, as its last statement: the
+     * counter row stays locked until the transaction ends, so sequences are
+     * taken in commit order and a reader of {@code change_seq > X} never sees
+     * a sequence before all the lower ones are committed.
+     */
+    public Mono<Long> stampChangeSeq(IocType type, long id) {
+        return db.sql("UPDATE change_seq_counter SET v = LAST_INSERT_ID(v + 1) WHERE id = 1")
+                .fetch()
+                .rowsUpdated()
+                .then(db.sql("UPDATE " + table(type) + " SET change_seq = LAST_INSERT_ID() WHERE id = :id")
+                        .bind("id", id)
+                        .fetch()
+                        .rowsUpdated())
+                .then(db.sql("SELECT LAST_INSERT_ID() AS seq")
+                        .map(row -> row.get("seq", Long.class))
+                        .one());
+    }
+}
@@ -9,7 +9,12 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface IpRepository extends ReactiveCrudRepository<IpEntity, Long> {
-    Flux<IpEntity> findByActiveTrueOrderByIpAsc();
+    /**
+     * Values of the active indicators in feed order, read from the covering
+     * index {@code idx_ip_active_ip} without loading the entities.
+     */
+    @Query("SELECT ip FROM ip_addresses WHERE active = 1 ORDER BY ip")
+    Flux<String> findActiveValues();
 
     /**
      * Finds an IP entity by its value using database-side normalization.
@@ -18,4 +23,12 @@ public interface IpRepository extends ReactiveCrudRepository<IpEntity, Long> {
      */
     @Query("SELECT * FROM ip_addresses WHERE ip_bin = INET6_ATON(:ip)")
     Mono<IpEntity> findByIpNormalized(String ip);
-}
\ No newline at end of file
+
+    /**
+     * Indicators written after {@code afterSeq} (active or not), in change
+     * order. Sequences are taken in commit order, so an incremental reader
+     * that resumes from the last sequence it read misses no write.
+     */
+    @Query("SELECT * FROM ip_addresses WHERE change_seq > :afterSeq ORDER BY change_seq LIMIT :limit")
+    Flux<IpEntity> findChangedSince(long afterSeq, int limit);
+}
@@ -4,6 +4,7 @@ import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.blacklisthub.entity.SlackChannelWhitelistEntity;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface SlackChannelWhitelistRepository
@@ -12,4 +13,6 @@ public interface SlackChannelWhitelistRepository
     Mono<Boolean> existsByChannelIdAndActiveTrue(String channelId);
 
     Mono<SlackChannelWhitelistEntity> findByChannelId(String channelId);
+
+    Flux<SlackChannelWhitelistEntity> findByActiveTrue();
 }
@@ -1,5 +1,6 @@
 package com.blacklisthub.repository;
 
+import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 
 import com.blacklisthub.entity.UrlEntity;
@@ -9,7 +10,21 @@ import reactor.core.publisher.Mono;
 
 public interface UrlRepository extends ReactiveCrudRepository<UrlEntity, Long> {
 
-    Flux<UrlEntity> findByActiveTrueOrderByUrlValueAsc();
+    /**
+     * Values of the active indicators in feed order, without loading the
+     * entities. Sorted through {@code idx_url_active_sort} on the
+     * {@code url_sort} prefix; {@code url_value} itself is read from the row.
+     */
+    @Query("SELECT url_value FROM url_indicators WHERE active = 1 ORDER BY url_sort")
+    Flux<String> findActiveValues();
 
     Mono<UrlEntity> findByUrlValue(String urlValue);
-}
\ No newline at end of file
+
+    /**
+     * Indicators written after {@code afterSeq} (active or not), in change
+     * order. Sequences are taken in commit order, so an incremental reader
+     * that resumes from the last sequence it read misses no write.
+     */
+    @Query("SELECT * FROM url_indicators WHERE change_seq > :afterSeq ORDER BY change_seq LIMIT :limit")
+    Flux<UrlEntity> findChangedSince(long afterSeq, int limit);
+}
@@ -1,30 +1,39 @@
 package com.blacklisthub.security;
 
-import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
-
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.server.WebFilter;
 import org.springframework.web.server.WebFilterChain;
 
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
 /**
- * Guards the public blocklist endpoints ({@code /blacklist/**}) with a static
- * bearer token supplied via {@code app.api-token} (env {@code APP_API_TOKEN}).
+ * Guards the public blocklist endpoints ({@code /blacklist/**}) with the
+ * bearer tokens of the {@link ConsumerRegistry}: one per consumer in
+ * {@code feed_consumers}, plus the static {@code app.api-token} (env
+ * {@code APP_API_TOKEN}).
+ *
+ * <p>
+ * Fail-closed by design: a request without a known token is rejected with
+ * {@code 401}, so if no token is configured every protected request is. This
+ * prevents the endpoints from silently reverting to an unauthenticated state
+ * if the variable is ever missing.
  *
  * <p>
- * Fail-closed by design: if no token is configured, every protected request is
- * rejected with {@code 401}. This prevents the endpoints from silently
- * reverting to an unauthenticated state if the variable is ever missing.
+ * Each consumer is rate limited on its own: once its bucket is empty, its
+ * requests get {@code 429} with {@code Retry-After} until the bucket refills,
+ * without reaching the feeds. Requests and response bytes are counted per
+ * consumer. The consumer's name is left in the exchange attribute
+ * {@link #CONSUMER_ATTRIBUTE}.
  *
  * <p>
  * Only {@code /blacklist/**} is filtered; {@code /actuator/**} is intentionally
@@ -33,22 +42,16 @@ import reactor.core.publisher.Mono;
 @Slf4j
 @Component
 @Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
 public class BlocklistAuthFilter implements WebFilter {
 
+    public static final String CONSUMER_ATTRIBUTE = BlocklistAuthFilter.class.getName() + ".consumer";
+
     private static final String PROTECTED_PREFIX = "/blacklist";
     private static final String BEARER_PREFIX = "Bearer ";
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
 
-    private final boolean enabled;
-    private final byte[] expectedToken;
-
-    public BlocklistAuthFilter(@Value("${app.api-token:}") String apiToken) {
-        this.enabled = apiToken != null && !apiToken.isBlank();
-        this.expectedToken = enabled ? apiToken.getBytes(StandardCharsets.UTF_8) : new byte[0];
-        if (!enabled) {
-            log.warn("app.api-token is not set: all {}/** requests will be rejected with 401. "
-                    + "Set APP_API_TOKEN to allow blocklist consumers.", PROTECTED_PREFIX);
-        }
-    }
+    private final ConsumerRegistry consumers;
 
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
@@ -59,25 +62,42 @@ public class BlocklistAuthFilter implements WebFilter {
             return chain.filter(exchange);
         }
 
-        if (isAuthorized(request)) {
-            return chain.filter(exchange);
+        final FeedConsumer consumer = authenticate(request);
+        final ServerHttpResponse response = exchange.getResponse();
+        if (consumer == null) {
+            log.warn("Rejected unauthorized request to {}", path);
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return response.setComplete();
         }
 
-        log.warn("Rejected unauthorized request to {}", path);
-        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
-        return exchange.getResponse().setComplete();
-    }
+        final long wait = consumer.tryAcquire(System.nanoTime());
+        if (wait > 0) {
+            consumer.meters().rateLimited().increment();
+            log.debug("Rate limited {} on {}", consumer.name(), path);
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                    Long.toString((wait + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND));
+            return response.setComplete();
+        }
 
-    private boolean isAuthorized(ServerHttpRequest request) {
-        if (!enabled) {
-            return false;
+        consumer.meters().served().increment();
+        exchange.getAttributes().put(CONSUMER_ATTRIBUTE, consumer.name());
+        if (!HttpMethod.HEAD.equals(request.getMethod())) {
+            response.beforeCommit(() -> {
+                final long length = response.getHeaders().getContentLength();
+                if (length > 0)
+                    consumer.meters().bytes().increment(length);
+                return Mono.empty();
+            });
         }
+        return chain.filter(exchange);
+    }
+
+    private FeedConsumer authenticate(ServerHttpRequest request) {
         final String header = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
         if (header == null || !header.startsWith(BEARER_PREFIX)) {
-            return false;
+            return null;
         }
-        final byte[] provided = header.substring(BEARER_PREFIX.length()).getBytes(StandardCharsets.UTF_8);
-        // Constant-time comparison to avoid leaking the token via timing.
-        return MessageDigest.isEqual(expectedToken, provided);
+        return consumers.authenticate(header, BEARER_PREFIX.length());
     }
 }
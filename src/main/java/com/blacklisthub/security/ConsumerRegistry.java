@@ -0,0 +1,168 @@
+package com.blacklisthub.security;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.FeedConsumerEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.FeedConsumerRepository;
+import com.blacklisthub.service.DatabaseReadyEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * The blocklist consumers allowed to read {@code /blacklist/**}: the active
+ * rows of {@code feed_consumers}, plus the {@code app.api-token} consumer
+ * (named {@value #API_TOKEN_CONSUMER}) if that token is set.
+ *
+ * <p>
+ * Only token hashes are stored. Consumers are held in an immutable map keyed
+ * by the SHA-256 of their token, so a request costs one hash of the presented
+ * token and one map lookup, whatever the number of consumers; the matched
+ * hash is then compared in constant time. The map is swapped as a whole every
+ * {@code app.consumers.refresh-interval}; a failed refresh keeps the previous
+ * map. Consumers whose token and limits did not change keep their rate-limit
+ * bucket across refreshes.
+ *
+ * <p>
+ * Each consumer has a {@link TokenBucket} of {@code requests_per_minute} and
+ * {@code burst}, defaulting to {@code app.consumers.requests-per-minute} and
+ * {@code app.consumers.burst}; a rate of 0 means unlimited.
+ *
+ * <p>
+ * The {@code app.api-token} consumer is usually shared by a whole fleet that
+ * predates {@code feed_consumers}, so one per-consumer bucket would throttle
+ * all of it at once. It is limited only by
+ * {@code app.consumers.api-token.requests-per-minute}, which defaults to 0
+ * (unlimited); consumers are rate limited by moving them to their own row.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class ConsumerRegistry {
+
+    static final String API_TOKEN_CONSUMER = "api-token";
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(ConsumerRegistry::sha256);
+
+    private final FeedConsumerRepository repository;
+    private final BlacklistMetrics metrics;
+    private final FeedConsumer apiTokenConsumer;
+    private final int defaultRequestsPerMinute;
+    private final int defaultBurst;
+
+    private volatile Map<ByteBuffer, FeedConsumer> byTokenHash = Map.of();
+
+    public ConsumerRegistry(FeedConsumerRepository repository, BlacklistMetrics metrics,
+            @Value("${app.api-token:}") String apiToken,
+            @Value("${app.consumers.requests-per-minute:60}") int defaultRequestsPerMinute,
+            @Value("${app.consumers.burst:10}") int defaultBurst,
+            @Value("${app.consumers.api-token.requests-per-minute:0}") int apiTokenRequestsPerMinute) {
+        this.repository = repository;
+        this.metrics = metrics;
+        this.defaultRequestsPerMinute = defaultRequestsPerMinute;
+        this.defaultBurst = defaultBurst;
+        this.apiTokenConsumer = apiToken == null || apiToken.isBlank() ? null
+                : consumer(API_TOKEN_CONSUMER, sha256().digest(apiToken.getBytes(StandardCharsets.UTF_8)),
+                        apiTokenRequestsPerMinute, defaultBurst, Map.of());
+        if (apiTokenConsumer == null) {
+            log.warn("app.api-token is not set: /blacklist/** requests will be rejected with 401 "
+                    + "unless their token is in feed_consumers. Set APP_API_TOKEN to allow blocklist consumers.");
+        }
+        install(new HashMap<>());
+    }
+
+    /**
+     * The consumer whose token is {@code header} from {@code offset} on, or
+     * null if none. The token is hashed in place, without copying it.
+     */
+    FeedConsumer authenticate(String header, int offset) {
+        final MessageDigest digest = SHA256.get();
+        digest.reset();
+        for (int i = offset; i < header.length(); i++) {
+            final char c = header.charAt(i);
+            if (c > 0x7E || c < 0x21)
+                return null; // not a token68 character, cannot match any token
+            digest.update((byte) c);
+        }
+        final byte[] hash = digest.digest();
+        final FeedConsumer consumer = byTokenHash.get(ByteBuffer.wrap(hash));
+        return consumer != null && MessageDigest.isEqual(consumer.tokenSha256(), hash) ? consumer : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.consumers.refresh-interval:PT1M}")
+    public void scheduledRefresh() {
+        refresh().subscribe(
+                count -> log.debug("Feed consumers refreshed: {} active DB consumers", count),
+                e -> log.warn("Feed consumer refresh failed, keeping previous consumers: {}", e.getMessage()));
+    }
+
+    @EventListener(DatabaseReadyEvent.class)
+    public void onDatabaseReady() {
+        scheduledRefresh();
+    }
+
+    public Mono<Integer> refresh() {
+        return repository.findByActiveTrue()
+                .collectList()
+                .map(rows -> {
+                    final Map<ByteBuffer, FeedConsumer> previous = byTokenHash;
+                    final Map<ByteBuffer, FeedConsumer> loaded = new HashMap<>();
+                    for (FeedConsumerEntity row : rows) {
+                        final byte[] hash;
+                        try {
+                            hash = HexFormat.of().parseHex(row.getTokenSha256());
+                        } catch (IllegalArgumentException e) {
+                            log.warn("Ignoring feed consumer {}: token_sha256 is not a hex SHA-256", row.getName());
+                            continue;
+                        }
+                        final FeedConsumer consumer = consumer(row.getName(), hash,
+                                row.getRequestsPerMinute() == null ? defaultRequestsPerMinute
+                                        : row.getRequestsPerMinute(),
+                                row.getBurst() == null ? defaultBurst : row.getBurst(), previous);
+                        loaded.put(ByteBuffer.wrap(consumer.tokenSha256()), consumer);
+                    }
+                    install(loaded);
+                    return rows.size();
+                });
+    }
+
+    private void install(Map<ByteBuffer, FeedConsumer> consumers) {
+        if (apiTokenConsumer != null)
+            consumers.putIfAbsent(ByteBuffer.wrap(apiTokenConsumer.tokenSha256()), apiTokenConsumer);
+        byTokenHash = Map.copyOf(consumers);
+    }
+
+    /** A consumer, reusing the previous instance (and its bucket) if nothing changed. */
+    private FeedConsumer consumer(String name, byte[] tokenSha256, int requestsPerMinute, int burst,
+            Map<ByteBuffer, FeedConsumer> previous) {
+        final FeedConsumer existing = previous.get(ByteBuffer.wrap(tokenSha256));
+        if (existing != null && existing.name().equals(name) && existing.requestsPerMinute() == requestsPerMinute
+                && existing.burst() == burst)
+            return existing;
+        final TokenBucket bucket = requestsPerMinute > 0
+                ? new TokenBucket(requestsPerMinute, burst, System.nanoTime())
+                : null;
+        return new FeedConsumer(name, tokenSha256, Math.max(0, requestsPerMinute), burst, bucket,
+                metrics.consumerMeters(name));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.blacklisthub.security;
+
+import com.blacklisthub.metrics.BlacklistMetrics.ConsumerMeters;
+
+/**
+ * An authenticated blocklist consumer, see {@link ConsumerRegistry}.
+ *
+ * @param name              metrics tag and log name
+ * @param tokenSha256       SHA-256 of its bearer token
+ * @param requestsPerMinute refill rate of its {@code bucket}, 0 if unlimited
+ * @param burst             capacity of its {@code bucket}
+ * @param bucket            its rate limit, or null if unlimited
+ * @param meters            its request and byte counters
+ */
+record FeedConsumer(String name, byte[] tokenSha256, int requestsPerMinute, int burst, TokenBucket bucket,
+        ConsumerMeters meters) {
+
+    /** Nanoseconds until the next request is allowed; 0 (and a token taken) if it is allowed now. */
+    long tryAcquire(long nowNanos) {
+        return bucket == null ? 0 : bucket.tryAcquire(nowNanos);
+    }
+}
@@ -0,0 +1,45 @@
+package com.blacklisthub.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket holding up to {@code burst} requests and refilled at
+ * {@code requestsPerMinute}.
+ *
+ * <p>
+ * The bucket is kept as a single timestamp, the time at which it will be full
+ * again (the GCRA form of a token bucket). Taking a token moves that time
+ * forward by one refill interval, with a CAS, and is refused if it would then
+ * lie more than {@code burst} intervals ahead. No thread ever blocks and no
+ * background refill is needed.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final AtomicLong fullAt;
+
+    TokenBucket(int requestsPerMinute, int burst, long nowNanos) {
+        this.intervalNanos = 60_000_000_000L / requestsPerMinute;
+        this.capacityNanos = intervalNanos * Math.max(1, burst);
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes one token.
+     *
+     * @return 0 if the request may proceed, otherwise the nanoseconds until a
+     *         token is available
+     */
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            final long current = fullAt.get();
+            final long next = (current - nowNanos < 0 ? nowNanos : current) + intervalNanos;
+            final long wait = next - nowNanos - capacityNanos;
+            if (wait > 0)
+                return wait;
+            if (fullAt.compareAndSet(current, next))
+                return 0;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.blacklisthub.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.ChangeLogEntity;
+import com.blacklisthub.repository.ChangeLogRepository;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Polls {@code change_log} and publishes a {@link DataChangedEvent} for the
+ * rows committed since the last poll, so in-process caches on every replica
+ * are invalidated within {@code app.change-bus.poll-interval} of a write.
+ *
+ * <p>
+ * Each poll is a primary-key range scan above the last contiguous id seen.
+ * Ids are allocated before commit, so a lower id can become visible after a
+ * higher one: rows past a gap are published at once, but the scan keeps
+ * starting at the gap until it fills, or until it has stayed open for
+ * {@code app.change-bus.gap-timeout} (a rolled-back insert never fills it).
+ * The ids skipped that way are re-read by id on every poll until they are
+ * older than {@code app.change-bus.retention}, so a slow transaction that
+ * commits after the timeout is still published. Rows are never published
+ * twice. Old rows are purged after {@code app.change-bus.retention}. Polling
+ * starts on {@link DatabaseReadyEvent}, once {@code change_log} is migrated.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class ChangeLogPoller {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int MAX_SKIPPED = 1000;
+
+    private final ChangeLogRepository repository;
+    private final ApplicationEventPublisher events;
+    private final long gapTimeoutNanos;
+    private final Duration retention;
+    private final long retentionNanos;
+
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private volatile boolean connected;
+    private volatile boolean databaseReady;
+    // Guarded by "this". Every id up to mark has been published; -1 until started.
+    private long mark = -1;
+    private final Set<Long> publishedAboveMark = new HashSet<>();
+    private long gapSince;
+    private boolean gapOpen;
+    // Guarded by "this". Ids the mark skipped over without seeing them, and when.
+    private final Map<Long, Long> skipped = new HashMap<>();
+
+    public ChangeLogPoller(ChangeLogRepository repository, ApplicationEventPublisher events,
+            @Value("${app.change-bus.gap-timeout:PT10S}") Duration gapTimeout,
+            @Value("${app.change-bus.retention:P1D}") Duration retention) {
+        this.repository = repository;
+        this.events = events;
+        this.gapTimeoutNanos = gapTimeout.toNanos();
+        this.retention = retention;
+        this.retentionNanos = retention.toNanos();
+    }
+
+    /** Starts from the current end of the log; the caches were just loaded. */
+    @EventListener(DatabaseReadyEvent.class)
+    public void start() {
+        databaseReady = true;
+        repository.findMaxId().subscribe(
+                max -> {
+                    synchronized (this) {
+                        mark = max;
+                    }
+                    connected = true;
+                    log.info("Change bus started at change #{}", max);
+                },
+                e -> {
+                    connected = false;
+                    log.warn("Change bus could not read the log, retrying on the next poll: {}", e.getMessage());
+                });
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-bus.poll-interval:PT2S}")
+    public void poll() {
+        final long from;
+        final List<Long> recheck;
+        synchronized (this) {
+            from = mark;
+            recheck = List.copyOf(skipped.keySet());
+        }
+        if (from < 0) {
+            if (databaseReady)
+                start();
+            return;
+        }
+        if (!polling.compareAndSet(false, true))
+            return;
+        repository.findAfter(from, BATCH_SIZE)
+                .collectList()
+                .zipWith(recheck.isEmpty() ? Mono.just(List.<ChangeLogEntity>of())
+                        : repository.findByIds(recheck).collectList())
+                .doFinally(signal -> polling.set(false))
+                .subscribe(rows -> {
+                    connected = true;
+                    final long now = System.nanoTime();
+                    apply(rows.getT1(), now);
+                    applyLate(rows.getT2(), now);
+                }, e -> {
+                    connected = false;
+                    log.warn("Change bus poll failed: {}", e.getMessage());
+                });
+    }
+
+    /**
+     * Whether the last poll succeeded. While it is false, writes made on other
+     * replicas may not have been seen yet.
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Scheduled(fixedDelayString = "${app.change-bus.purge-interval:PT1H}")
+    public void purge() {
+        if (!databaseReady)
+            return;
+        repository.deleteOlderThan(LocalDateTime.now().minus(retention)).subscribe(
+                deleted -> log.debug("Purged {} change_log rows", deleted),
+                e -> log.warn("change_log purge failed: {}", e.getMessage()));
+    }
+
+    /** Publishes the unseen rows of one poll and advances the mark. */
+    synchronized void apply(List<ChangeLogEntity> rows, long nowNanos) {
+        if (rows.isEmpty())
+            return;
+        final Map<ChangeEntity, Set<String>> changed = new EnumMap<>(ChangeEntity.class);
+        long contiguous = mark;
+        boolean gap = false;
+        for (ChangeLogEntity row : rows) {
+            final long id = row.getId();
+            if (!gap && id == contiguous + 1)
+                contiguous = id;
+            else
+                gap = true;
+            if (publishedAboveMark.add(id))
+                changed.computeIfAbsent(row.getEntity(), e -> new HashSet<>()).add(row.getEntityKey());
+        }
+
+        if (!gap || contiguous > mark) {
+            gapOpen = false;
+        }
+        if (gap) {
+            if (!gapOpen) {
+                gapOpen = true;
+                gapSince = nowNanos;
+            } else if (nowNanos - gapSince >= gapTimeoutNanos) {
+                final long last = rows.get(rows.size() - 1).getId();
+                log.debug("Change bus skipping ids {}..{} that have not committed", contiguous + 1, last);
+                for (long id = contiguous + 1; id < last; id++) {
+                    if (publishedAboveMark.contains(id))
+                        continue;
+                    if (skipped.size() >= MAX_SKIPPED) {
+                        log.warn("Change bus is watching {} skipped ids already, not ids {}..{}", MAX_SKIPPED, id,
+                                last - 1);
+                        break;
+                    }
+                    skipped.put(id, nowNanos);
+                }
+                contiguous = last;
+                gapOpen = false;
+            }
+        }
+        final long newMark = contiguous;
+        mark = newMark;
+        publishedAboveMark.removeIf(id -> id <= newMark);
+
+        if (!changed.isEmpty())
+            events.publishEvent(new DataChangedEvent(changed));
+    }
+
+    /**
+     * Publishes the skipped ids that committed after all, read back by id, and
+     * stops watching those skipped longer than the retention ago.
+     */
+    synchronized void applyLate(List<ChangeLogEntity> rows, long nowNanos) {
+        final Map<ChangeEntity, Set<String>> changed = new EnumMap<>(ChangeEntity.class);
+        for (ChangeLogEntity row : rows) {
+            if (skipped.remove(row.getId()) != null)
+                changed.computeIfAbsent(row.getEntity(), e -> new HashSet<>()).add(row.getEntityKey());
+        }
+        skipped.values().removeIf(since -> nowNanos - since >= retentionNanos);
+
+        if (!changed.isEmpty()) {
+            log.info("Change bus received changes committed after their gap was skipped: {}", changed.keySet());
+            events.publishEvent(new DataChangedEvent(changed));
+        }
+    }
+
+    synchronized long mark() {
+        return mark;
+    }
+}
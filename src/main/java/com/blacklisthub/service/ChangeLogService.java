@@ -0,0 +1,61 @@
+package com.blacklisthub.service;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.ChangeLogEntity;
+import com.blacklisthub.repository.ChangeLogRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Writes the {@code change_log} rows that {@link ChangeLogPoller} turns into
+ * {@link DataChangedEvent}s on every replica.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class ChangeLogService {
+
+    private final ChangeLogRepository repository;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Runs {@code write} and appends a change row for what it saved, in one
+     * transaction: the row exists if and only if the write committed.
+     *
+     * @param entity what was written
+     * @param write  the save (plus anything else that must commit with it)
+     * @param key    the changed entity's key, taken from the saved value
+     */
+    public <T> Mono<T> write(ChangeEntity entity, Mono<T> write, Function<T, String> key) {
+        return write(entity, write, key, Mono::just);
+    }
+
+    /**
+     * Like {@link #write(ChangeEntity, Mono, Function)}, then runs
+     * {@code stamp} as the last step of the transaction, so the written row can
+     * take its position in the global change sequence (see
+     * {@code IndicatorQueries#stampChangeSeq}) just before it commits.
+     */
+    public <T> Mono<T> write(ChangeEntity entity, Mono<T> write, Function<T, String> key,
+            Function<T, Mono<T>> stamp) {
+        return write
+                .flatMap(saved -> repository.save(ChangeLogEntity.builder()
+                        .entity(entity)
+                        .entityKey(key.apply(saved))
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                        .doOnNext(change -> log.debug("Change #{} {} {}", change.getId(), entity,
+                                change.getEntityKey()))
+                        .flatMap(change -> stamp.apply(saved)))
+                .as(transactionalOperator::transactional);
+    }
+}
@@ -0,0 +1,144 @@
+package com.blacklisthub.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.repository.ConsumerPollRepository;
+import com.blacklisthub.repository.DbRoute;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts how each blocklist consumer polls each feed: requests, {@code 304}s,
+ * bytes, the version (ETag) it was left with and a moving average of the time
+ * between its polls.
+ *
+ * <p>
+ * Recording a poll touches only in-memory counters: striped
+ * {@link LongAdder}s and atomics, no lock and no I/O. Every
+ * {@code app.consumer-telemetry.flush-interval} the counts accumulated since
+ * the last flush are added to {@code consumer_polls} on the bulk connection
+ * pool. Counts whose flush fails are kept and sent with the next one. Nothing
+ * is flushed before {@link DatabaseReadyEvent}, as the table may not exist yet.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class ConsumerTelemetry {
+
+    private final ConsumerPollRepository repository;
+
+    private final Map<Key, Polls> polls = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private volatile boolean databaseReady;
+
+    private record Key(String consumer, String feed) {
+    }
+
+    private static final class Polls {
+        final LongAdder requests = new LongAdder();
+        final LongAdder notModified = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final AtomicLong lastPollNanos = new AtomicLong();
+        final AtomicLong intervalNanos = new AtomicLong();
+        volatile String lastEtag;
+        volatile LocalDateTime lastPollAt;
+        // Totals already written; only the flush touches them.
+        long flushedRequests;
+        long flushedNotModified;
+        long flushedBytes;
+    }
+
+    /**
+     * Records one poll.
+     *
+     * @param etag        the version the consumer holds after this poll
+     * @param notModified whether it already had that version ({@code 304})
+     * @param bytes       body bytes sent
+     */
+    public void record(String consumer, String feed, String etag, boolean notModified, long bytes) {
+        final Polls p = polls.computeIfAbsent(new Key(consumer, feed), k -> new Polls());
+        p.requests.increment();
+        if (notModified)
+            p.notModified.increment();
+        if (bytes > 0)
+            p.bytes.add(bytes);
+        p.lastEtag = etag;
+        p.lastPollAt = LocalDateTime.now();
+
+        final long now = System.nanoTime();
+        final long previous = p.lastPollNanos.getAndSet(now);
+        if (previous != 0) {
+            final long interval = now - previous;
+            // Exponential moving average, weight 1/8 for the newest interval.
+            p.intervalNanos.accumulateAndGet(interval, (avg, x) -> avg == 0 ? x : avg + (x - avg) / 8);
+        }
+    }
+
+    @EventListener(DatabaseReadyEvent.class)
+    public void onDatabaseReady() {
+        databaseReady = true;
+    }
+
+    @Scheduled(fixedDelayString = "${app.consumer-telemetry.flush-interval:PT1M}")
+    public void scheduledFlush() {
+        if (!databaseReady)
+            return;
+        flush().subscribe(
+                rows -> log.debug("Flushed poll telemetry of {} consumer feeds", rows),
+                e -> log.warn("Poll telemetry flush failed, retrying with the next one: {}", e.getMessage()));
+    }
+
+    /** Writes the counts since the last flush; emits the number of rows written. */
+    public Mono<Long> flush() {
+        if (!flushing.compareAndSet(false, true))
+            return Mono.just(0L);
+        return Flux.fromIterable(polls.entrySet())
+                .concatMap(entry -> flush(entry.getKey(), entry.getValue()))
+                .count()
+                .contextWrite(DbRoute::bulk)
+                .doFinally(signal -> flushing.set(false));
+    }
+
+    private Mono<Integer> flush(Key key, Polls p) {
+        final long requests = p.requests.sum();
+        final long notModified = p.notModified.sum();
+        final long bytes = p.bytes.sum();
+        if (requests == p.flushedRequests)
+            return Mono.empty();
+        final long interval = p.intervalNanos.get();
+        return repository.addPolls(key.consumer(), key.feed(), p.lastEtag, p.lastPollAt,
+                interval == 0 ? null : Duration.ofNanos(interval).toMillis(),
+                requests - p.flushedRequests, notModified - p.flushedNotModified, bytes - p.flushedBytes)
+                .doOnSuccess(rows -> {
+                    p.flushedRequests = requests;
+                    p.flushedNotModified = notModified;
+                    p.flushedBytes = bytes;
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!databaseReady)
+            return;
+        try {
+            flush().block(Duration.ofSeconds(5));
+        } catch (Exception e) {
+            log.warn("Could not flush poll telemetry on shutdown: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.blacklisthub.service;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.blacklisthub.entity.ChangeEntity;
+
+/**
+ * Published locally for the {@code change_log} rows committed since the last
+ * poll, by this or any other replica.
+ *
+ * @param keys the changed keys per entity type (indicator ids, channel ids or
+ *             Slack user ids)
+ */
+public record DataChangedEvent(Map<ChangeEntity, Set<String>> keys) {
+
+    public boolean touches(ChangeEntity entity) {
+        return keys.containsKey(entity);
+    }
+
+    public Set<String> keys(ChangeEntity entity) {
+        return keys.getOrDefault(entity, Set.of());
+    }
+}
@@ -0,0 +1,9 @@
+package com.blacklisthub.service;
+
+/**
+ * Published once the database is reachable and migrated, after a start that
+ * did not wait for it. Components that booted from snapshots reconcile with
+ * the database on this event.
+ */
+public record DatabaseReadyEvent() {
+}
@@ -0,0 +1,23 @@
+package com.blacklisthub.service;
+
+import java.time.Instant;
+
+import org.springframework.core.io.Resource;
+
+/**
+ * One persisted rendering of a feed or list, see {@link SnapshotStore}.
+ *
+ * @param body       the rendered bytes: a file in the snapshot directory, or
+ *                   memory if it could not be written
+ * @param etag       hash of the content, the same on every replica that
+ *                   rendered the same data
+ * @param renderedAt when it was rendered
+ * @param stale      whether the data may have changed since, because the
+ *                   database could not be reached
+ */
+public record Snapshot(Resource body, String etag, Instant renderedAt, boolean stale) {
+
+    public Snapshot asStale() {
+        return stale ? this : new Snapshot(body, etag, renderedAt, true);
+    }
+}
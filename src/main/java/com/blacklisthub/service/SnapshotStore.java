@@ -0,0 +1,161 @@
+package com.blacklisthub.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Keeps the rendered feeds and the channel whitelist in
+ * {@code app.feed-snapshots.dir}, as last-known-good copies that outlive a
+ * database outage and a restart. There is one file per render, named
+ * {@code <feed>.<version>} (e.g. {@code ips.txt.1760000000000}, the version
+ * being the render time in epoch millis).
+ *
+ * <p>
+ * Each render is written to a temp file and renamed into place, so a file is
+ * never seen half-written. A new version gets a new name instead of replacing
+ * the old file, so a response still being sent from the previous version is
+ * unaffected; all but the two newest versions of a feed are deleted. Each
+ * snapshot carries a content hash as its ETag. The newest snapshot of each
+ * feed is kept in memory, so a file of a previous run is listed and hashed
+ * once, not on every request served from it while renders fail. Files
+ * are served with zero-copy transfer. If the directory cannot be written, the
+ * render is kept in memory instead. All disk I/O runs on the bounded elastic
+ * scheduler.
+ */
+@Slf4j
+@Component
+public class SnapshotStore {
+
+    private static final int KEEP_VERSIONS = 2;
+
+    private final Path dir;
+    private final AtomicLong lastVersion = new AtomicLong();
+    private final Map<String, Snapshot> newest = new ConcurrentHashMap<>();
+
+    public SnapshotStore(@Value("${app.feed-snapshots.dir:${java.io.tmpdir}/blacklist-hub/feeds}") String dir) {
+        this.dir = Path.of(dir);
+    }
+
+    /** Persists a freshly rendered feed and returns its snapshot. */
+    public Mono<Snapshot> write(String feed, byte[] body) {
+        return Mono.fromCallable(() -> {
+            final long version = lastVersion.accumulateAndGet(System.currentTimeMillis(),
+                    (last, now) -> Math.max(last + 1, now));
+            final Instant renderedAt = Instant.ofEpochMilli(version);
+            final String etag = etag(sha256().digest(body));
+            try {
+                Files.createDirectories(dir);
+                final Path tmp = Files.createTempFile(dir, feed + ".", ".tmp");
+                try {
+                    Files.write(tmp, body);
+                    final Path file = dir.resolve(feed + "." + version);
+                    Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+                    prune(feed);
+                    return remember(feed, new Snapshot(new FileSystemResource(file), etag, renderedAt, false));
+                } finally {
+                    Files.deleteIfExists(tmp);
+                }
+            } catch (IOException e) {
+                log.warn("Could not write the {} snapshot to {}, serving it from memory: {}", feed, dir,
+                        e.getMessage());
+                return new Snapshot(new ByteArrayResource(body), etag, renderedAt, false);
+            }
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** The newest persisted version of a feed, possibly from a previous run; empty if none. */
+    public Mono<Snapshot> latest(String feed) {
+        final Snapshot known = newest.get(feed);
+        if (known != null)
+            return Mono.just(known);
+        return Mono.fromCallable(() -> {
+            final List<Path> versions = versions(feed);
+            if (versions.isEmpty())
+                return null;
+            final Path file = versions.get(0);
+            final MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(file), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return remember(feed, new Snapshot(new FileSystemResource(file), etag(digest.digest()),
+                    Instant.ofEpochMilli(version(feed, file)), false));
+        }).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /** Keeps {@code snapshot} as the feed's newest unless a newer one is known; returns the newest. */
+    private Snapshot remember(String feed, Snapshot snapshot) {
+        return newest.merge(feed, snapshot,
+                (known, candidate) -> candidate.renderedAt().isBefore(known.renderedAt()) ? known : candidate);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** The first 128 bits of the SHA-256, in hex. */
+    private static String etag(byte[] sha256) {
+        return HexFormat.of().formatHex(sha256, 0, 16);
+    }
+
+    private void prune(String feed) throws IOException {
+        final List<Path> versions = versions(feed);
+        for (Path old : versions.subList(Math.min(KEEP_VERSIONS, versions.size()), versions.size()))
+            Files.deleteIfExists(old);
+    }
+
+    /** Files of a feed, newest first. */
+    private List<Path> versions(String feed) throws IOException {
+        if (!Files.isDirectory(dir))
+            return List.of();
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> version(feed, file) >= 0)
+                    .sorted(Comparator.comparingLong((Path file) -> version(feed, file)).reversed())
+                    .toList();
+        }
+    }
+
+    /** The version of {@code file} if it is a snapshot of {@code feed}, otherwise -1. */
+    private static long version(String feed, Path file) {
+        final String name = file.getFileName().toString();
+        if (name.length() <= feed.length() + 1 || !name.startsWith(feed) || name.charAt(feed.length()) != '.')
+            return -1;
+        final String suffix = name.substring(feed.length() + 1);
+        for (int i = 0; i < suffix.length(); i++) {
+            if (!Character.isDigit(suffix.charAt(i)))
+                return -1;
+        }
+        try {
+            return Long.parseLong(suffix);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package com.blacklisthub.slack;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.BulkJobStatus;
+import com.blacklisthub.entity.IndicatorEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.BulkJobRepository;
+import com.blacklisthub.repository.DbRoute;
+import com.blacklisthub.service.DatabaseReadyEvent;
+import com.blacklisthub.slack.config.BulkJobProps;
+import com.blacklisthub.slack.ioc.BulkChunk;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.service.BulkJobService;
+import com.blacklisthub.slack.service.IocCommandService;
+import com.blacklisthub.slack.service.SlackUserService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-process worker pool for the {@code bulk_jobs} queue.
+ *
+ * <p>
+ * Up to {@code app.bulk-jobs.workers} jobs run at once. Each job is claimed
+ * with a conditional UPDATE, so several replicas can share the queue. Items
+ * are processed in chunks of {@code app.bulk-jobs.chunk-size}; after each
+ * chunk the offset and the counters are saved and the chunk's detail lines
+ * appended. The lease heartbeat is renewed on its own timer, four times per
+ * {@code app.bulk-jobs.stale-after}, so a slow chunk does not let the job go
+ * stale. A job whose owner died is re-claimed once its heartbeat is older than
+ * {@code app.bulk-jobs.stale-after}, and resumes from the last checkpoint.
+ * Items of the interrupted chunk are processed again, which is safe because
+ * adds are idempotent (they report {@code Already active}). On a clean
+ * shutdown the instance's jobs go straight back to the queue. The queue is
+ * first polled on {@link DatabaseReadyEvent}, once the schema is migrated.
+ *
+ * <p>
+ * Checkpoints, heartbeats and the final status are conditional on the owner,
+ * so a worker that lost its lease (e.g. after a long GC pause) notices on its
+ * next write and stops without touching the job.
+ *
+ * <p>
+ * Progress is shown in the originating channel and the final report is posted
+ * there with {@code chat.postMessage}. The job never waits on a Slack
+ * interaction, and no DB connection is held between chunks. Job queries run
+ * on the bulk connection pool so they never queue ahead of interactive
+ * commands.
+ */
+@Slf4j
+@Component
+@SuppressWarnings("null")
+public class BulkJobWorker {
+
+    private final BulkJobRepository repository;
+    private final IocCommandService iocCommandService;
+    private final SlackUserService slackUserService;
+    private final SlackResponder responder;
+    private final BulkJobProps props;
+    private final Map<IocType, IocDescriptor<?>> descriptors = new EnumMap<>(IocType.class);
+
+    private final String owner = "worker-" + UUID.randomUUID();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicBoolean polling = new AtomicBoolean();
+    private final AtomicBoolean stopping = new AtomicBoolean();
+    private volatile boolean databaseReady;
+    private final Map<Long, Disposable> jobs = new ConcurrentHashMap<>();
+
+    /** The lease on a job was taken over by another worker. */
+    private static final class LeaseLostException extends RuntimeException {
+        LeaseLostException(Long jobId) {
+            super("lease on bulk job #" + jobId + " lost");
+        }
+    }
+
+    public BulkJobWorker(BulkJobRepository repository, IocCommandService iocCommandService,
+            SlackUserService slackUserService, SlackResponder responder, BulkJobProps props,
+            List<IocDescriptor<?>> descriptors, BlacklistMetrics metrics) {
+        this.repository = repository;
+        this.iocCommandService = iocCommandService;
+        this.slackUserService = slackUserService;
+        this.responder = responder;
+        this.props = props;
+        descriptors.forEach(d -> this.descriptors.put(d.type(), d));
+        metrics.bulkJobsGauge(running::get);
+    }
+
+    @EventListener(DatabaseReadyEvent.class)
+    public void onDatabaseReady() {
+        databaseReady = true;
+        poll();
+    }
+
+    @EventListener
+    public void onSubmitted(BulkJobService.Submitted event) {
+        poll();
+    }
+
+    /** Claims as many queued (or abandoned) jobs as there are free workers. */
+    @Scheduled(fixedDelayString = "${app.bulk-jobs.poll-interval:PT5S}")
+    public void poll() {
+        final int free = props.workers() - running.get();
+        if (!databaseReady || free <= 0 || stopping.get() || !polling.compareAndSet(false, true))
+            return;
+
+        final LocalDateTime now = LocalDateTime.now();
+        final LocalDateTime staleBefore = now.minus(props.staleAfter());
+        repository.findClaimable(staleBefore, free)
+                .concatMap(job -> repository.claim(job.getId(), owner, now, staleBefore)
+                        .filter(claimed -> claimed == 1)
+                        .map(claimed -> {
+                            job.setStatus(BulkJobStatus.RUNNING);
+                            job.setOwner(owner);
+                            job.setHeartbeatAt(now);
+                            return job;
+                        }))
+                .doFinally(signal -> polling.set(false))
+                .subscribe(this::start, e -> log.warn("Bulk job poll failed: {}", e.getMessage()));
+    }
+
+    private void start(BulkJobEntity job) {
+        final IocDescriptor<?> d = descriptors.get(job.getIocType());
+        final BulkProgressListener progress = responder.progress(job.getChannelId(), job.getCommand());
+        log.info("Bulk job #{} started by {} at {}/{}", job.getId(), owner, job.getProcessed(), job.getTotal());
+        running.incrementAndGet();
+
+        Disposable run = Mono.firstWithSignal(Mono.defer(() -> process(d, job, progress)), leaseLost(job))
+                .flatMap(done -> finish(done, BulkJobStatus.DONE))
+                .doOnNext(done -> responder.post(done.getChannelId(), done.getSlackUserId(),
+                        BulkJobService.report(done), done.getCommand()))
+                .onErrorResume(e -> {
+                    if (e instanceof LeaseLostException) {
+                        log.warn("Bulk job #{} was re-claimed by another worker, stopping at {}/{}", job.getId(),
+                                job.getProcessed(), job.getTotal());
+                        return Mono.empty();
+                    }
+                    log.error("Bulk job #{} failed: {}", job.getId(), e.getMessage(), e);
+                    return finish(job, BulkJobStatus.FAILED)
+                            .doOnNext(failed -> responder.post(failed.getChannelId(), failed.getSlackUserId(),
+                                    ":x: Bulk job `#" + failed.getId() + "` failed after " + failed.getProcessed()
+                                            + "/" + failed.getTotal() + " items.",
+                                    failed.getCommand()))
+                            .onErrorResume(e2 -> {
+                                log.warn("Could not mark bulk job #{} failed: {}", job.getId(), e2.getMessage());
+                                return Mono.empty();
+                            });
+                })
+                .contextWrite(DbRoute::bulk)
+                .doFinally(signal -> {
+                    progress.finish();
+                    jobs.remove(job.getId());
+                    running.decrementAndGet();
+                    poll();
+                })
+                .subscribe();
+        jobs.put(job.getId(), run);
+    }
+
+    private <E extends IndicatorEntity> Mono<BulkJobEntity> process(IocDescriptor<E> d, BulkJobEntity job,
+            BulkProgressListener progress) {
+        final List<String> values = List.of(job.getItems().split("\n"));
+        final int total = values.size();
+        final int resumeAt = job.getProcessed();
+        return slackUserService.ensureAndEnrichSlackUser(job.getSlackUserId(), job.getTeamId())
+                .flatMap(user -> Flux.range(0, chunks(resumeAt, total))
+                        .map(i -> resumeAt + i * props.chunkSize())
+                        .concatMap(from -> {
+                            final int to = Math.min(from + props.chunkSize(), total);
+                            return iocCommandService.bulkChunk(d, user, values.subList(from, to),
+                                    job.getReason(), job.getExpiresAt(), progress, from, total)
+                                    .flatMap(chunk -> checkpoint(job, chunk, to));
+                        })
+                        .then(Mono.just(job)));
+    }
+
+    private int chunks(int processed, int total) {
+        return (total - processed + props.chunkSize() - 1) / props.chunkSize();
+    }
+
+    private Mono<BulkJobEntity> checkpoint(BulkJobEntity job, BulkChunk chunk, int processed) {
+        job.setProcessed(processed);
+        job.setAdded(job.getAdded() + chunk.added());
+        job.setReactivated(job.getReactivated() + chunk.reactivated());
+        job.setAlreadyActive(job.getAlreadyActive() + chunk.alreadyActive());
+        job.setInvalid(job.getInvalid() + chunk.invalid());
+        job.setErrors(job.getErrors() + chunk.errors());
+        job.setDetails(job.getDetails() == null ? chunk.details() : job.getDetails() + chunk.details());
+        job.setHeartbeatAt(LocalDateTime.now());
+        return repository.checkpoint(job.getId(), owner, processed, job.getAdded(), job.getReactivated(),
+                job.getAlreadyActive(), job.getInvalid(), job.getErrors(), chunk.details(), job.getHeartbeatAt())
+                .flatMap(rows -> rows == 1 ? Mono.just(job) : Mono.error(new LeaseLostException(job.getId())));
+    }
+
+    /**
+     * Renews the lease every quarter of {@code stale-after} while the job runs,
+     * however long a chunk takes. Errors when the lease was lost; a heartbeat
+     * that fails is only retried on the next beat.
+     */
+    private Mono<BulkJobEntity> leaseLost(BulkJobEntity job) {
+        final Duration every = props.staleAfter().dividedBy(4);
+        return Flux.interval(every, every)
+                .concatMap(beat -> repository.heartbeat(job.getId(), owner, LocalDateTime.now())
+                        .onErrorResume(e -> {
+                            log.warn("Heartbeat of bulk job #{} failed: {}", job.getId(), e.getMessage());
+                            return Mono.empty();
+                        }))
+                .filter(rows -> rows == 0)
+                .next()
+                .flatMap(rows -> Mono.error(new LeaseLostException(job.getId())));
+    }
+
+    private Mono<BulkJobEntity> finish(BulkJobEntity job, BulkJobStatus status) {
+        job.setStatus(status);
+        job.setFinishedAt(LocalDateTime.now());
+        return repository.finish(job.getId(), owner, status.name(), job.getFinishedAt())
+                .flatMap(rows -> rows == 1 ? Mono.just(job) : Mono.error(new LeaseLostException(job.getId())));
+    }
+
+    /** Stops local jobs and hands them back to the queue for another instance. */
+    @PreDestroy
+    public void shutdown() {
+        stopping.set(true);
+        jobs.values().forEach(Disposable::dispose);
+        try {
+            Integer released = repository.release(owner).block(Duration.ofSeconds(5));
+            if (released != null && released > 0)
+                log.info("Released {} running bulk jobs back to the queue", released);
+        } catch (Exception e) {
+            log.warn("Could not release bulk jobs on shutdown, they resume after {}: {}", props.staleAfter(),
+                    e.getMessage());
+        }
+    }
+}
@@ -1,26 +1,34 @@
 package com.blacklisthub.slack;
 
+import java.util.List;
+
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import com.blacklisthub.service.DatabaseReadyEvent;
 import com.blacklisthub.slack.config.SlackProps;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.service.AdminCommandService;
 import com.blacklisthub.slack.service.ChannelAccessService;
-import com.blacklisthub.slack.service.DomainCommandService;
-import com.blacklisthub.slack.service.HashCommandService;
-import com.blacklisthub.slack.service.IpCommandService;
-import com.blacklisthub.slack.service.UrlCommandService;
-import com.blacklisthub.slack.util.CommandParser;
+import com.blacklisthub.slack.service.IocCommandService;
+import com.blacklisthub.slack.util.SlackCommand;
 import com.blacklisthub.slack.util.SlackMessageFormatter;
+import com.slack.api.app_backend.slash_commands.payload.SlashCommandPayload;
 import com.slack.api.bolt.App;
 import com.slack.api.bolt.AppConfig;
 import com.slack.api.bolt.socket_mode.SocketModeApp;
 import com.slack.api.model.event.AppMentionEvent;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
+/**
+ * Connects to Slack in Socket Mode and dispatches the slash commands. It
+ * connects only once the database is migrated ({@link DatabaseReadyEvent}), so
+ * no command runs against the schema of a previous version.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -28,16 +36,28 @@ public class SlackBoltRunner {
 
     private final SlackProps props;
     private final ChannelAccessService channelAccessService;
+    private final AdminCommandService adminCommandService;
+    private final SlackCommandScheduler commandScheduler;
+    private final SlackResponder responder;
 
-    private final IpCommandService ipCommandService;
-    private final HashCommandService hashCommandService;
-    private final DomainCommandService domainCommandService;
-    private final UrlCommandService urlCommandService;
+    private final IocCommandService iocCommandService;
+    private final List<IocDescriptor<?>> descriptors;
 
     private SocketModeApp socketModeApp;
 
-    @PostConstruct
-    public void start() throws Exception {
+    @EventListener(DatabaseReadyEvent.class)
+    public synchronized void start() {
+        if (socketModeApp != null)
+            return;
+        try {
+            connect();
+        } catch (Exception e) {
+            // Thrown at a listener, it would keep the other DatabaseReadyEvent listeners from running.
+            log.error("Slack Bolt runner failed to start", e);
+        }
+    }
+
+    private void connect() throws Exception {
         // Bolt app config (bot token for Web API, optional signing secret)
         AppConfig config = AppConfig.builder()
                 .singleTeamBotToken(props.botToken())
@@ -46,128 +66,23 @@ public class SlackBoltRunner {
 
         App app = new App(config);
 
-        app.command("/ip", (req, ctx) -> {
-            final String text = req.getPayload().getText();
-            final String channelId = req.getPayload().getChannelId();
-            final String userId = req.getPayload().getUserId();
-            final String teamId = req.getPayload().getTeamId();
-            final String commandName = req.getPayload().getCommand();
-
-            log.info("Received {} '{}' from user={} in channel={}", commandName, text, userId, channelId);
-            ctx.ack(":hourglass_flowing_sand: processing…");
-
-            // Use the generic helper, passing the command name
-            executeCommand(ipCommandService.execute(CommandParser.parse(text), userId, teamId, channelId),
-                    commandName, channelId, userId, text) // <-- Pass commandName
-                    .subscribe(
-                            response -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("in_channel").text(response));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond to /ip", e);
-                                }
-                            },
-                            err -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("ephemeral")
-                                            .text(":x: Internal error. Please contact an administrator."));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond error to /ip", e);
-                                }
-                            });
-            return ctx.ack();
-        });
-
-        app.command("/hash", (req, ctx) -> {
-            final String text = req.getPayload().getText();
-            final String channelId = req.getPayload().getChannelId();
-            final String userId = req.getPayload().getUserId();
-            final String teamId = req.getPayload().getTeamId();
-            final String commandName = req.getPayload().getCommand(); // <-- Get command name
-
-            log.info("Received {} '{}' from user={} in channel={}", commandName, text, userId, channelId);
-            ctx.ack(":hourglass_flowing_sand: processing…");
-
-            executeCommand(hashCommandService.execute(CommandParser.parse(text), userId, teamId, channelId),
-                    commandName, channelId, userId, text) // <-- Pass commandName
-                    .subscribe(
-                            response -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("in_channel").text(response));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond to /hash", e);
-                                }
-                            },
-                            err -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("ephemeral")
-                                            .text(":x: Internal error. Please contact an administrator."));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond error to /hash", e);
-                                }
-                            });
-            return ctx.ack();
-        });
-
-        app.command("/domain", (req, ctx) -> {
-            final String text = req.getPayload().getText();
-            final String channelId = req.getPayload().getChannelId();
-            final String userId = req.getPayload().getUserId();
-            final String teamId = req.getPayload().getTeamId();
-            final String commandName = req.getPayload().getCommand(); // <-- Get command name
-
-            log.info("Received {} '{}' from user={} in channel={}", commandName, text, userId, channelId);
-            ctx.ack(":hourglass_flowing_sand: processing…");
-
-            executeCommand(domainCommandService.execute(CommandParser.parse(text), userId, teamId, channelId),
-                    commandName, channelId, userId, text) // <-- Pass commandName
-                    .subscribe(
-                            response -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("in_channel").text(response));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond to /domain", e);
-                                }
-                            },
-                            err -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("ephemeral")
-                                            .text(":x: Internal error. Please contact an administrator."));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond error to /domain", e);
-                                }
-                            });
-            return ctx.ack();
-        });
-
-        app.command("/url", (req, ctx) -> {
-            final String text = req.getPayload().getText();
-            final String channelId = req.getPayload().getChannelId();
-            final String userId = req.getPayload().getUserId();
-            final String teamId = req.getPayload().getTeamId();
-            final String commandName = req.getPayload().getCommand(); // <-- Get command name
-
-            log.info("Received {} '{}' from user={} in channel={}", commandName, text, userId, channelId);
-            ctx.ack(":hourglass_flowing_sand: processing…");
-
-            executeCommand(urlCommandService.execute(CommandParser.parse(text), userId, teamId, channelId),
-                    commandName, channelId, userId, text) // <-- Pass commandName
-                    .subscribe(
-                            response -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("in_channel").text(response));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond to /url", e);
-                                }
-                            },
-                            err -> {
-                                try {
-                                    ctx.respond(r -> r.responseType("ephemeral")
-                                            .text(":x: Internal error. Please contact an administrator."));
-                                } catch (Exception e) {
-                                    log.error("Failed to respond error to /url", e);
-                                }
-                            });
+        // One handler per IoC type, driven by its descriptor
+        descriptors.forEach(d -> registerIocCommand(app, d));
+
+        // Channel whitelist management; authorized per admin user, not per channel
+        app.command("/blacklist-admin", (req, ctx) -> {
+            final SlackCommand cmd = toCommand(req.getPayload());
+            log.info("Received /blacklist-admin '{}' from user={} in channel={}", cmd.text(), cmd.userId(),
+                    cmd.channelId());
+
+            commandScheduler.submit(cmd.userId(), () -> adminCommandService.execute(cmd))
+                    .onErrorResume(err -> {
+                        log.error("Error executing admin command for user {}: {}", cmd.userId(), err.getMessage(),
+                                err);
+                        return Mono.just(":x: Internal error. Please contact an administrator.");
+                    })
+                    .subscribe(response -> responder.respond(ctx, cmd.channelId(), "ephemeral", response,
+                            cmd.command()));
             return ctx.ack();
         });
 
@@ -175,7 +90,13 @@ public class SlackBoltRunner {
         app.event(AppMentionEvent.class, (payload, ctx) -> {
             String channelId = payload.getEvent().getChannel();
             log.info("App mentioned in channel {}", channelId);
-            ctx.say("👋 I'm alive and managing IoC blocklist commands (/ip, /hash, /domain, /url).");
+            commandScheduler.runBlocking(() -> {
+                try {
+                    ctx.say("👋 I'm alive and managing IoC blocklist commands (/ip, /hash, /domain, /url).");
+                } catch (Exception e) {
+                    log.error("Failed to answer mention in channel {}", channelId, e);
+                }
+            });
             return ctx.ack();
         });
 
@@ -186,36 +107,51 @@ public class SlackBoltRunner {
         log.info("✅ Slack Bolt runner started successfully in Socket Mode.");
     }
 
+    private void registerIocCommand(App app, IocDescriptor<?> descriptor) {
+        app.command(descriptor.command(), (req, ctx) -> {
+            // Parsed once here; every later stage reads the same immutable command.
+            final SlackCommand cmd = toCommand(req.getPayload());
+            log.info("Received {} '{}' from user={} in channel={}", cmd.command(), cmd.text(), cmd.userId(),
+                    cmd.channelId());
+
+            commandScheduler.submit(cmd.userId(), () -> executeCommand(cmd, iocCommandService.execute(descriptor, cmd)))
+                    .subscribe(
+                            response -> responder.respond(ctx, cmd.channelId(),
+                                    SlackCommandScheduler.BUSY_REPLY.equals(response) ? "ephemeral" : "in_channel",
+                                    response, cmd.command()),
+                            err -> responder.respond(ctx, cmd.channelId(), "ephemeral",
+                                    ":x: Internal error. Please contact an administrator.", cmd.command()));
+            return ctx.ack();
+        });
+    }
+
+    private static SlackCommand toCommand(SlashCommandPayload payload) {
+        return SlackCommand.of(payload.getCommand(), payload.getText(), payload.getUserId(), payload.getTeamId(),
+                payload.getChannelId());
+    }
+
     /**
-     * Generic helper to wrap command execution with channel validation and response
-     * formatting.
-     * NOW accepts commandName.
+     * Wraps command execution with channel validation and formats the result
+     * for the "in_channel" response.
      */
-    private Mono<String> executeCommand(Mono<String> serviceExecution, String commandName, String channelId,
-            String userId, String commandText) {
-        return channelAccessService.isChannelAllowed(channelId)
+    private Mono<String> executeCommand(SlackCommand cmd, Mono<String> serviceExecution) {
+        return channelAccessService.isChannelAllowed(cmd.channelId())
                 .flatMap(allowed -> {
                     if (!Boolean.TRUE.equals(allowed)) {
-                        log.warn("Command from user {} in unauthorized channel {}", userId, channelId);
+                        log.warn("Command from user {} in unauthorized channel {}", cmd.userId(), cmd.channelId());
                         return Mono.just(":no_entry_sign: Commands are not allowed in this channel.");
                     }
-
-                    var parsed = CommandParser.parse(commandText);
-
-                    return serviceExecution.flatMap(resultMessage -> {
-                        // Return the formatted result for the "in_channel" response
-                        String publicMsg = SlackMessageFormatter.prettyResultForChannel(userId, resultMessage, parsed);
-                        return Mono.just(publicMsg);
-                    });
+                    return serviceExecution.map(resultMessage -> SlackMessageFormatter
+                            .prettyResultForChannel(cmd.userId(), resultMessage, cmd.parsed()));
                 })
                 .onErrorResume(err -> {
-                    log.error("Error executing command for user {}: {}", userId, err.getMessage(), err);
+                    log.error("Error executing command for user {}: {}", cmd.userId(), err.getMessage(), err);
                     return Mono.just(":x: Internal error. Please contact an administrator.");
                 });
     }
 
     @PreDestroy
-    public void stop() throws Exception {
+    public synchronized void stop() throws Exception {
         if (socketModeApp != null) {
             try {
                 socketModeApp.close();
@@ -0,0 +1,143 @@
+package com.blacklisthub.slack;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.slack.config.CommandSchedulerProps;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Admission control for Slack commands.
+ *
+ * <p>
+ * At most {@code app.commands.max-in-flight} commands execute at once. Extra
+ * commands wait in per-user FIFO queues that are drained round-robin, so one
+ * user pasting a burst of bulks cannot starve everyone else. When the global
+ * or the user's queue is full the command is rejected with {@link #BUSY_REPLY}
+ * instead of piling more work onto the DB pool.
+ *
+ * <p>
+ * Blocking Slack calls that are not command replies (e.g. {@code say}) are
+ * run on the Slack I/O scheduler via {@link #runBlocking(Runnable)} so they
+ * never occupy a Netty or R2DBC event-loop thread; replies go through
+ * {@link SlackResponder}.
+ */
+@Slf4j
+@Component
+public class SlackCommandScheduler {
+
+    public static final String BUSY_REPLY = ":hourglass: Blacklist Hub is busy right now. "
+            + "Please retry in a moment.";
+
+    private record Job(String userId, Supplier<Mono<String>> work, Sinks.One<String> result) {
+    }
+
+    private final CommandSchedulerProps props;
+    private final BlacklistMetrics metrics;
+    private final Scheduler slackIoScheduler;
+
+    private final Object lock = new Object();
+    // Insertion order doubles as the round-robin order of users with pending work.
+    private final Map<String, ArrayDeque<Job>> queues = new LinkedHashMap<>();
+    private int inFlight;
+    private int queued;
+
+    public SlackCommandScheduler(CommandSchedulerProps props, BlacklistMetrics metrics, Scheduler slackIoScheduler) {
+        this.props = props;
+        this.metrics = metrics;
+        this.slackIoScheduler = slackIoScheduler;
+        metrics.commandSchedulerGauges(this::inFlight, this::queued);
+    }
+
+    /**
+     * Queues a command for {@code userId}. The returned Mono emits the command's
+     * reply once it has run, or {@link #BUSY_REPLY} right away if it was
+     * rejected.
+     */
+    public Mono<String> submit(String userId, Supplier<Mono<String>> work) {
+        return Mono.defer(() -> {
+            final Job job = new Job(userId, work, Sinks.one());
+            synchronized (lock) {
+                ArrayDeque<Job> userQueue = queues.get(userId);
+                int userQueued = userQueue == null ? 0 : userQueue.size();
+                if (queued >= props.maxQueued() || userQueued >= props.maxQueuedPerUser()) {
+                    log.warn("Rejecting command from user {}: inFlight={} queued={} userQueued={}",
+                            userId, inFlight, queued, userQueued);
+                    metrics.commandRejected();
+                    return Mono.just(BUSY_REPLY);
+                }
+                queues.computeIfAbsent(userId, k -> new ArrayDeque<>()).addLast(job);
+                queued++;
+            }
+            drain();
+            return job.result().asMono();
+        });
+    }
+
+    /** Runs a blocking call (e.g. a Slack reply) on the Slack I/O scheduler. */
+    public void runBlocking(Runnable task) {
+        slackIoScheduler.schedule(task);
+    }
+
+    private void drain() {
+        while (true) {
+            final Job next;
+            synchronized (lock) {
+                if (inFlight >= props.maxInFlight() || queues.isEmpty())
+                    return;
+                next = pollRoundRobin();
+                queued--;
+                inFlight++;
+            }
+            start(next);
+        }
+    }
+
+    /** Takes the head job of the first user in line and moves that user to the back. */
+    private Job pollRoundRobin() {
+        Iterator<Map.Entry<String, ArrayDeque<Job>>> it = queues.entrySet().iterator();
+        Map.Entry<String, ArrayDeque<Job>> first = it.next();
+        ArrayDeque<Job> userQueue = first.getValue();
+        Job job = userQueue.pollFirst();
+        it.remove();
+        if (!userQueue.isEmpty())
+            queues.put(first.getKey(), userQueue);
+        return job;
+    }
+
+    private void start(Job job) {
+        Mono.defer(job.work())
+                .doFinally(signal -> {
+                    synchronized (lock) {
+                        inFlight--;
+                    }
+                    drain();
+                })
+                .subscribe(
+                        job.result()::tryEmitValue,
+                        job.result()::tryEmitError,
+                        job.result()::tryEmitEmpty);
+    }
+
+    int inFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    int queued() {
+        synchronized (lock) {
+            return queued;
+        }
+    }
+}
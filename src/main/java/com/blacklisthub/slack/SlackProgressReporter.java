@@ -0,0 +1,119 @@
+package com.blacklisthub.slack;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.request.chat.ChatDeleteRequest;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.chat.ChatUpdateRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.chat.ChatUpdateResponse;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Shows the progress of one bulk as a single channel message.
+ *
+ * <p>
+ * Nothing is posted for bulks that finish within the first interval. After
+ * that the message is posted once and then edited at most once per interval.
+ * It is deleted when the bulk finishes, since the result itself is sent as the
+ * command reply. Progress callbacks only do a timestamp check; the Slack calls
+ * run on the Slack I/O scheduler. If Slack refuses the first post (e.g.
+ * {@code not_in_channel}), no progress is shown for that bulk.
+ */
+@Slf4j
+class SlackProgressReporter implements BulkProgressListener {
+
+    private final MethodsClient slackMethods;
+    private final BlacklistMetrics metrics;
+    private final Scheduler slackIoScheduler;
+    private final String channelId;
+    private final String command;
+    private final long intervalNanos;
+
+    private final AtomicLong nextUpdateAt;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    // Only touched from synchronized methods running on the Slack I/O scheduler.
+    private String messageTs;
+    private boolean refused;
+
+    SlackProgressReporter(MethodsClient slackMethods, BlacklistMetrics metrics, Scheduler slackIoScheduler,
+            String channelId, String command, Duration interval) {
+        this.slackMethods = slackMethods;
+        this.metrics = metrics;
+        this.slackIoScheduler = slackIoScheduler;
+        this.channelId = channelId;
+        this.command = command;
+        this.intervalNanos = interval.toNanos();
+        this.nextUpdateAt = new AtomicLong(System.nanoTime() + intervalNanos);
+    }
+
+    @Override
+    public void onProgress(int done, int total) {
+        if (finished.get())
+            return;
+        long now = System.nanoTime();
+        long next = nextUpdateAt.get();
+        if (now - next < 0 || !nextUpdateAt.compareAndSet(next, now + intervalNanos))
+            return;
+        slackIoScheduler.schedule(() -> show(done, total));
+    }
+
+    @Override
+    public void finish() {
+        if (finished.compareAndSet(false, true))
+            slackIoScheduler.schedule(this::remove);
+    }
+
+    private synchronized void show(int done, int total) {
+        if (finished.get() || refused)
+            return;
+        final String text = ":hourglass_flowing_sand: `" + command + " bulk` in progress: " + done + "/" + total;
+        try {
+            if (messageTs == null) {
+                ChatPostMessageResponse resp = metrics.timeSlackCall("chat.postMessage",
+                        () -> slackMethods.chatPostMessage(ChatPostMessageRequest.builder()
+                                .channel(channelId)
+                                .text(text)
+                                .build()));
+                if (resp.isOk()) {
+                    messageTs = resp.getTs();
+                } else {
+                    refused = true;
+                    log.warn("Bulk progress for {} not shown in {}: {}", command, channelId, resp.getError());
+                }
+            } else {
+                ChatUpdateResponse resp = metrics.timeSlackCall("chat.update",
+                        () -> slackMethods.chatUpdate(ChatUpdateRequest.builder()
+                                .channel(channelId)
+                                .ts(messageTs)
+                                .text(text)
+                                .build()));
+                if (!resp.isOk())
+                    log.warn("Failed to update bulk progress for {} in {}: {}", command, channelId,
+                            resp.getError());
+            }
+        } catch (Exception e) {
+            log.warn("Failed to post bulk progress for {} in {}: {}", command, channelId, e.getMessage());
+        }
+    }
+
+    private synchronized void remove() {
+        if (messageTs == null)
+            return;
+        try {
+            metrics.timeSlackCall("chat.delete", () -> slackMethods.chatDelete(ChatDeleteRequest.builder()
+                    .channel(channelId)
+                    .ts(messageTs)
+                    .build()));
+        } catch (Exception e) {
+            log.warn("Failed to remove bulk progress message in {}: {}", channelId, e.getMessage());
+        }
+    }
+}
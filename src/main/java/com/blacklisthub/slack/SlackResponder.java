@@ -0,0 +1,159 @@
+package com.blacklisthub.slack;
+
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.slack.config.SlackResponseProps;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.blacklisthub.slack.util.SlackMessageChunker;
+import com.slack.api.bolt.context.builtin.SlashCommandContext;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.request.files.FilesUploadV2Request;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+import com.slack.api.methods.response.files.FilesUploadV2Response;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Delivers command results to Slack.
+ *
+ * <p>
+ * A result that fits in {@code app.slack-responses.max-message-chars} is sent
+ * as one message (a response_url reply or a channel post). Longer results are
+ * paged into at most {@code app.slack-responses.max-pages} messages. A public
+ * result that needs more pages than that is uploaded to the channel as a text
+ * file with a short summary. If the upload fails, the pages are sent and
+ * truncated. All Slack calls run on the Slack I/O scheduler.
+ *
+ * <p>
+ * {@code chat.postMessage} needs {@code chat:write.public} for public channels
+ * the bot has not joined, and an invitation for private ones. A post that
+ * Slack still refuses (e.g. {@code not_in_channel}) is sent to the requesting
+ * user as a direct message instead.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SlackResponder {
+
+    private final SlackResponseProps props;
+    private final MethodsClient slackMethods;
+    private final BlacklistMetrics metrics;
+    private final Scheduler slackIoScheduler;
+
+    /** Sends a command reply through the command's response_url. */
+    public void respond(SlashCommandContext ctx, String channelId, String responseType, String text,
+            String command) {
+        slackIoScheduler.schedule(() -> deliver(channelId, "in_channel".equals(responseType), text, command,
+                page -> ctx.respond(r -> r.responseType(responseType).text(page))));
+    }
+
+    /**
+     * Posts a public message to a channel with {@code chat.postMessage}, for
+     * results that outlive the command's response_url (e.g. bulk jobs). If
+     * Slack refuses the post, the message goes to {@code userId} (who ran the
+     * command) as a direct message.
+     */
+    public void post(String channelId, String userId, String text, String command) {
+        slackIoScheduler.schedule(() -> {
+            if (deliver(channelId, true, text, command, page -> postMessage(channelId, page)) || userId == null)
+                return;
+            log.warn("Sending the {} result to {} as a direct message instead of {}", command, userId, channelId);
+            deliver(userId, false, ":information_source: I could not post in <#" + channelId
+                    + ">, so here is the result of `" + command + "`. Invite me to the channel to get it there.\n\n"
+                    + text, command, page -> postMessage(userId, page));
+        });
+    }
+
+    /**
+     * Progress listener that posts, then keeps editing, a status message in the
+     * channel while a bulk runs, and removes it when the bulk finishes.
+     */
+    public BulkProgressListener progress(String channelId, String command) {
+        return new SlackProgressReporter(slackMethods, metrics, slackIoScheduler, channelId, command,
+                props.progressInterval());
+    }
+
+    @FunctionalInterface
+    private interface PageSender {
+        void send(String page) throws Exception;
+    }
+
+    /** A post Slack answered with {@code ok: false}. */
+    private static final class NotPosted extends Exception {
+        NotPosted(String error) {
+            super(error, null, false, false);
+        }
+    }
+
+    private void postMessage(String channel, String page) throws Exception {
+        ChatPostMessageResponse resp = metrics.timeSlackCall("chat.postMessage",
+                () -> slackMethods.chatPostMessage(ChatPostMessageRequest.builder()
+                        .channel(channel)
+                        .text(page)
+                        .build()));
+        if (!resp.isOk())
+            throw new NotPosted(resp.getError());
+    }
+
+    /** Sends the result; false if a page could not be sent. */
+    private boolean deliver(String channelId, boolean isPublic, String text, String command, PageSender sender) {
+        try {
+            List<String> pages = SlackMessageChunker.chunk(text, props.maxMessageChars());
+            if (pages.size() > props.maxPages() && isPublic && upload(channelId, text, command)) {
+                return true;
+            }
+            int sent = Math.min(pages.size(), props.maxPages());
+            for (int i = 0; i < sent; i++) {
+                String page = pages.get(i);
+                if (i == sent - 1 && sent < pages.size())
+                    page += "\n_… output truncated (" + (pages.size() - sent) + " more pages)_";
+                sender.send(page);
+            }
+            return true;
+        } catch (NotPosted e) {
+            log.warn("chat.postMessage of the {} result to {} failed: {}", command, channelId, e.getMessage());
+        } catch (Exception e) {
+            log.error("Failed to respond to {}", command, e);
+        }
+        return false;
+    }
+
+    private boolean upload(String channelId, String text, String command) {
+        final String name = command.substring(1);
+        try {
+            FilesUploadV2Response resp = metrics.timeSlackCall("files.uploadV2",
+                    () -> slackMethods.filesUploadV2(FilesUploadV2Request.builder()
+                            .channel(channelId)
+                            .filename(name + "-result.txt")
+                            .title(command + " result")
+                            .content(text)
+                            .initialComment(summaryOf(text, command))
+                            .build()));
+            if (resp.isOk())
+                return true;
+            log.warn("files.uploadV2 for {} failed ({}), falling back to paged replies", command, resp.getError());
+        } catch (Exception e) {
+            log.warn("files.uploadV2 for {} failed, falling back to paged replies: {}", command, e.getMessage());
+        }
+        return false;
+    }
+
+    /** The text before the first blank line or code block, e.g. a bulk overview. */
+    static String summaryOf(String text, String command) {
+        int end = text.length();
+        int blank = text.indexOf("\n\n");
+        if (blank >= 0)
+            end = blank;
+        int fence = text.indexOf("```");
+        if (fence >= 0 && fence < end)
+            end = fence;
+        String head = text.substring(0, end).trim();
+        return (head.isEmpty() ? "Result of `" + command + "`" : head) + "\n_(full result attached)_";
+    }
+}
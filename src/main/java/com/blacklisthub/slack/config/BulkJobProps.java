@@ -0,0 +1,28 @@
+package com.blacklisthub.slack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the persistent bulk job queue.
+ *
+ * @param workers    bulk jobs processed concurrently by this instance
+ * @param chunkSize  items processed between two checkpoints
+ * @param maxItems   items accepted in one bulk command
+ * @param staleAfter heartbeat age after which a running job is re-claimed
+ */
+@ConfigurationProperties(prefix = "app.bulk-jobs")
+public record BulkJobProps(
+        int workers,
+        int chunkSize,
+        int maxItems,
+        Duration staleAfter) {
+
+    public BulkJobProps {
+        workers = workers > 0 ? workers : 2;
+        chunkSize = chunkSize > 0 ? chunkSize : 100;
+        maxItems = maxItems > 0 ? maxItems : 5000;
+        staleAfter = staleAfter != null ? staleAfter : Duration.ofMinutes(2);
+    }
+}
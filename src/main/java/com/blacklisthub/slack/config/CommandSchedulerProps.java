@@ -0,0 +1,23 @@
+package com.blacklisthub.slack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits applied by the Slack command scheduler.
+ *
+ * @param maxInFlight        commands executing concurrently
+ * @param maxQueued          commands waiting across all users
+ * @param maxQueuedPerUser   commands a single user may have waiting
+ */
+@ConfigurationProperties(prefix = "app.commands")
+public record CommandSchedulerProps(
+        int maxInFlight,
+        int maxQueued,
+        int maxQueuedPerUser) {
+
+    public CommandSchedulerProps {
+        maxInFlight = maxInFlight > 0 ? maxInFlight : 16;
+        maxQueued = maxQueued > 0 ? maxQueued : 200;
+        maxQueuedPerUser = maxQueuedPerUser > 0 ? maxQueuedPerUser : 10;
+    }
+}
@@ -0,0 +1,106 @@
+package com.blacklisthub.slack.config;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.blacklisthub.entity.DomainEntity;
+import com.blacklisthub.entity.HashEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.entity.IpEntity;
+import com.blacklisthub.entity.UrlEntity;
+import com.blacklisthub.repository.DomainRepository;
+import com.blacklisthub.repository.HashRepository;
+import com.blacklisthub.repository.IpRepository;
+import com.blacklisthub.repository.UrlRepository;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.ioc.IocRepositoryAdapter;
+import com.blacklisthub.slack.util.IocUtils;
+
+/**
+ * One {@link IocDescriptor} per IoC type. Adding a new type means adding a
+ * table, an entity, a repository and a descriptor bean here; the command
+ * engine and the Slack runner pick it up automatically.
+ */
+@Configuration
+public class IocDescriptorConfig {
+
+    @Bean
+    public IocDescriptor<IpEntity> ipDescriptor(IpRepository repo) {
+        // IPs are stored as typed; ip_bin (INET6_ATON) normalizes on the DB side.
+        return new IocDescriptor<>(IocType.IP, "/ip", "IP", "IPs", "ip", 200,
+                String::trim,
+                IocUtils::isValidIp,
+                IocRepositoryAdapter.of(
+                        repo::findByIpNormalized,
+                        repo::findActiveValues,
+                        repo::findChangedSince,
+                        repo::save,
+                        (value, reason, createdBy) -> IpEntity.builder()
+                                .ip(value)
+                                .reason(reason)
+                                .active(true)
+                                .createdBy(createdBy)
+                                .createdAt(LocalDateTime.now())
+                                .build()));
+    }
+
+    @Bean
+    public IocDescriptor<HashEntity> hashDescriptor(HashRepository repo) {
+        return new IocDescriptor<>(IocType.HASH, "/hash", "HASH", "hashes", "hash", 200,
+                h -> h.trim().toLowerCase(Locale.ROOT),
+                IocUtils::isValidHash,
+                IocRepositoryAdapter.of(
+                        repo::findByNormalizedHash,
+                        repo::findActiveValues,
+                        repo::findChangedSince,
+                        repo::save,
+                        (value, reason, createdBy) -> HashEntity.builder()
+                                .hashValue(value)
+                                .reason(reason)
+                                .active(true)
+                                .createdBy(createdBy)
+                                .createdAt(LocalDateTime.now())
+                                .build()));
+    }
+
+    @Bean
+    public IocDescriptor<DomainEntity> domainDescriptor(DomainRepository repo) {
+        return new IocDescriptor<>(IocType.DOMAIN, "/domain", "DOMAIN", "domains", "domain", 200,
+                d -> d.trim().toLowerCase(Locale.ROOT),
+                IocUtils::isValidDomain,
+                IocRepositoryAdapter.of(
+                        repo::findByNormalizedDomain,
+                        repo::findActiveValues,
+                        repo::findChangedSince,
+                        repo::save,
+                        (value, reason, createdBy) -> DomainEntity.builder()
+                                .domainName(value)
+                                .reason(reason)
+                                .active(true)
+                                .createdBy(createdBy)
+                                .createdAt(LocalDateTime.now())
+                                .build()));
+    }
+
+    @Bean
+    public IocDescriptor<UrlEntity> urlDescriptor(UrlRepository repo) {
+        return new IocDescriptor<>(IocType.URL, "/url", "URL", "URLs", "url", 100,
+                u -> IocUtils.normalizeUrl(u.trim()),
+                IocUtils::isValidUrl,
+                IocRepositoryAdapter.of(
+                        repo::findByUrlValue,
+                        repo::findActiveValues,
+                        repo::findChangedSince,
+                        repo::save,
+                        (value, reason, createdBy) -> UrlEntity.builder()
+                                .urlValue(value)
+                                .reason(reason)
+                                .active(true)
+                                .createdBy(createdBy)
+                                .createdAt(LocalDateTime.now())
+                                .build()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.blacklisthub.slack.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Provides the {@code slackIoScheduler}: the only place blocking Slack SDK
+ * calls are allowed to run. With virtual threads (the default) every call gets
+ * its own cheap thread, so thousands of concurrent Slack round-trips park
+ * without holding a platform thread; {@code app.slack-io.virtual-threads=false}
+ * falls back to a fixed platform pool for comparison.
+ */
+@Slf4j
+@Configuration
+public class SlackIoConfig implements DisposableBean {
+
+    private ExecutorService executor;
+
+    @Bean
+    Scheduler slackIoScheduler(SlackIoProps props, BlacklistMetrics metrics) {
+        final AtomicInteger active = new AtomicInteger();
+        final String mode;
+        if (props.virtualThreads()) {
+            ThreadFactory factory = Thread.ofVirtual().name("slack-io-vt-", 0).factory();
+            executor = Executors.newThreadPerTaskExecutor(factory);
+            mode = "virtual";
+        } else {
+            ThreadFactory factory = Thread.ofPlatform().name("slack-io-", 0).daemon(true).factory();
+            executor = Executors.newFixedThreadPool(props.platformThreads(), factory);
+            mode = "platform";
+        }
+        metrics.slackIoGauges(mode, active::get);
+        log.info("Slack I/O scheduler uses {} threads", mode);
+
+        return Schedulers.fromExecutor(task -> executor.execute(() -> {
+            active.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                active.decrementAndGet();
+            }
+        }));
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.blacklisthub.slack.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Threading for blocking Slack SDK calls ({@code MethodsClient},
+ * {@code ctx.respond}, {@code ctx.say}).
+ *
+ * @param virtualThreads  run each call on its own virtual thread (default);
+ *                        when {@code false} a fixed platform pool is used
+ * @param platformThreads size of the platform pool when virtual threads are off
+ */
+@ConfigurationProperties(prefix = "app.slack-io")
+public record SlackIoProps(
+        Boolean virtualThreads,
+        int platformThreads) {
+
+    public SlackIoProps {
+        virtualThreads = virtualThreads == null || virtualThreads;
+        platformThreads = platformThreads > 0 ? platformThreads : 32;
+    }
+}
@@ -0,0 +1,27 @@
+package com.blacklisthub.slack.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * How command results are delivered to Slack.
+ *
+ * @param maxMessageChars  characters per reply message before paging
+ * @param maxPages         replies a result may be paged into; Slack accepts
+ *                         at most 5 per response_url. Longer results are
+ *                         uploaded as a file
+ * @param progressInterval minimum time between progress updates of a bulk
+ */
+@ConfigurationProperties(prefix = "app.slack-responses")
+public record SlackResponseProps(
+        int maxMessageChars,
+        int maxPages,
+        Duration progressInterval) {
+
+    public SlackResponseProps {
+        maxMessageChars = maxMessageChars > 0 ? maxMessageChars : 3500;
+        maxPages = maxPages > 0 ? Math.min(maxPages, 5) : 5;
+        progressInterval = progressInterval != null ? progressInterval : Duration.ofSeconds(3);
+    }
+}
@@ -0,0 +1,15 @@
+package com.blacklisthub.slack.ioc;
+
+/**
+ * Outcome of processing one chunk of a bulk job.
+ *
+ * @param details one {@code • <result>} line per processed item
+ */
+public record BulkChunk(
+        int added,
+        int reactivated,
+        int alreadyActive,
+        int invalid,
+        int errors,
+        String details) {
+}
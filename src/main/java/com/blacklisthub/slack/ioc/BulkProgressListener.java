@@ -0,0 +1,18 @@
+package com.blacklisthub.slack.ioc;
+
+/**
+ * Receives per-item progress of a bulk command. Called from Reactor threads
+ * for every processed item, so implementations must be cheap and non-blocking.
+ */
+@FunctionalInterface
+public interface BulkProgressListener {
+
+    BulkProgressListener NONE = (done, total) -> {
+    };
+
+    void onProgress(int done, int total);
+
+    /** Called once the bulk has finished, successfully or not. */
+    default void finish() {
+    }
+}
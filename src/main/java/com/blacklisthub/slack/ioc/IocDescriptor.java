@@ -0,0 +1,69 @@
+package com.blacklisthub.slack.ioc;
+
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import com.blacklisthub.entity.IndicatorEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.slack.util.IocUtils;
+
+/**
+ * Everything that differs between IoC types, as seen by the generic command
+ * engine: Slack command name, user-facing labels, how raw input is normalized
+ * and validated, which repository backs it and how creations are audited.
+ *
+ * @param type        audit/metrics discriminator
+ * @param command     Slack slash command, e.g. {@code /ip}
+ * @param label       singular label used in replies, e.g. {@code IP}
+ * @param pluralLabel plural label used in replies, e.g. {@code IPs}
+ * @param auditKey    JSON key holding the value in CREATE audit entries
+ * @param listLimit   maximum number of entries returned by {@code list}
+ * @param normalizer  maps raw user input to the stored form
+ * @param validator   checks a normalized value
+ * @param repository  persistence adapter for the type's table
+ */
+public record IocDescriptor<E extends IndicatorEntity>(
+        IocType type,
+        String command,
+        String label,
+        String pluralLabel,
+        String auditKey,
+        int listLimit,
+        UnaryOperator<String> normalizer,
+        Predicate<String> validator,
+        IocRepositoryAdapter<E> repository) {
+
+    public String normalize(String raw) {
+        return raw == null ? null : normalizer.apply(raw);
+    }
+
+    public boolean isValid(String normalized) {
+        return validator.test(normalized);
+    }
+
+    /** Audit payload for a newly created indicator. */
+    public String createdAuditJson(String normalizedValue, String reason) {
+        return createdAuditJson(normalizedValue, reason, null);
+    }
+
+    /** Audit payload for a newly created indicator expiring at {@code expiresAt} (omitted if null). */
+    public String createdAuditJson(String normalizedValue, String reason, String expiresAt) {
+        final String json = "{" + String.join(",",
+                IocUtils.jsonKV(auditKey, normalizedValue, true),
+                IocUtils.jsonKV("reason", reason, true),
+                IocUtils.jsonKV("active", "1", false));
+        return expiresAt == null ? json + "}" : json + "," + IocUtils.jsonKV("expires_at", expiresAt, true) + "}";
+    }
+
+    public String usage() {
+        final String placeholder = "<" + label + ">";
+        return "Usage:\n"
+                + "• " + command + " add " + placeholder + " [--ttl 7d] [reason]\n"
+                + "• " + command + " deactivate " + placeholder + " [reason]\n"
+                + "• " + command + " reactivate " + placeholder + " [--ttl 7d] [reason]\n"
+                + "• " + command + " edit " + placeholder + " <new reason>\n"
+                + "• " + command + " list\n"
+                + "• " + command + " bulk <" + label + "1," + label + "2,...> [--ttl 7d] [reason]\n"
+                + "`--ttl` (`30m`, `12h`, `7d`, `2w`) deactivates the " + pluralLabel + " once it has passed.\n";
+    }
+}
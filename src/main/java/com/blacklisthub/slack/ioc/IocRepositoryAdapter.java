@@ -0,0 +1,70 @@
+package com.blacklisthub.slack.ioc;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.blacklisthub.entity.IndicatorEntity;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Uniform view over the per-type R2DBC repositories, so the command engine
+ * does not need to know each repository's finder names.
+ */
+public interface IocRepositoryAdapter<E extends IndicatorEntity> {
+
+    /** Finds an indicator by its normalized value (active or not). */
+    Mono<E> findByValue(String normalizedValue);
+
+    /** Streams the values of active indicators in feed order. */
+    Flux<String> findActiveValues();
+
+    /** Range scan of the indicators written after {@code afterSeq}, in change order. */
+    Flux<E> findChangedSince(long afterSeq, int limit);
+
+    Mono<E> save(E entity);
+
+    /** Builds a new, active, unsaved entity. */
+    E newEntity(String normalizedValue, String reason, Long createdBy);
+
+    @FunctionalInterface
+    interface EntityFactory<E> {
+        E create(String normalizedValue, String reason, Long createdBy);
+    }
+
+    static <E extends IndicatorEntity> IocRepositoryAdapter<E> of(
+            Function<String, Mono<E>> finder,
+            Supplier<Flux<String>> activeValues,
+            BiFunction<Long, Integer, Flux<E>> changedSince,
+            Function<E, Mono<E>> saver,
+            EntityFactory<E> factory) {
+        return new IocRepositoryAdapter<>() {
+            @Override
+            public Mono<E> findByValue(String normalizedValue) {
+                return finder.apply(normalizedValue);
+            }
+
+            @Override
+            public Flux<String> findActiveValues() {
+                return activeValues.get();
+            }
+
+            @Override
+            public Flux<E> findChangedSince(long afterSeq, int limit) {
+                return changedSince.apply(afterSeq, limit);
+            }
+
+            @Override
+            public Mono<E> save(E entity) {
+                return saver.apply(entity);
+            }
+
+            @Override
+            public E newEntity(String normalizedValue, String reason, Long createdBy) {
+                return factory.create(normalizedValue, reason, createdBy);
+            }
+        };
+    }
+}
@@ -0,0 +1,130 @@
+package com.blacklisthub.slack.service;
+
+import static com.blacklisthub.slack.util.CommandTextUtils.firstArg;
+import static com.blacklisthub.slack.util.CommandTextUtils.tailOrNull;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.blacklisthub.slack.util.CommandParser.Parsed;
+import com.blacklisthub.slack.util.SlackCommand;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Handles {@code /blacklist-admin}: runtime management of the channel
+ * whitelist. Only Slack users listed in {@code app.admin-users} may run it;
+ * with no admins configured every admin command is rejected (fail-closed).
+ */
+@Slf4j
+@Service
+@SuppressWarnings("null")
+public class AdminCommandService {
+
+    private final ChannelAccessService channelAccessService;
+    private final Set<String> adminUsers;
+
+    public AdminCommandService(ChannelAccessService channelAccessService,
+            @Value("#{'${app.admin-users:}'.empty ? T(java.util.Collections).emptyList() : '${app.admin-users}'.split(',')}") List<String> adminUsers) {
+        this.channelAccessService = channelAccessService;
+        this.adminUsers = adminUsers.stream()
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isAdmin(String slackUserId) {
+        return slackUserId != null && adminUsers.contains(slackUserId);
+    }
+
+    public Mono<String> execute(SlackCommand cmd) {
+        final Parsed p = cmd.parsed();
+        final String slackUserId = cmd.userId();
+        final String teamId = cmd.teamId();
+        final String channelId = cmd.channelId();
+        if (!isAdmin(slackUserId)) {
+            log.warn("Admin command rejected for non-admin user {} in channel {}", slackUserId, channelId);
+            return Mono.just(":no_entry_sign: You are not allowed to run admin commands.");
+        }
+
+        final String sub = p.sub() == null ? "" : p.sub();
+        switch (sub) {
+            case "allow" -> {
+                final String target = resolveChannel(firstArg(p), channelId);
+                final String name = tailOrNull(p);
+                if (target.isBlank())
+                    return Mono.just(":warning: Missing channel ID.");
+                log.info("ADMIN allow channel={} by user={}", target, slackUserId);
+                return channelAccessService.allowChannel(target, name, teamId)
+                        .thenReturn(":white_check_mark: Channel `" + target + "` allowed")
+                        .onErrorResume(e -> {
+                            log.error("Failed to allow channel {}: {}", target, e.getMessage(), e);
+                            return Mono.just(":x: Error while allowing `" + target + "`.");
+                        });
+            }
+            case "revoke" -> {
+                final String target = resolveChannel(firstArg(p), channelId);
+                if (target.isBlank())
+                    return Mono.just(":warning: Missing channel ID.");
+                log.info("ADMIN revoke channel={} by user={}", target, slackUserId);
+                return channelAccessService.revokeChannel(target)
+                        .map(revoked -> {
+                            if (!revoked)
+                                return ":warning: Channel not in the DB whitelist: `" + target + "`";
+                            String msg = ":white_check_mark: Channel `" + target + "` revoked";
+                            return channelAccessService.isStaticallyAllowed(target)
+                                    ? msg + " (still allowed by APP_ALLOWED_CHANNELS)"
+                                    : msg;
+                        })
+                        .onErrorResume(e -> {
+                            log.error("Failed to revoke channel {}: {}", target, e.getMessage(), e);
+                            return Mono.just(":x: Error while revoking `" + target + "`.");
+                        });
+            }
+            case "channels" -> {
+                return channelAccessService.listActiveChannels()
+                        .map(c -> c.getChannelName() == null
+                                ? c.getChannelId()
+                                : c.getChannelId() + " (" + c.getChannelName() + ")")
+                        .collectList()
+                        .map(list -> list.isEmpty()
+                                ? "_(no channels in the DB whitelist)_"
+                                : "```\n" + String.join("\n", list) + "\n```")
+                        .onErrorResume(e -> {
+                            log.error("Error listing whitelisted channels: {}", e.getMessage(), e);
+                            return Mono.just(":x: Error retrieving list.");
+                        });
+            }
+            case "refresh" -> {
+                return channelAccessService.refresh()
+                        .map(count -> ":white_check_mark: Channel whitelist reloaded (" + count + " DB channels)")
+                        .onErrorResume(e -> {
+                            log.error("Channel whitelist refresh failed: {}", e.getMessage(), e);
+                            return Mono.just(":x: Error reloading the channel whitelist.");
+                        });
+            }
+            case "" -> {
+                return Mono.just("""
+                        Usage:
+                        • /blacklist-admin allow <CHANNEL_ID|here> [name]
+                        • /blacklist-admin revoke <CHANNEL_ID|here>
+                        • /blacklist-admin channels
+                        • /blacklist-admin refresh
+                        """);
+            }
+            default -> {
+                return Mono.just(":warning: Unknown subcommand: `" + sub + "`\n" +
+                        "See `/blacklist-admin` usage.");
+            }
+        }
+    }
+
+    private static String resolveChannel(String arg, String currentChannelId) {
+        return "here".equalsIgnoreCase(arg) ? currentChannelId : arg;
+    }
+}
@@ -0,0 +1,97 @@
+package com.blacklisthub.slack.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.BulkJobStatus;
+import com.blacklisthub.repository.BulkJobRepository;
+import com.blacklisthub.slack.config.BulkJobProps;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.util.SlackCommand;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Accepts bulk commands into the persistent {@code bulk_jobs} queue and renders
+ * the final report of a finished job. The processing itself is done by
+ * {@code BulkJobWorker}, so the Slack command only waits for one insert.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class BulkJobService {
+
+    /** Published after a job is queued, so an idle worker can pick it up right away. */
+    public record Submitted(Long jobId) {
+    }
+
+    private final BulkJobRepository repository;
+    private final BulkJobProps props;
+    private final ApplicationEventPublisher events;
+
+    /**
+     * Queues a bulk add. The indicators it adds or reactivates expire at
+     * {@code expiresAt}, or never if null.
+     */
+    public Mono<String> submit(IocDescriptor<?> d, SlackCommand cmd, List<String> values, String reason,
+            LocalDateTime expiresAt) {
+        if (values == null || values.isEmpty()) {
+            return Mono.just(":warning: No " + d.pluralLabel() + " provided for bulk operation.");
+        }
+        if (values.size() > props.maxItems()) {
+            return Mono.just(":warning: Bulk limit exceeded. Max " + props.maxItems() + " " + d.pluralLabel()
+                    + " allowed per bulk.");
+        }
+
+        return repository.save(BulkJobEntity.builder()
+                .iocType(d.type())
+                .command(d.command())
+                .slackUserId(cmd.userId())
+                .teamId(cmd.teamId())
+                .channelId(cmd.channelId())
+                .reason(reason)
+                .expiresAt(expiresAt)
+                .items(String.join("\n", values))
+                .total(values.size())
+                .processed(0)
+                .added(0)
+                .reactivated(0)
+                .alreadyActive(0)
+                .invalid(0)
+                .errors(0)
+                .status(BulkJobStatus.QUEUED)
+                .createdAt(LocalDateTime.now())
+                .build())
+                .doOnNext(job -> events.publishEvent(new Submitted(job.getId())))
+                .map(job -> ":inbox_tray: Bulk job `#" + job.getId() + "` queued: " + values.size() + " "
+                        + d.pluralLabel() + ". Progress and the result will be posted in this channel.")
+                .onErrorResume(e -> {
+                    log.error("Failed to queue bulk ({}) for user {}: {}", d.auditKey(), cmd.userId(),
+                            e.getMessage(), e);
+                    return Mono.just(":x: Bulk operation failed.");
+                });
+    }
+
+    /** The result message of a finished job: overview counters plus per-item details. */
+    public static String report(BulkJobEntity job) {
+        final String details = job.getDetails() == null ? "" : job.getDetails();
+        return new StringBuilder(256 + details.length())
+                .append("*Bulk result overview* (job `#").append(job.getId()).append("`)\n")
+                .append("• Total requested: ").append(job.getTotal()).append('\n')
+                .append("• Added: ").append(job.getAdded()).append('\n')
+                .append("• Reactivated: ").append(job.getReactivated()).append('\n')
+                .append("• Already active: ").append(job.getAlreadyActive()).append('\n')
+                .append("• Invalid: ").append(job.getInvalid()).append('\n')
+                .append("• Errors: ").append(job.getErrors()).append("\n\n")
+                .append("*Details:*\n")
+                .append(details)
+                .toString();
+    }
+}
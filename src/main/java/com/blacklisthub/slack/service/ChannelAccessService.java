@@ -1,40 +1,224 @@
 package com.blacklisthub.slack.service;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.SlackChannelWhitelistEntity;
 import com.blacklisthub.repository.SlackChannelWhitelistRepository;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.DatabaseReadyEvent;
+import com.blacklisthub.service.Snapshot;
+import com.blacklisthub.service.SnapshotStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+/**
+ * Authorizes Slack channels against the static list ({@code app.allowed-channels})
+ * and the {@code slack_channel_whitelist} table.
+ *
+ * <p>
+ * Both sources are held in memory: the static list as an immutable set and the
+ * active DB rows as a concurrent set loaded at startup and refreshed every
+ * {@code app.channel-whitelist.refresh-interval}. Each refresh that changes the
+ * set persists it with {@link SnapshotStore}, and the constructor starts from
+ * that snapshot, so whitelisted channels keep working after a restart while
+ * the database is unreachable. Admin changes made through
+ * this service update the in-memory set immediately, and other replicas reload
+ * it when the change reaches them through the change log. A channel that is in
+ * neither set is looked up in the DB once and the denial is cached for
+ * {@code app.channel-whitelist.negative-ttl}, so rows inserted out of band are
+ * still picked up without letting unauthorized channels hit MySQL on every
+ * command.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
+@SuppressWarnings("null")
 public class ChannelAccessService {
 
+    static final String SNAPSHOT = "channel-whitelist.txt";
+
     private final SlackChannelWhitelistRepository repo;
+    private final ChangeLogService changeLog;
+    private final SnapshotStore snapshots;
+    private final Set<String> staticWhitelist;
+    private final Cache<String, Boolean> deniedChannels;
+
+    private volatile Set<String> dbWhitelist = ConcurrentHashMap.newKeySet();
 
-    @Value("#{'${app.allowed-channels:}'.empty ? T(java.util.Collections).emptyList() : '${app.allowed-channels}'.split(',')}")
-    private List<String> staticWhitelist;
+    public ChannelAccessService(SlackChannelWhitelistRepository repo, ChangeLogService changeLog,
+            SnapshotStore snapshots,
+            @Value("#{'${app.allowed-channels:}'.empty ? T(java.util.Collections).emptyList() : '${app.allowed-channels}'.split(',')}") List<String> staticWhitelist,
+            @Value("${app.channel-whitelist.negative-ttl:PT1M}") Duration negativeTtl) {
+        this.repo = repo;
+        this.changeLog = changeLog;
+        this.snapshots = snapshots;
+        this.staticWhitelist = staticWhitelist.stream()
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.deniedChannels = Caffeine.newBuilder()
+                .expireAfterWrite(negativeTtl)
+                .maximumSize(10_000)
+                .build();
+        loadSnapshot();
+    }
+
+    private void loadSnapshot() {
+        try {
+            Snapshot snapshot = snapshots.latest(SNAPSHOT).block();
+            if (snapshot == null)
+                return;
+            Set<String> loaded = ConcurrentHashMap.newKeySet();
+            snapshot.body().getContentAsString(StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isBlank())
+                    .forEach(loaded::add);
+            dbWhitelist = loaded;
+            log.info("Channel whitelist loaded from the {} snapshot: {} channels", snapshot.renderedAt(),
+                    loaded.size());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not load the channel whitelist snapshot: {}", e.getMessage());
+        }
+    }
 
     /**
      * Checks whether a given Slack channel is authorized to execute commands.
-     * Combines DB whitelist and optional static list from application.yml.
+     * Served from memory; only unknown channels without a cached denial reach
+     * the DB.
      */
     public Mono<Boolean> isChannelAllowed(String channelId) {
-        log.debug("Checking channel access for {}", channelId);
+        if (channelId == null)
+            return Mono.just(false);
+        if (staticWhitelist.contains(channelId) || dbWhitelist.contains(channelId))
+            return Mono.just(true);
+        if (deniedChannels.getIfPresent(channelId) != null) {
+            log.debug("Channel {} denied (cached)", channelId);
+            return Mono.just(false);
+        }
 
         return repo.existsByChannelIdAndActiveTrue(channelId)
                 .defaultIfEmpty(false)
-                .map(dbAllowed -> {
-                    boolean allowed = dbAllowed || staticWhitelist.contains(channelId);
-                    log.info("Channel {} -> dbAllowed={} staticAllowed={} final={}",
-                            channelId, dbAllowed, staticWhitelist.contains(channelId), allowed);
-                    return allowed;
+                .doOnNext(allowed -> {
+                    if (allowed) {
+                        dbWhitelist.add(channelId);
+                    } else {
+                        deniedChannels.put(channelId, Boolean.TRUE);
+                    }
+                    log.debug("Channel {} -> dbAllowed={} (cache miss)", channelId, allowed);
                 });
     }
+
+    /**
+     * Reloads the active DB whitelist. Runs at startup and then periodically; a
+     * failed refresh keeps the previous set so a DB blip does not lock everyone
+     * out.
+     */
+    @Scheduled(fixedDelayString = "${app.channel-whitelist.refresh-interval:PT5M}")
+    public void scheduledRefresh() {
+        refresh().subscribe(
+                count -> log.debug("Channel whitelist refreshed: {} active DB channels", count),
+                e -> log.warn("Channel whitelist refresh failed, keeping previous set: {}", e.getMessage()));
+    }
+
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        if (event.touches(ChangeEntity.CHANNEL))
+            scheduledRefresh();
+    }
+
+    @EventListener(DatabaseReadyEvent.class)
+    public void onDatabaseReady() {
+        scheduledRefresh();
+    }
+
+    public Mono<Integer> refresh() {
+        return repo.findByActiveTrue()
+                .map(SlackChannelWhitelistEntity::getChannelId)
+                .collect(Collectors.toCollection(ConcurrentHashMap::<String>newKeySet))
+                .flatMap(loaded -> {
+                    final boolean changed = !loaded.equals(dbWhitelist);
+                    dbWhitelist = loaded;
+                    deniedChannels.invalidateAll();
+                    return (changed ? saveSnapshot(loaded) : Mono.<Void>empty()).thenReturn(loaded.size());
+                });
+    }
+
+    private Mono<Void> saveSnapshot(Set<String> channels) {
+        final String lines = channels.stream().sorted().map(id -> id + "\n").collect(Collectors.joining());
+        return snapshots.write(SNAPSHOT, lines.getBytes(StandardCharsets.UTF_8))
+                .then()
+                .onErrorResume(e -> {
+                    log.warn("Could not save the channel whitelist snapshot: {}", e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    /** Adds (or re-activates) a channel in the DB whitelist and the cache. */
+    public Mono<SlackChannelWhitelistEntity> allowChannel(String channelId, String channelName, String teamId) {
+        return repo.findByChannelId(channelId)
+                .flatMap(found -> {
+                    found.setActive(true);
+                    if (channelName != null)
+                        found.setChannelName(channelName);
+                    found.setUpdatedAt(LocalDateTime.now());
+                    return save(found);
+                })
+                .switchIfEmpty(Mono.defer(() -> save(SlackChannelWhitelistEntity.builder()
+                        .channelId(channelId)
+                        .channelName(channelName)
+                        .teamId(teamId)
+                        .active(true)
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build())))
+                .doOnNext(saved -> {
+                    dbWhitelist.add(channelId);
+                    deniedChannels.invalidate(channelId);
+                });
+    }
+
+    /**
+     * Deactivates a channel in the DB whitelist and drops it from the cache.
+     * Emits {@code false} if the channel was not whitelisted in the DB.
+     */
+    public Mono<Boolean> revokeChannel(String channelId) {
+        return repo.findByChannelId(channelId)
+                .filter(found -> Boolean.TRUE.equals(found.getActive()))
+                .flatMap(found -> {
+                    found.setActive(false);
+                    found.setUpdatedAt(LocalDateTime.now());
+                    return save(found);
+                })
+                .map(saved -> true)
+                .defaultIfEmpty(false)
+                .doOnNext(revoked -> dbWhitelist.remove(channelId));
+    }
+
+    private Mono<SlackChannelWhitelistEntity> save(SlackChannelWhitelistEntity entity) {
+        return changeLog.write(ChangeEntity.CHANNEL, repo.save(entity), SlackChannelWhitelistEntity::getChannelId);
+    }
+
+    public Flux<SlackChannelWhitelistEntity> listActiveChannels() {
+        return repo.findByActiveTrue();
+    }
+
+    public boolean isStaticallyAllowed(String channelId) {
+        return staticWhitelist.contains(channelId);
+    }
 }
@@ -0,0 +1,205 @@
+package com.blacklisthub.slack.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.DbRoute;
+import com.blacklisthub.repository.ExpiryQueries;
+import com.blacklisthub.repository.IndicatorQueries;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.DatabaseReadyEvent;
+import com.blacklisthub.slack.util.AuditHelper;
+import com.blacklisthub.slack.util.TimingWheel;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Deactivates indicators once their {@code expires_at} has passed.
+ *
+ * <p>
+ * The expirations due within {@code app.expiry.horizon} are read with a range
+ * scan of the {@code (active, expires_at)} index and kept in a
+ * {@link TimingWheel} of one-second ticks; the tables are never scanned. The
+ * window is re-read every {@code app.expiry.reload-interval}, which moves it
+ * forward, and for a type whenever its indicators change (here or on another
+ * replica), which picks up new, extended and removed expiries. Every tick the
+ * due indicators are deactivated in transactions of up to
+ * {@code app.expiry.batch-size}, each audited as a {@code DEACTIVATE} by the
+ * {@value SlackUserService#SYSTEM_USER_ID} user and recorded in the change
+ * log, so the feeds drop them on every replica.
+ *
+ * <p>
+ * Each replica runs the engine; the deactivation is a conditional update, so
+ * an indicator is expired (and audited) once. A batch that fails is rolled
+ * back and its indicators are expired after the next reload. Nothing is
+ * loaded before {@link DatabaseReadyEvent}, when {@code expires_at} may not
+ * exist yet.
+ */
+@Slf4j
+@Service
+@SuppressWarnings("null")
+public class IndicatorExpiryService {
+
+    private static final int WHEEL_SLOTS = 60;
+    private static final int WHEEL_LEVELS = 3;
+    private static final String PREV_JSON = "{\"active\":1}";
+    private static final String NEXT_JSON = "{\"active\":0,\"expired\":true}";
+
+    record Key(IocType type, long id) {
+    }
+
+    private final ExpiryQueries queries;
+    private final IndicatorQueries indicators;
+    private final ChangeLogService changeLog;
+    private final AuditHelper auditHelper;
+    private final SlackUserService slackUserService;
+    private final TransactionalOperator transactionalOperator;
+    private final BlacklistMetrics metrics;
+    private final Duration horizon;
+    private final int batchSize;
+    private final TimingWheel<Key> wheel;
+    private final AtomicBoolean expiring = new AtomicBoolean();
+    private volatile boolean databaseReady;
+
+    public IndicatorExpiryService(ExpiryQueries queries, IndicatorQueries indicators, ChangeLogService changeLog,
+            AuditHelper auditHelper, SlackUserService slackUserService, TransactionalOperator transactionalOperator,
+            BlacklistMetrics metrics,
+            @Value("${app.expiry.horizon:PT6H}") Duration horizon,
+            @Value("${app.expiry.batch-size:200}") int batchSize) {
+        this.queries = queries;
+        this.indicators = indicators;
+        this.changeLog = changeLog;
+        this.auditHelper = auditHelper;
+        this.slackUserService = slackUserService;
+        this.transactionalOperator = transactionalOperator;
+        this.metrics = metrics;
+        this.wheel = new TimingWheel<>(TimeUnit.SECONDS.toMillis(1), WHEEL_SLOTS, WHEEL_LEVELS,
+                System.currentTimeMillis());
+        this.horizon = horizon.compareTo(Duration.ofMillis(wheel.horizonMillis())) > 0
+                ? Duration.ofMillis(wheel.horizonMillis())
+                : horizon;
+        this.batchSize = Math.max(1, batchSize);
+        metrics.expiryScheduledGauge(wheel::size);
+    }
+
+    @EventListener(DatabaseReadyEvent.class)
+    public void onDatabaseReady() {
+        databaseReady = true;
+        scheduledReload();
+    }
+
+    @Scheduled(fixedDelayString = "${app.expiry.reload-interval:PT10M}",
+            initialDelayString = "${app.expiry.reload-interval:PT10M}")
+    public void scheduledReload() {
+        if (!databaseReady)
+            return;
+        Flux.fromArray(IocType.values())
+                .concatMap(this::load)
+                .reduce(0, Integer::sum)
+                .subscribe(
+                        count -> log.debug("Expiry wheel reloaded: {} expirations within {}", count, horizon),
+                        e -> log.warn("Expiry reload failed: {}", e.getMessage()));
+    }
+
+    /** Re-reads the window of the types whose indicators changed. */
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        for (IocType type : IocType.values()) {
+            if (event.touches(ChangeEntity.of(type)))
+                load(type).subscribe(
+                        count -> log.debug("Expiry wheel reloaded for {}: {} expirations", type, count),
+                        e -> log.warn("Expiry reload of {} failed: {}", type, e.getMessage()));
+        }
+    }
+
+    /**
+     * Schedules the active indicators of {@code type} expiring within the
+     * horizon and drops the scheduled ones that no longer are. Emits how many
+     * were read.
+     */
+    Mono<Integer> load(IocType type) {
+        final LocalDateTime until = LocalDateTime.now().plus(horizon);
+        return queries.expiring(type, until)
+                .map(expiring -> {
+                    final Key key = new Key(type, expiring.id());
+                    wheel.schedule(key, epochMillis(expiring.expiresAt()));
+                    return key;
+                })
+                .collect(HashSet<Key>::new, Set::add)
+                .doOnNext(loaded -> wheel.cancelIf(key -> key.type() == type && !loaded.contains(key)))
+                .map(Set::size)
+                .contextWrite(DbRoute::bulk);
+    }
+
+    @Scheduled(fixedDelayString = "${app.expiry.tick:PT1S}")
+    public void tick() {
+        if (!expiring.compareAndSet(false, true))
+            return;
+        final List<Key> due = wheel.advance(System.currentTimeMillis());
+        if (due.isEmpty()) {
+            expiring.set(false);
+            return;
+        }
+        expire(due)
+                .doFinally(signal -> expiring.set(false))
+                .subscribe(
+                        count -> log.info("Expired {} of {} due indicators", count, due.size()),
+                        e -> log.warn("Expiring {} indicators failed, retrying after the next reload: {}",
+                                due.size(), e.getMessage()));
+    }
+
+    /** Deactivates the due indicators still active and expired; emits how many were. */
+    Mono<Long> expire(List<Key> due) {
+        final LocalDateTime now = LocalDateTime.now();
+        final Map<IocType, List<Long>> byType = new EnumMap<>(IocType.class);
+        for (Key key : due)
+            byType.computeIfAbsent(key.type(), t -> new ArrayList<>()).add(key.id());
+        return slackUserService.systemUser()
+                .flatMap(system -> Flux.fromIterable(byType.entrySet())
+                        .concatMap(group -> Flux.fromIterable(group.getValue())
+                                .buffer(batchSize)
+                                .concatMap(ids -> expireBatch(group.getKey(), ids, now, system))
+                                .doOnNext(count -> metrics.expired(group.getKey(), count)))
+                        .reduce(0L, Long::sum))
+                .contextWrite(DbRoute::bulk);
+    }
+
+    private Mono<Long> expireBatch(IocType type, List<Long> ids, LocalDateTime now, SlackUserEntity system) {
+        return Flux.fromIterable(ids)
+                .concatMap(id -> changeLog.write(ChangeEntity.of(type),
+                        queries.deactivateIfExpired(type, id, now, system.getId())
+                                .filter(rows -> rows == 1)
+                                .flatMap(rows -> auditHelper.log(type, id, "DEACTIVATE", system.getId(), PREV_JSON,
+                                        NEXT_JSON).thenReturn(id)),
+                        String::valueOf,
+                        expired -> indicators.stampChangeSeq(type, expired).thenReturn(expired)))
+                .count()
+                .as(transactionalOperator::transactional);
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,407 @@
+package com.blacklisthub.slack.service;
+
+import static com.blacklisthub.slack.util.CommandTextUtils.firstArg;
+import static com.blacklisthub.slack.util.CommandTextUtils.tailOrNull;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.stereotype.Service;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IndicatorEntity;
+import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.DbRoute;
+import com.blacklisthub.repository.IndicatorQueries;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.slack.ioc.BulkChunk;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.util.AuditHelper;
+import com.blacklisthub.slack.util.CommandParser.Parsed;
+import com.blacklisthub.slack.util.IocUtils;
+import com.blacklisthub.slack.util.SlackCommand;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Generic Slack command engine for every IoC type ({@code /ip}, {@code /hash},
+ * {@code /domain}, {@code /url}). Type-specific behavior (normalization,
+ * validation, persistence, labels) comes from the {@link IocDescriptor}.
+ *
+ * <p>
+ * {@code add}, {@code reactivate} and {@code bulk} take a {@code --ttl}
+ * option: the indicators they activate get an {@code expires_at} and are
+ * deactivated by {@link IndicatorExpiryService} once it passes. {@code add}
+ * on an indicator that is already active sets its expiry; activating without
+ * {@code --ttl} makes it permanent.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class IocCommandService {
+
+    private static final int BULK_CONCURRENCY = 10;
+    private static final DateTimeFormatter EXPIRY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final AuditHelper auditHelper;
+    private final SlackUserService slackUserService;
+    private final BlacklistMetrics metrics;
+    private final BulkJobService bulkJobService;
+    private final ChangeLogService changeLog;
+    private final IndicatorQueries queries;
+
+    public <E extends IndicatorEntity> Mono<String> execute(IocDescriptor<E> d, SlackCommand cmd) {
+        return metrics.timeCommand(d.type(), cmd.sub(), Mono.defer(() -> dispatch(d, cmd)));
+    }
+
+    private <E extends IndicatorEntity> Mono<String> dispatch(IocDescriptor<E> d, SlackCommand cmd) {
+        final Parsed p = cmd.parsed();
+        final String slackUserId = cmd.userId();
+        final String teamId = cmd.teamId();
+        final String channelId = cmd.channelId();
+        final String sub = p.sub() == null ? "" : p.sub();
+        final LocalDateTime expiresAt;
+        if (p.ttl() == null) {
+            expiresAt = null;
+        } else if (!sub.equals("add") && !sub.equals("reactivate") && !sub.equals("bulk")) {
+            return Mono.just(":warning: `--ttl` only applies to `add`, `reactivate` and `bulk`.");
+        } else {
+            final Duration ttl = IocUtils.parseTtl(p.ttl());
+            if (ttl == null)
+                return Mono.just(":warning: Invalid TTL: `" + p.ttl() + "`. Use e.g. `30m`, `12h`, `7d` or `2w`.");
+            expiresAt = LocalDateTime.now().plus(ttl).truncatedTo(ChronoUnit.SECONDS);
+        }
+        switch (sub) {
+            case "add" -> {
+                final String value = firstArg(p);
+                log.info("CMD add {}={} by user={} in channel={}", d.auditKey(), value, slackUserId, channelId);
+                return add(d, slackUserId, teamId, value, tailOrNull(p), expiresAt);
+            }
+            case "deactivate" -> {
+                final String value = firstArg(p);
+                log.info("CMD deactivate {}={} by user={} in channel={}", d.auditKey(), value, slackUserId,
+                        channelId);
+                return deactivate(d, slackUserId, teamId, value, tailOrNull(p));
+            }
+            case "reactivate" -> {
+                final String value = firstArg(p);
+                log.info("CMD reactivate {}={} by user={} in channel={}", d.auditKey(), value, slackUserId,
+                        channelId);
+                return reactivate(d, slackUserId, teamId, value, tailOrNull(p), expiresAt);
+            }
+            case "edit" -> {
+                final String value = firstArg(p);
+                log.info("CMD edit {}={} by user={} in channel={}", d.auditKey(), value, slackUserId, channelId);
+                return edit(d, slackUserId, teamId, value, tailOrNull(p));
+            }
+            case "list" -> {
+                log.info("CMD list {} by user={} in channel={}", d.auditKey(), slackUserId, channelId);
+                return list(d, d.listLimit());
+            }
+            case "bulk" -> {
+                final List<String> values = p.values();
+                log.info("CMD bulk add {} {} by user={} in channel={}", values.size(), d.pluralLabel(), slackUserId,
+                        channelId);
+                return bulkJobService.submit(d, cmd, values, tailOrNull(p), expiresAt);
+            }
+            case "" -> {
+                return Mono.just(d.usage());
+            }
+            default -> {
+                return Mono.just(":warning: Unknown subcommand: `" + sub + "`\n" +
+                        "Try `" + d.command() + " list` or see `" + d.command() + "` usage.");
+            }
+        }
+    }
+
+    public <E extends IndicatorEntity> Mono<String> add(IocDescriptor<E> d, String slackUserId, String teamId,
+            String value, String reason) {
+        return add(d, slackUserId, teamId, value, reason, null);
+    }
+
+    /** Adds (or re-activates) an indicator that expires at {@code expiresAt}, or never if null. */
+    public <E extends IndicatorEntity> Mono<String> add(IocDescriptor<E> d, String slackUserId, String teamId,
+            String value, String reason, LocalDateTime expiresAt) {
+        final String norm = d.normalize(value);
+        if (!d.isValid(norm))
+            return Mono.just(":warning: Invalid " + d.label() + ": `" + value + "`");
+
+        return slackUserService.ensureAndEnrichSlackUser(slackUserId, teamId)
+                .flatMap(user -> d.repository().findByValue(norm)
+                        .flatMap(found -> {
+                            if (Boolean.TRUE.equals(found.getActive())) {
+                                if (expiresAt != null)
+                                    return setExpiry(d, found, expiresAt, user)
+                                            .thenReturn(":white_check_mark: " + d.label() + " already active: `"
+                                                    + value + "`" + expiryNote(expiresAt));
+                                return Mono.just(":information_source: " + d.label() + " already active: `"
+                                        + value + "`");
+                            }
+                            return reactivateFromAdd(d, found, reason, user, expiresAt)
+                                    .thenReturn(":white_check_mark: Reactivated `" + value + "`"
+                                            + expiryNote(expiresAt));
+                        })
+                        .switchIfEmpty(Mono.defer(() -> create(d, norm, reason, user, expiresAt)
+                                .thenReturn(":white_check_mark: Added `" + value + "`" + expiryNote(expiresAt)))))
+                .onErrorResume(e -> {
+                    log.error("Failed to add {} {} by {}: {}", d.label(), value, slackUserId, e.getMessage(), e);
+                    return Mono.just(":x: Error while adding `" + value + "`.");
+                });
+    }
+
+    public <E extends IndicatorEntity> Mono<String> deactivate(IocDescriptor<E> d, String slackUserId,
+            String teamId, String value, String reason) {
+        final String norm = d.normalize(value);
+        if (!d.isValid(norm))
+            return Mono.just(":warning: Invalid " + d.label() + ": `" + value + "`");
+
+        return slackUserService.ensureAndEnrichSlackUser(slackUserId, teamId)
+                .flatMap(user -> d.repository().findByValue(norm)
+                        .flatMap(found -> {
+                            if (!Boolean.TRUE.equals(found.getActive())) {
+                                return Mono.just(":information_source: " + d.label() + " already inactive: `"
+                                        + value + "`");
+                            }
+                            found.setActive(false);
+                            found.setUpdatedAt(LocalDateTime.now());
+                            found.setDeactivatedBy(user.getId());
+                            found.setDeactivatedAt(LocalDateTime.now());
+                            if (reason != null && !reason.isBlank())
+                                found.setReason(reason);
+
+                            String prev = "{\"active\":1}";
+                            String next = "{" + String.join(",",
+                                    IocUtils.jsonKV("active", "0", false),
+                                    IocUtils.jsonKV("reason", found.getReason(), true)) + "}";
+
+                            return persist(d, found, "DEACTIVATE", user, prev, next)
+                                    .thenReturn(":white_check_mark: Deactivated `" + value + "`");
+                        })
+                        .switchIfEmpty(Mono.fromSupplier(() -> notFound(d, value))))
+                .onErrorResume(e -> {
+                    log.error("Failed to deactivate {} {} by {}: {}", d.label(), value, slackUserId, e.getMessage(),
+                            e);
+                    return Mono.just(":x: Error while deactivating `" + value + "`.");
+                });
+    }
+
+    public <E extends IndicatorEntity> Mono<String> reactivate(IocDescriptor<E> d, String slackUserId,
+            String teamId, String value, String reason) {
+        return reactivate(d, slackUserId, teamId, value, reason, null);
+    }
+
+    /** Re-activates an indicator that then expires at {@code expiresAt}, or never if null. */
+    public <E extends IndicatorEntity> Mono<String> reactivate(IocDescriptor<E> d, String slackUserId,
+            String teamId, String value, String reason, LocalDateTime expiresAt) {
+        final String norm = d.normalize(value);
+        if (!d.isValid(norm))
+            return Mono.just(":warning: Invalid " + d.label() + ": `" + value + "`");
+
+        return slackUserService.ensureAndEnrichSlackUser(slackUserId, teamId)
+                .flatMap(user -> d.repository().findByValue(norm)
+                        .flatMap(found -> {
+                            if (Boolean.TRUE.equals(found.getActive())) {
+                                return Mono.just(":information_source: " + d.label() + " already active: `"
+                                        + value + "`");
+                            }
+                            found.setActive(true);
+                            found.setUpdatedAt(LocalDateTime.now());
+                            found.setDeactivatedBy(null);
+                            found.setDeactivatedAt(null);
+                            found.setExpiresAt(expiresAt);
+                            if (reason != null && !reason.isBlank())
+                                found.setReason(reason);
+
+                            String prev = "{\"active\":0}";
+                            String next = "{" + String.join(",",
+                                    IocUtils.jsonKV("active", "1", false),
+                                    IocUtils.jsonKV("reason", found.getReason(), true),
+                                    IocUtils.jsonKV("expires_at", expiryJson(expiresAt), true)) + "}";
+
+                            return persist(d, found, "REACTIVATE", user, prev, next)
+                                    .thenReturn(":white_check_mark: Reactivated `" + value + "`"
+                                            + expiryNote(expiresAt));
+                        })
+                        .switchIfEmpty(Mono.fromSupplier(() -> notFound(d, value))))
+                .onErrorResume(e -> {
+                    log.error("Failed to reactivate {} {} by {}: {}", d.label(), value, slackUserId, e.getMessage(),
+                            e);
+                    return Mono.just(":x: Error while reactivating `" + value + "`.");
+                });
+    }
+
+    public <E extends IndicatorEntity> Mono<String> edit(IocDescriptor<E> d, String slackUserId, String teamId,
+            String value, String newReason) {
+        final String norm = d.normalize(value);
+        if (!d.isValid(norm))
+            return Mono.just(":warning: Invalid " + d.label() + ": `" + value + "`");
+
+        return slackUserService.ensureAndEnrichSlackUser(slackUserId, teamId)
+                .flatMap(user -> d.repository().findByValue(norm)
+                        .flatMap(found -> {
+                            String prev = "{" + IocUtils.jsonKV("reason", found.getReason(), true) + "}";
+                            found.setReason(newReason);
+                            found.setUpdatedAt(LocalDateTime.now());
+                            String next = "{" + IocUtils.jsonKV("reason", newReason, true) + "}";
+                            return persist(d, found, "UPDATE", user, prev, next)
+                                    .thenReturn(":white_check_mark: Updated `" + value + "` reason");
+                        })
+                        .switchIfEmpty(Mono.fromSupplier(() -> notFound(d, value))))
+                .onErrorResume(e -> {
+                    log.error("Failed to edit {} {} by {}: {}", d.label(), value, slackUserId, e.getMessage(), e);
+                    return Mono.just(":x: Error while editing `" + value + "`.");
+                });
+    }
+
+    public <E extends IndicatorEntity> Mono<String> list(IocDescriptor<E> d, int limit) {
+        return d.repository().findActiveValues()
+                .take(limit > 0 ? limit : Long.MAX_VALUE)
+                .contextWrite(DbRoute::readOnly)
+                .collect(() -> new StringBuilder(limit > 0 ? 8 + limit * 48 : 4096).append("```\n"),
+                        (sb, value) -> sb.append(value).append('\n'))
+                .map(sb -> sb.length() == 4
+                        ? "_(no " + d.pluralLabel() + " found)_"
+                        : sb.append("```").toString())
+                .onErrorResume(e -> {
+                    log.error("Error listing {}: {}", d.pluralLabel(), e.getMessage(), e);
+                    return Mono.just(":x: Error retrieving list.");
+                });
+    }
+
+    /**
+     * Processes one chunk of a bulk job: adds (or re-activates) each value with
+     * bounded concurrency. {@code offset} is the chunk's position in the job,
+     * so {@code progress} reports job-wide counts. Per-item failures are counted,
+     * never propagated. Added and re-activated indicators expire at
+     * {@code expiresAt} (never if null); already active ones are left as they are.
+     */
+    public <E extends IndicatorEntity> Mono<BulkChunk> bulkChunk(IocDescriptor<E> d, SlackUserEntity user,
+            List<String> values, String reason, LocalDateTime expiresAt, BulkProgressListener progress, int offset,
+            int total) {
+        AtomicInteger added = new AtomicInteger(0);
+        AtomicInteger reactivated = new AtomicInteger(0);
+        AtomicInteger alreadyActive = new AtomicInteger(0);
+        AtomicInteger invalid = new AtomicInteger(0);
+        AtomicInteger errors = new AtomicInteger(0);
+        AtomicInteger done = new AtomicInteger(offset);
+
+        return Flux.fromIterable(values)
+                .flatMap(value -> {
+                    final String norm = d.normalize(value);
+                    if (!d.isValid(norm)) {
+                        invalid.incrementAndGet();
+                        metrics.bulkItem(d.type(), "invalid");
+                        return Mono.just(":warning: Invalid `" + value + "`");
+                    }
+
+                    return d.repository().findByValue(norm)
+                            .flatMap(found -> {
+                                if (Boolean.TRUE.equals(found.getActive())) {
+                                    alreadyActive.incrementAndGet();
+                                    metrics.bulkItem(d.type(), "already_active");
+                                    return Mono.just(":information_source: Already active `" + value + "`");
+                                }
+                                return reactivateFromAdd(d, found, reason, user, expiresAt)
+                                        .then(Mono.fromCallable(() -> {
+                                            reactivated.incrementAndGet();
+                                            metrics.bulkItem(d.type(), "reactivated");
+                                            return ":white_check_mark: Reactivated `" + value + "`";
+                                        }));
+                            })
+                            .switchIfEmpty(Mono.defer(() -> create(d, norm, reason, user, expiresAt)
+                                    .then(Mono.fromCallable(() -> {
+                                        added.incrementAndGet();
+                                        metrics.bulkItem(d.type(), "added");
+                                        return ":white_check_mark: Added `" + value + "`";
+                                    }))))
+                            .onErrorResume(e -> {
+                                errors.incrementAndGet();
+                                metrics.bulkItem(d.type(), "error");
+                                log.error("Error handling {} {} in bulk: {}", d.label(), value, e.getMessage(), e);
+                                return Mono.just(":x: Error `" + value + "`.");
+                            });
+                }, BULK_CONCURRENCY)
+                .doOnNext(line -> progress.onProgress(done.incrementAndGet(), total))
+                .collect(() -> new StringBuilder(values.size() * 64),
+                        (sb, line) -> sb.append("• ").append(line).append('\n'))
+                .map(details -> new BulkChunk(added.get(), reactivated.get(), alreadyActive.get(), invalid.get(),
+                        errors.get(), details.toString()));
+    }
+
+    /**
+     * Re-activates an inactive indicator as part of {@code add}/{@code bulk}: the
+     * reason and expiry are replaced (even with null) and the deactivation
+     * stamp cleared.
+     */
+    private <E extends IndicatorEntity> Mono<Void> reactivateFromAdd(IocDescriptor<E> d, E found, String reason,
+            SlackUserEntity user, LocalDateTime expiresAt) {
+        found.setActive(true);
+        found.setReason(reason);
+        found.setUpdatedAt(LocalDateTime.now());
+        found.setDeactivatedBy(null);
+        found.setDeactivatedAt(null);
+        found.setExpiresAt(expiresAt);
+        return persist(d, found, "REACTIVATE", user, "{\"active\":0}", expiresAt == null
+                ? "{\"active\":1}"
+                : "{" + IocUtils.jsonKV("active", "1", false) + ","
+                        + IocUtils.jsonKV("expires_at", expiryJson(expiresAt), true) + "}");
+    }
+
+    /** Sets a new expiry on an active indicator ({@code add --ttl} on an existing one). */
+    private <E extends IndicatorEntity> Mono<Void> setExpiry(IocDescriptor<E> d, E found, LocalDateTime expiresAt,
+            SlackUserEntity user) {
+        final String prev = "{" + IocUtils.jsonKV("expires_at", expiryJson(found.getExpiresAt()), true) + "}";
+        found.setExpiresAt(expiresAt);
+        found.setUpdatedAt(LocalDateTime.now());
+        final String next = "{" + IocUtils.jsonKV("expires_at", expiryJson(expiresAt), true) + "}";
+        return persist(d, found, "UPDATE", user, prev, next);
+    }
+
+    private <E extends IndicatorEntity> Mono<Void> create(IocDescriptor<E> d, String norm, String reason,
+            SlackUserEntity user, LocalDateTime expiresAt) {
+        final E entity = d.repository().newEntity(norm, reason, user.getId());
+        entity.setExpiresAt(expiresAt);
+        return persist(d, entity, "CREATE", user, null, d.createdAuditJson(norm, reason, expiryJson(expiresAt)));
+    }
+
+    /**
+     * Saves an indicator, audits the action and records the change for the
+     * other replicas, all in one transaction. The indicator takes its change
+     * sequence last, just before the transaction commits.
+     */
+    private <E extends IndicatorEntity> Mono<Void> persist(IocDescriptor<E> d, E entity, String action,
+            SlackUserEntity user, String prevJson, String newJson) {
+        return changeLog.write(ChangeEntity.of(d.type()),
+                d.repository().save(entity)
+                        .flatMap(saved -> auditHelper.log(d.type(), saved.getId(), action, user.getId(), prevJson,
+                                newJson).thenReturn(saved)),
+                saved -> String.valueOf(saved.getId()),
+                saved -> queries.stampChangeSeq(d.type(), saved.getId()).map(seq -> {
+                    saved.setChangeSeq(seq);
+                    return saved;
+                }))
+                .then();
+    }
+
+    private static String expiryJson(LocalDateTime expiresAt) {
+        return expiresAt == null ? null : expiresAt.toString();
+    }
+
+    private static String expiryNote(LocalDateTime expiresAt) {
+        return expiresAt == null ? "" : " (expires " + EXPIRY_FORMAT.format(expiresAt) + ")";
+    }
+
+    private static String notFound(IocDescriptor<?> d, String value) {
+        return ":warning: " + d.label() + " not found: `" + value + "`";
+    }
+}
@@ -2,47 +2,154 @@ package com.blacklisthub.slack.service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import com.blacklisthub.entity.ChangeEntity;
 import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
 import com.blacklisthub.repository.SlackUserRepository;
-import com.github.benmanes.caffeine.cache.Cache;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.DatabaseReadyEvent;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.slack.api.methods.MethodsClient;
 import com.slack.api.methods.request.users.UsersInfoRequest;
+import com.slack.api.methods.request.users.UsersListRequest;
 import com.slack.api.methods.response.users.UsersInfoResponse;
+import com.slack.api.methods.response.users.UsersListResponse;
+import com.slack.api.model.User;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
+/**
+ * Resolves Slack users to {@code slack_users} rows for auditing.
+ *
+ * <p>
+ * Users are served from a refresh-ahead cache: once an entry is older than
+ * {@code app.slack-users.refresh-after} the stale value is still returned while
+ * the row is re-read from the DB in the background. The cache is warmed from
+ * the DB at startup, and display/real names are kept current by a periodic
+ * {@code users.list} sweep instead of one {@code users.info} call per user.
+ * The only per-user Slack call left is the one-off enrichment of a user seen
+ * for the first time, and it runs after the command has its row, so command
+ * latency never includes a Slack lookup. Name changes are recorded in the
+ * change log, and cached users changed by another replica are refreshed.
+ *
+ * <p>
+ * Changes the application makes on its own (indicator expiry) are attributed
+ * to the {@value #SYSTEM_USER_ID} user, which is not a Slack user and never
+ * looked up in Slack.
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 @SuppressWarnings("null")
 public class SlackUserService {
 
+    /** {@code slack_user_id} of the user the application's own changes are audited as. */
+    public static final String SYSTEM_USER_ID = "system";
+
+    private static final int USERS_LIST_PAGE_SIZE = 200;
+
     private final SlackUserRepository slackUserRepository;
     private final MethodsClient slackMethods;
+    private final BlacklistMetrics metrics;
+    private final ChangeLogService changeLog;
+    private final Scheduler slackIoScheduler;
+    private final AsyncLoadingCache<String, SlackUserEntity> userCache;
+    private final Mono<SlackUserEntity> systemUser;
+
+    public SlackUserService(SlackUserRepository slackUserRepository, MethodsClient slackMethods,
+            BlacklistMetrics metrics, ChangeLogService changeLog, Scheduler slackIoScheduler,
+            @Value("${app.slack-users.refresh-after:PT15M}") Duration refreshAfter,
+            @Value("${app.slack-users.expire-after:PT24H}") Duration expireAfter) {
+        this.slackUserRepository = slackUserRepository;
+        this.slackMethods = slackMethods;
+        this.metrics = metrics;
+        this.changeLog = changeLog;
+        this.slackIoScheduler = slackIoScheduler;
+        this.userCache = Caffeine.newBuilder()
+                .refreshAfterWrite(refreshAfter)
+                .expireAfterWrite(expireAfter)
+                .maximumSize(10_000)
+                .executor(slackIoScheduler::schedule)
+                // Only used for refreshes: a reload re-reads the row the bulk sweep keeps current.
+                .buildAsync((slackUserId, executor) -> slackUserRepository.findBySlackUserId(slackUserId).toFuture());
+        this.systemUser = Mono.defer(() -> slackUserRepository.findBySlackUserId(SYSTEM_USER_ID))
+                .switchIfEmpty(Mono.defer(() -> slackUserRepository.save(SlackUserEntity.builder()
+                        .slackUserId(SYSTEM_USER_ID)
+                        .displayName(SYSTEM_USER_ID)
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build())))
+                // Kept once found; a failed lookup is retried on the next call.
+                .cache(user -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+    }
+
+    public Mono<SlackUserEntity> ensureAndEnrichSlackUser(String slackUserId, String teamId) {
+        return Mono.fromFuture(() -> userCache.get(slackUserId, (id, executor) -> loadOrCreate(id, teamId)), true);
+    }
+
+    /** The {@value #SYSTEM_USER_ID} user, created if the migration's row is missing. */
+    public Mono<SlackUserEntity> systemUser() {
+        return systemUser;
+    }
+
+    /** Loads every known user into the cache with a single query, once the database is ready. */
+    @EventListener(DatabaseReadyEvent.class)
+    public void warmUp() {
+        slackUserRepository.findAll()
+                .doOnNext(u -> userCache.put(u.getSlackUserId(), CompletableFuture.completedFuture(u)))
+                .count()
+                .subscribe(
+                        count -> log.info("Slack user cache warmed with {} users", count),
+                        e -> log.warn("Slack user cache warm-up failed: {}", e.getMessage()));
+    }
+
+    /** Re-reads cached users whose row was changed, here or on another replica. */
+    @EventListener
+    public void onDataChanged(DataChangedEvent event) {
+        Set<String> changed = event.keys(ChangeEntity.USER);
+        changed.stream()
+                .filter(id -> userCache.getIfPresent(id) != null)
+                .forEach(id -> userCache.synchronous().refresh(id));
+    }
+
+    @Scheduled(fixedDelayString = "${app.slack-users.bulk-refresh-interval:PT30M}",
+            initialDelayString = "${app.slack-users.bulk-refresh-interval:PT30M}")
+    public void scheduledBulkRefresh() {
+        bulkRefresh().subscribe(
+                updated -> log.info("Slack user names refreshed via users.list: {} updated", updated),
+                e -> log.warn("Slack user bulk refresh failed: {}", e.getMessage()));
+    }
 
     /**
-     * Short-lived cache of enriched users. Avoids calling Slack's rate-limited
-     * users.info (and the DB) on every command. Names change rarely, so a small
-     * staleness window is an acceptable trade-off.
+     * Pages through {@code users.list} and applies name changes to the known
+     * users, in the DB and in the cache. Emits the number of users updated.
      */
-    private final Cache<String, SlackUserEntity> userCache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(15))
-            .maximumSize(10_000)
-            .build();
+    public Mono<Long> bulkRefresh() {
+        return Mono.fromCallable(this::fetchWorkspaceUsers)
+                .subscribeOn(slackIoScheduler)
+                .flatMapMany(members -> slackUserRepository.findAll()
+                        .filter(u -> members.containsKey(u.getSlackUserId()))
+                        .flatMap(u -> updateNamesIfChanged(u, members.get(u.getSlackUserId()))
+                                .filter(saved -> saved != u)))
+                .doOnNext(saved -> userCache.put(saved.getSlackUserId(), CompletableFuture.completedFuture(saved)))
+                .count();
+    }
 
-    public Mono<SlackUserEntity> ensureAndEnrichSlackUser(String slackUserId, String teamId) {
-        SlackUserEntity cached = userCache.getIfPresent(slackUserId);
-        if (cached != null) {
-            return Mono.just(cached);
-        }
+    private CompletableFuture<SlackUserEntity> loadOrCreate(String slackUserId, String teamId) {
         return slackUserRepository.findBySlackUserId(slackUserId)
                 .switchIfEmpty(Mono.defer(() -> slackUserRepository.save(SlackUserEntity.builder()
                         .slackUserId(slackUserId)
@@ -51,32 +158,66 @@ public class SlackUserService {
                         .createdAt(LocalDateTime.now())
                         .updatedAt(LocalDateTime.now())
                         .build())))
-                .flatMap(u -> Mono
-                        .fromCallable(
-                                () -> slackMethods.usersInfo(UsersInfoRequest.builder().user(slackUserId).build()))
-                        .subscribeOn(Schedulers.boundedElastic())
-                        .flatMap(resp -> updateNamesIfChanged(u, resp))
-                        .onErrorResume(e -> {
-                            log.warn("users.info failed for {}: {}", slackUserId, e.getMessage());
-                            return Mono.just(u);
-                        }))
-                .doOnNext(enriched -> userCache.put(slackUserId, enriched));
+                .doOnNext(this::enrichInBackground)
+                .toFuture();
     }
 
-    private Mono<SlackUserEntity> updateNamesIfChanged(SlackUserEntity u, UsersInfoResponse resp) {
-        if (resp == null || !resp.isOk() || resp.getUser() == null)
-            return Mono.just(u);
-        var profile = resp.getUser().getProfile();
-        String newDisplay = profile != null ? profile.getDisplayNameNormalized() : null;
-        String newReal = profile != null ? profile.getRealNameNormalized() : null;
+    /**
+     * Looks the user up with {@code users.info} without holding up the caller;
+     * the cache entry is replaced once the names are known.
+     */
+    private void enrichInBackground(SlackUserEntity u) {
+        Mono.fromCallable(() -> metrics.timeSlackCall("users.info",
+                () -> slackMethods.usersInfo(UsersInfoRequest.builder().user(u.getSlackUserId()).build())))
+                .subscribeOn(slackIoScheduler)
+                .filter(resp -> resp.isOk() && resp.getUser() != null)
+                .map(UsersInfoResponse::getUser)
+                .flatMap(user -> updateNamesIfChanged(u, user))
+                .filter(saved -> saved != u)
+                .subscribe(
+                        saved -> userCache.put(saved.getSlackUserId(), CompletableFuture.completedFuture(saved)),
+                        e -> log.warn("users.info failed for {}: {}", u.getSlackUserId(), e.getMessage()));
+    }
+
+    private Map<String, User> fetchWorkspaceUsers() throws Exception {
+        final Map<String, User> members = new HashMap<>();
+        String cursor = null;
+        do {
+            final String pageCursor = cursor;
+            UsersListResponse page = metrics.timeSlackCall("users.list",
+                    () -> slackMethods.usersList(UsersListRequest.builder()
+                            .limit(USERS_LIST_PAGE_SIZE)
+                            .cursor(pageCursor)
+                            .build()));
+            if (page == null || !page.isOk())
+                throw new IllegalStateException("users.list failed: " + (page == null ? "no response" : page.getError()));
+            if (page.getMembers() != null)
+                page.getMembers().forEach(m -> members.put(m.getId(), m));
+            cursor = page.getResponseMetadata() == null ? null : page.getResponseMetadata().getNextCursor();
+        } while (cursor != null && !cursor.isBlank());
+        return members;
+    }
+
+    /** Emits the saved copy if the names changed, otherwise {@code u} itself. */
+    private Mono<SlackUserEntity> updateNamesIfChanged(SlackUserEntity u, User user) {
+        var profile = user.getProfile();
+        String newDisplay = profile != null && profile.getDisplayNameNormalized() != null
+                ? profile.getDisplayNameNormalized()
+                : u.getDisplayName();
+        String newReal = profile != null && profile.getRealNameNormalized() != null
+                ? profile.getRealNameNormalized()
+                : u.getRealName();
 
         boolean changed = !Objects.equals(newDisplay, u.getDisplayName()) || !Objects.equals(newReal, u.getRealName());
         if (!changed)
             return Mono.just(u);
 
-        u.setDisplayName(newDisplay != null ? newDisplay : u.getDisplayName());
-        u.setRealName(newReal != null ? newReal : u.getRealName());
-        u.setUpdatedAt(LocalDateTime.now());
-        return slackUserRepository.save(u);
+        // Copy rather than mutate: the cached instance may be read concurrently.
+        SlackUserEntity updated = u.toBuilder()
+                .displayName(newDisplay)
+                .realName(newReal)
+                .updatedAt(LocalDateTime.now())
+                .build();
+        return changeLog.write(ChangeEntity.USER, slackUserRepository.save(updated), SlackUserEntity::getSlackUserId);
     }
 }
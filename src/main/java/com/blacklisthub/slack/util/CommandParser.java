@@ -1,32 +1,188 @@
 package com.blacklisthub.slack.util;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
 
+/**
+ * Parses slash command text of the form {@code <sub> <arg> <tail...>}.
+ *
+ * <p>
+ * Hand-rolled single pass over the text (no regex): the subcommand is
+ * lowercased, the argument may be quoted or be a comma-separated list that
+ * spans spaces ({@code a, b ,c}), and a tail wrapped in quotes (straight or
+ * Slack's curly quotes) is unquoted. Otherwise the tail is kept verbatim.
+ * A {@code --ttl <duration>} (or {@code --ttl=<duration>}) option right after
+ * the argument or at the very end of the text is taken out of the tail.
+ */
 public class CommandParser {
 
-    public record Parsed(String sub, List<String> args, String tail) {
-    }
+    private static final String TTL_OPTION = "--ttl";
+    private static final Parsed EMPTY = new Parsed("", List.of(), "");
 
-    public static Parsed parse(String text) {
-        if (text == null || text.isBlank()) {
-            return new Parsed("", List.of(), "");
+    /**
+     * @param sub  lowercased subcommand, empty if none
+     * @param args the argument (at most one element; a list argument stays
+     *             comma-joined, see {@link #values()})
+     * @param tail everything after the argument, e.g. the reason
+     * @param ttl  the raw {@code --ttl} value, null if the option is absent
+     */
+    public record Parsed(String sub, List<String> args, String tail, String ttl) {
+
+        public Parsed(String sub, List<String> args, String tail) {
+            this(sub, args, tail, null);
         }
 
-        // split with limit=3 -> [sub] [first-arg-or-empty]
-        // [the-rest-as-a-single-string]
-        String[] parts = text.trim().split("\\s+", 3);
+        /** The argument split on commas, trimmed, blanks and duplicates dropped. */
+        public List<String> values() {
+            if (args.isEmpty())
+                return List.of();
+            final String arg = args.get(0);
+            final Set<String> values = new LinkedHashSet<>();
+            int start = 0;
+            while (start <= arg.length()) {
+                int comma = arg.indexOf(',', start);
+                int end = comma < 0 ? arg.length() : comma;
+                String value = arg.substring(start, end).trim();
+                if (!value.isEmpty())
+                    values.add(value);
+                start = end + 1;
+            }
+            return new ArrayList<>(values);
+        }
+    }
 
-        String sub = parts[0].toLowerCase();
+    public static Parsed parse(String text) {
+        if (text == null)
+            return EMPTY;
+        final int len = trimmedEnd(text);
+        int pos = skipSpace(text, 0, len);
+        if (pos == len)
+            return EMPTY;
 
-        // args: only real arguments (exclude the command itself)
-        if (parts.length == 1) {
+        int subEnd = tokenEnd(text, pos, len);
+        final String sub = text.substring(pos, subEnd).toLowerCase(Locale.ROOT);
+        pos = skipSpace(text, subEnd, len);
+        if (pos == len)
             return new Parsed(sub, List.of(), "");
-        } else if (parts.length == 2) {
-            // one argument, no tail
-            return new Parsed(sub, List.of(parts[1]), "");
+
+        final String arg;
+        int close = closingQuote(text, pos, len);
+        if (close > 0) {
+            arg = text.substring(pos + 1, close);
+            pos = close + 1;
         } else {
-            // two or more tokens -> first arg + tail = "everything after the first arg"
-            return new Parsed(sub, List.of(parts[1]), parts[2]);
+            int argEnd = tokenEnd(text, pos, len);
+            int next = skipSpace(text, argEnd, len);
+            if (continuesList(text, argEnd, next, len)) {
+                StringBuilder sb = new StringBuilder(len - pos).append(text, pos, argEnd);
+                do {
+                    pos = next;
+                    argEnd = tokenEnd(text, pos, len);
+                    sb.append(text, pos, argEnd);
+                    next = skipSpace(text, argEnd, len);
+                } while (continuesList(text, argEnd, next, len));
+                arg = sb.toString();
+            } else {
+                arg = text.substring(pos, argEnd);
+            }
+            pos = argEnd;
         }
+
+        pos = skipSpace(text, pos, len);
+        int end = len;
+        String ttl = null;
+        if (isOption(text, pos, len)) {
+            int optionEnd = tokenEnd(text, pos, len);
+            if (optionEnd == pos + TTL_OPTION.length()) {
+                int valueStart = skipSpace(text, optionEnd, len);
+                optionEnd = tokenEnd(text, valueStart, len);
+                ttl = text.substring(valueStart, optionEnd);
+            } else {
+                ttl = text.substring(pos + TTL_OPTION.length() + 1, optionEnd);
+            }
+            pos = skipSpace(text, optionEnd, len);
+        } else if (pos < len) {
+            int last = tokenStart(text, pos, len);
+            int beforeLast = tokenStart(text, pos, trimmedEnd(text, pos, last));
+            if (isOption(text, last, len)) {
+                ttl = last + TTL_OPTION.length() < len ? text.substring(last + TTL_OPTION.length() + 1, len) : "";
+                end = trimmedEnd(text, pos, last);
+            } else if (last > pos && isOption(text, beforeLast, last)) {
+                ttl = text.substring(last, len);
+                end = trimmedEnd(text, pos, beforeLast);
+            }
+        }
+        return new Parsed(sub, List.of(arg), unquote(text, pos, end), ttl);
+    }
+
+    /** Whether the token at {@code from} is {@code --ttl} or {@code --ttl=...}. */
+    private static boolean isOption(String text, int from, int to) {
+        final int after = from + TTL_OPTION.length();
+        return after <= to && text.startsWith(TTL_OPTION, from)
+                && (after == to || isSpace(text.charAt(after)) || text.charAt(after) == '=');
+    }
+
+    /** A list argument continues if the last token ends, or the next starts, with a comma. */
+    private static boolean continuesList(String text, int tokenEnd, int next, int len) {
+        return next < len && (text.charAt(tokenEnd - 1) == ',' || text.charAt(next) == ',');
+    }
+
+    private static String unquote(String text, int from, int to) {
+        if (from >= to)
+            return "";
+        return closingQuote(text, from, to) == to - 1
+                ? text.substring(from + 1, to - 1)
+                : text.substring(from, to);
+    }
+
+    /** Index of the quote closing the one at {@code from}, or -1 if not quoted. */
+    private static int closingQuote(String text, int from, int to) {
+        final char close = switch (text.charAt(from)) {
+            case '"' -> '"';
+            case '\'' -> '\'';
+            case '\u201C' -> '\u201D';
+            case '\u2018' -> '\u2019';
+            default -> 0;
+        };
+        if (close == 0)
+            return -1;
+        int end = text.indexOf(close, from + 1);
+        return end >= 0 && end < to ? end : -1;
+    }
+
+    private static int skipSpace(String text, int from, int to) {
+        while (from < to && isSpace(text.charAt(from)))
+            from++;
+        return from;
+    }
+
+    private static int tokenEnd(String text, int from, int to) {
+        while (from < to && !isSpace(text.charAt(from)))
+            from++;
+        return from;
+    }
+
+    /** Start of the token ending at {@code to}. */
+    private static int tokenStart(String text, int from, int to) {
+        while (to > from && !isSpace(text.charAt(to - 1)))
+            to--;
+        return to;
+    }
+
+    private static int trimmedEnd(String text) {
+        return trimmedEnd(text, 0, text.length());
+    }
+
+    private static int trimmedEnd(String text, int from, int to) {
+        while (to > from && isSpace(text.charAt(to - 1)))
+            to--;
+        return to;
+    }
+
+    private static boolean isSpace(char c) {
+        return Character.isWhitespace(c) || c == '\u00A0';
     }
 }
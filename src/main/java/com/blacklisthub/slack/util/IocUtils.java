@@ -3,6 +3,7 @@ package com.blacklisthub.slack.util;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.time.Duration;
 import java.util.regex.Pattern;
 
 public class IocUtils {
@@ -64,6 +65,31 @@ public class IocUtils {
         }
     }
 
+    /**
+     * Parses a {@code --ttl} value: a positive whole number of minutes
+     * ({@code 30m}), hours ({@code 12h}), days ({@code 7d}) or weeks
+     * ({@code 2w}). Returns null if the value is not one.
+     */
+    public static Duration parseTtl(String ttl) {
+        if (ttl == null || ttl.length() < 2 || ttl.length() > 6)
+            return null;
+        final String amount = ttl.substring(0, ttl.length() - 1);
+        for (int i = 0; i < amount.length(); i++) {
+            if (amount.charAt(i) < '0' || amount.charAt(i) > '9')
+                return null;
+        }
+        final long n = Long.parseLong(amount);
+        if (n == 0)
+            return null;
+        return switch (Character.toLowerCase(ttl.charAt(ttl.length() - 1))) {
+            case 'm' -> Duration.ofMinutes(n);
+            case 'h' -> Duration.ofHours(n);
+            case 'd' -> Duration.ofDays(n);
+            case 'w' -> Duration.ofDays(n * 7);
+            default -> null;
+        };
+    }
+
     public static String jsonKV(String k, String vOrNull, boolean quote) {
         if (vOrNull == null)
             return "\"" + escapeJson(k) + "\":null";
@@ -0,0 +1,32 @@
+package com.blacklisthub.slack.util;
+
+import com.blacklisthub.slack.util.CommandParser.Parsed;
+
+/**
+ * One slash command invocation: who ran it, where, and its parsed text.
+ * Built once when the command arrives, then passed through authorization,
+ * execution and reply formatting, so the text is never parsed twice.
+ *
+ * @param command   the slash command, e.g. {@code /ip}
+ * @param text      the raw command text, kept for logging
+ * @param userId    Slack user ID of the caller
+ * @param teamId    Slack team (workspace) ID
+ * @param channelId channel the command was run in
+ * @param parsed    the parsed text
+ */
+public record SlackCommand(
+        String command,
+        String text,
+        String userId,
+        String teamId,
+        String channelId,
+        Parsed parsed) {
+
+    public static SlackCommand of(String command, String text, String userId, String teamId, String channelId) {
+        return new SlackCommand(command, text, userId, teamId, channelId, CommandParser.parse(text));
+    }
+
+    public String sub() {
+        return parsed.sub();
+    }
+}
@@ -0,0 +1,92 @@
+package com.blacklisthub.slack.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits long Slack messages into pages that each fit in one message.
+ *
+ * <p>
+ * Pages are cut at line boundaries. A page that ends inside a {@code ```} code
+ * block gets the fence closed, and the next page reopens it, so every page
+ * renders on its own. Lines longer than a page are hard-split.
+ */
+public final class SlackMessageChunker {
+    private SlackMessageChunker() {
+    }
+
+    private static final String FENCE = "```";
+    // Room for the closing/reopening fence and its newline.
+    private static final int FENCE_RESERVE = FENCE.length() + 1;
+
+    public static List<String> chunk(String text, int maxChars) {
+        if (maxChars <= 4 * FENCE_RESERVE)
+            throw new IllegalArgumentException("maxChars too small: " + maxChars);
+        if (text == null || text.isEmpty())
+            return List.of("");
+        if (text.length() <= maxChars)
+            return List.of(text);
+
+        final int limit = maxChars - FENCE_RESERVE;
+        final List<String> pages = new ArrayList<>(text.length() / limit + 2);
+        final StringBuilder page = new StringBuilder(maxChars);
+        boolean inFence = false;
+
+        int start = 0;
+        while (start < text.length()) {
+            int nl = text.indexOf('\n', start);
+            int end = nl < 0 ? text.length() : nl;
+            boolean togglesFence = countFences(text, start, end) % 2 == 1;
+
+            // Hard-split a line that cannot fit on any page.
+            while (end - start > limit - FENCE_RESERVE) {
+                int room = limit - page.length();
+                if (room <= FENCE_RESERVE) {
+                    inFence = flush(pages, page, inFence);
+                    continue;
+                }
+                page.append(text, start, start + room).append('\n');
+                start += room;
+                inFence = flush(pages, page, inFence);
+            }
+
+            int lineLength = end - start + 1;
+            if (page.length() + lineLength > limit && page.length() > 0)
+                inFence = flush(pages, page, inFence);
+
+            page.append(text, start, end).append('\n');
+            if (togglesFence)
+                inFence = !inFence;
+            start = end + 1;
+        }
+        if (page.length() > 0) {
+            // Drop the newline added after the last line.
+            page.setLength(page.length() - 1);
+            pages.add(page.toString());
+        }
+        return pages;
+    }
+
+    private static int countFences(String text, int from, int to) {
+        int count = 0;
+        int i = text.indexOf(FENCE, from);
+        while (i >= 0 && i + FENCE.length() <= to) {
+            count++;
+            i = text.indexOf(FENCE, i + FENCE.length());
+        }
+        return count;
+    }
+
+    /** Emits the current page and starts the next one; returns the fence state. */
+    private static boolean flush(List<String> pages, StringBuilder page, boolean inFence) {
+        if (inFence)
+            page.append(FENCE);
+        else if (page.length() > 0)
+            page.setLength(page.length() - 1);
+        pages.add(page.toString());
+        page.setLength(0);
+        if (inFence)
+            page.append(FENCE).append('\n');
+        return inFence;
+    }
+}
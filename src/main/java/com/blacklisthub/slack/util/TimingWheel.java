@@ -0,0 +1,147 @@
+package com.blacklisthub.slack.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical timing wheel: keys scheduled at a deadline, handed back by
+ * {@link #advance(long)} once it has passed.
+ *
+ * <p>
+ * Time moves in ticks of {@code tickMillis}. Each of the {@code levels} wheels
+ * has {@code slots} slots; a slot of level {@code i} spans
+ * {@code slots^i} ticks, so the wheels together cover
+ * {@code slots^levels} ticks ahead (60 one-second slots over 3 levels: 60
+ * hours). A key goes into the lowest level whose range reaches its deadline;
+ * when the clock enters the span of a higher-level slot, that slot's keys are
+ * moved down a level. Scheduling and cancelling are O(1), and a tick only
+ * touches the keys that are due or move down, however many are scheduled.
+ *
+ * <p>
+ * Rescheduling or cancelling a key does not search the slots: the latest
+ * deadline per key is kept in a map, and entries that no longer match it are
+ * dropped when their slot comes up. Thread-safe.
+ */
+public final class TimingWheel<K> {
+
+    private record Entry<K>(K key, long deadlineTick) {
+    }
+
+    private final long tickMillis;
+    private final int slots;
+    private final long[] span;
+    private final List<List<List<Entry<K>>>> wheels;
+    private final Map<K, Long> deadlines = new HashMap<>();
+    private final List<Entry<K>> due = new ArrayList<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int slots, int levels, long nowMillis) {
+        if (tickMillis <= 0 || slots < 2 || levels < 1)
+            throw new IllegalArgumentException("tickMillis > 0, slots >= 2 and levels >= 1 required");
+        this.tickMillis = tickMillis;
+        this.slots = slots;
+        this.span = new long[levels + 1];
+        span[0] = 1;
+        for (int i = 1; i <= levels; i++)
+            span[i] = Math.multiplyExact(span[i - 1], slots);
+        this.wheels = new ArrayList<>(levels);
+        for (int i = 0; i < levels; i++) {
+            List<List<Entry<K>>> wheel = new ArrayList<>(slots);
+            for (int s = 0; s < slots; s++)
+                wheel.add(new ArrayList<>());
+            wheels.add(wheel);
+        }
+        this.currentTick = nowMillis / tickMillis;
+    }
+
+    /** How far ahead keys can be scheduled. */
+    public long horizonMillis() {
+        return (span[wheels.size()] - 1) * tickMillis;
+    }
+
+    /**
+     * Schedules {@code key} at {@code deadlineMillis}, replacing any earlier
+     * deadline of the same key. A deadline already passed is due on the next
+     * {@link #advance(long)}.
+     *
+     * @return false if the deadline is beyond {@link #horizonMillis()}; the key
+     *         is then not scheduled (and no longer scheduled if it was)
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis) {
+        final long deadlineTick = Math.ceilDiv(deadlineMillis, tickMillis);
+        if (deadlineTick - currentTick >= span[wheels.size()]) {
+            deadlines.remove(key);
+            return false;
+        }
+        final Long previous = deadlines.put(key, deadlineTick);
+        if (previous == null || previous != deadlineTick)
+            place(new Entry<>(key, deadlineTick));
+        return true;
+    }
+
+    public synchronized void cancel(K key) {
+        deadlines.remove(key);
+    }
+
+    /** Cancels the scheduled keys matching {@code filter}. */
+    public synchronized void cancelIf(Predicate<K> filter) {
+        deadlines.keySet().removeIf(filter);
+    }
+
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Moves the clock to {@code nowMillis} and returns the keys whose deadline
+     * has passed, which are no longer scheduled.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        final long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = wheels.size() - 1; level > 0; level--) {
+                if (currentTick % span[level] == 0)
+                    cascade(wheels.get(level).get(slot(currentTick, level)));
+            }
+            cascade(wheels.getFirst().get(slot(currentTick, 0)));
+        }
+        final List<K> result = new ArrayList<>(due.size());
+        for (Entry<K> entry : due) {
+            if (deadlines.remove(entry.key(), entry.deadlineTick()))
+                result.add(entry.key());
+        }
+        due.clear();
+        return result;
+    }
+
+    private void cascade(List<Entry<K>> slot) {
+        if (slot.isEmpty())
+            return;
+        final List<Entry<K>> entries = new ArrayList<>(slot);
+        slot.clear();
+        entries.forEach(this::place);
+    }
+
+    private void place(Entry<K> entry) {
+        final Long deadline = deadlines.get(entry.key());
+        if (deadline == null || deadline != entry.deadlineTick())
+            return; // cancelled or rescheduled
+        final long delta = entry.deadlineTick() - currentTick;
+        if (delta <= 0) {
+            due.add(entry);
+            return;
+        }
+        int level = 0;
+        while (delta >= span[level + 1])
+            level++;
+        wheels.get(level).get(slot(entry.deadlineTick(), level)).add(entry);
+    }
+
+    private int slot(long tick, int level) {
+        return (int) ((tick / span[level]) % slots);
+    }
+}
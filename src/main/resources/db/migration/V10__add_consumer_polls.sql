@@ -0,0 +1,21 @@
+-- V10__add_consumer_polls.sql
+-- Per-consumer poll telemetry of the blocklist feeds: one row per consumer and
+-- feed (shards and the bundle included). Each replica counts polls in memory
+-- and adds its counts here every app.consumer-telemetry.flush-interval, so
+-- requests / not_modified / bytes are totals over all replicas, while
+-- last_etag, last_poll_at and poll_interval_ms come from the last flush.
+--
+-- last_etag is the version the consumer holds after its last poll; compare it
+-- with the current ETag of the feed to see who is behind.
+CREATE TABLE IF NOT EXISTS consumer_polls (
+  id                BIGINT PRIMARY KEY AUTO_INCREMENT,
+  consumer          VARCHAR(64)  NOT NULL,
+  feed              VARCHAR(96)  NOT NULL,   -- e.g. 'ips.txt', 'hashes.shard-0-of-4.txt', 'bundle.ndjson'
+  last_etag         CHAR(32)     NULL,
+  last_poll_at      TIMESTAMP(3) NULL,
+  poll_interval_ms  BIGINT       NULL,       -- moving average of the time between two polls
+  requests          BIGINT       NOT NULL DEFAULT 0,
+  not_modified      BIGINT       NOT NULL DEFAULT 0,   -- polls answered with 304
+  bytes             BIGINT       NOT NULL DEFAULT 0,
+  UNIQUE KEY uq_consumer_polls (consumer, feed)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
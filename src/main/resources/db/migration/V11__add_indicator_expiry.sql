@@ -0,0 +1,27 @@
+-- V11__add_indicator_expiry.sql
+-- Optional expiry of indicators (/ip add 1.2.3.4 --ttl 7d). An active
+-- indicator whose expires_at has passed is deactivated by the expiry engine,
+-- audited as a DEACTIVATE by the 'system' user below. NULL means it never
+-- expires.
+--
+-- The engine only reads what expires within app.expiry.horizon, as a range
+-- scan of idx_*_active_expires, and keeps it in memory until it is due.
+
+ALTER TABLE ip_addresses      ADD COLUMN expires_at TIMESTAMP NULL DEFAULT NULL;
+ALTER TABLE hash_indicators   ADD COLUMN expires_at TIMESTAMP NULL DEFAULT NULL;
+ALTER TABLE domain_indicators ADD COLUMN expires_at TIMESTAMP NULL DEFAULT NULL;
+ALTER TABLE url_indicators    ADD COLUMN expires_at TIMESTAMP NULL DEFAULT NULL;
+
+CREATE INDEX idx_ip_active_expires     ON ip_addresses(active, expires_at);
+CREATE INDEX idx_hash_active_expires   ON hash_indicators(active, expires_at);
+CREATE INDEX idx_domain_active_expires ON domain_indicators(active, expires_at);
+CREATE INDEX idx_url_active_expires    ON url_indicators(active, expires_at);
+
+-- Expiry of the indicators a bulk job adds or reactivates, fixed when the job
+-- is queued so a resumed job does not extend it.
+ALTER TABLE bulk_jobs ADD COLUMN expires_at TIMESTAMP NULL DEFAULT NULL AFTER reason;
+
+-- Actor of the changes the application makes on its own (expiry), so they are
+-- audited like any other change.
+INSERT IGNORE INTO slack_users (slack_user_id, display_name, real_name)
+VALUES ('system', 'system', 'Blacklist hub (automatic)');
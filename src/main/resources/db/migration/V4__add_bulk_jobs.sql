@@ -0,0 +1,33 @@
+-- V4__add_bulk_jobs.sql
+-- Persistent queue for bulk commands. A bulk is stored here when the command
+-- arrives and processed by the in-process worker pool in chunks; after every
+-- chunk the offset (processed), the counters and the detail lines are saved, so
+-- a job interrupted by a restart resumes where it left off.
+--
+-- owner / heartbeat_at implement the lease: a RUNNING job whose heartbeat is
+-- older than app.bulk-jobs.stale-after is considered abandoned and re-claimed.
+CREATE TABLE IF NOT EXISTS bulk_jobs (
+  id              BIGINT PRIMARY KEY AUTO_INCREMENT,
+  ioc_type        ENUM('IP','HASH','DOMAIN','URL') NOT NULL,
+  command         VARCHAR(32)  NOT NULL,
+  slack_user_id   VARCHAR(32)  NOT NULL,
+  team_id         VARCHAR(32)  NULL,
+  channel_id      VARCHAR(32)  NOT NULL,
+  reason          VARCHAR(512) NULL,
+  items           MEDIUMTEXT   NOT NULL,   -- requested values, one per line
+  total           INT          NOT NULL,
+  processed       INT          NOT NULL DEFAULT 0,
+  added           INT          NOT NULL DEFAULT 0,
+  reactivated     INT          NOT NULL DEFAULT 0,
+  already_active  INT          NOT NULL DEFAULT 0,
+  invalid         INT          NOT NULL DEFAULT 0,
+  errors          INT          NOT NULL DEFAULT 0,
+  details         MEDIUMTEXT   NULL,       -- per-item result lines of the processed chunks
+  status          ENUM('QUEUED','RUNNING','DONE','FAILED') NOT NULL DEFAULT 'QUEUED',
+  owner           VARCHAR(64)  NULL,
+  heartbeat_at    TIMESTAMP    NULL DEFAULT NULL,
+  created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  finished_at     TIMESTAMP    NULL DEFAULT NULL
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_bulk_jobs_status ON bulk_jobs(status, heartbeat_at);
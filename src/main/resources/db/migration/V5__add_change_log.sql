@@ -0,0 +1,16 @@
+-- V5__add_change_log.sql
+-- Cross-replica change notification. Every write to an indicator, the channel
+-- whitelist or a Slack user appends a row here in the same transaction, so a
+-- row exists if and only if the write committed. Each replica polls for ids
+-- above the last one it has seen and invalidates its in-process caches.
+--
+-- Rows are only needed for as long as the slowest replica may lag behind and
+-- are purged after app.change-bus.retention.
+CREATE TABLE IF NOT EXISTS change_log (
+  id          BIGINT PRIMARY KEY AUTO_INCREMENT,
+  entity      ENUM('IP','HASH','DOMAIN','URL','CHANNEL','USER') NOT NULL,
+  entity_key  VARCHAR(64)  NOT NULL,   -- indicator id, channel id or Slack user id
+  created_at  TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_change_log_created_at ON change_log(created_at);
@@ -0,0 +1,60 @@
+-- V6__add_change_seq.sql
+-- Global change sequence on the indicator tables. Every indicator write takes
+-- the next value of change_seq_counter as its change_seq, so one counter
+-- orders the writes of all four tables and "what changed since X" is a range
+-- scan on idx_*_change_seq.
+--
+-- The value is taken by the last statement of the write's transaction,
+-- UPDATE change_seq_counter SET v = LAST_INSERT_ID(v + 1). The row lock it
+-- takes is held until commit, so writers take sequences in commit order and a
+-- reader never sees a sequence while a lower one is still uncommitted (an
+-- AUTO_INCREMENT id is taken at insert and would not guarantee that).
+--
+-- change_seq stays NULL-able: a new indicator is inserted first and stamped
+-- at the end of the same transaction.
+
+ALTER TABLE ip_addresses      ADD COLUMN change_seq BIGINT NULL;
+ALTER TABLE hash_indicators   ADD COLUMN change_seq BIGINT NULL;
+ALTER TABLE domain_indicators ADD COLUMN change_seq BIGINT NULL;
+ALTER TABLE url_indicators    ADD COLUMN change_seq BIGINT NULL;
+
+-- Backfill: one change_log row per existing indicator, oldest first, whose id
+-- becomes the indicator's change_seq. Nothing writes while Flyway runs.
+SET @backfill_from = (SELECT COALESCE(MAX(id), 0) FROM change_log);
+
+INSERT INTO change_log (entity, entity_key) SELECT 'IP', id FROM ip_addresses ORDER BY id;
+INSERT INTO change_log (entity, entity_key) SELECT 'HASH', id FROM hash_indicators ORDER BY id;
+INSERT INTO change_log (entity, entity_key) SELECT 'DOMAIN', id FROM domain_indicators ORDER BY id;
+INSERT INTO change_log (entity, entity_key) SELECT 'URL', id FROM url_indicators ORDER BY id;
+
+-- Temporary: lets each indicator find its change_log row by key instead of
+-- scanning change_log once per indicator. Dropped after the backfill.
+CREATE INDEX idx_change_log_backfill ON change_log(entity, entity_key);
+
+UPDATE ip_addresses t JOIN change_log c
+    ON c.id > @backfill_from AND c.entity = 'IP' AND c.entity_key = CAST(t.id AS CHAR)
+  SET t.change_seq = c.id;
+UPDATE hash_indicators t JOIN change_log c
+    ON c.id > @backfill_from AND c.entity = 'HASH' AND c.entity_key = CAST(t.id AS CHAR)
+  SET t.change_seq = c.id;
+UPDATE domain_indicators t JOIN change_log c
+    ON c.id > @backfill_from AND c.entity = 'DOMAIN' AND c.entity_key = CAST(t.id AS CHAR)
+  SET t.change_seq = c.id;
+UPDATE url_indicators t JOIN change_log c
+    ON c.id > @backfill_from AND c.entity = 'URL' AND c.entity_key = CAST(t.id AS CHAR)
+  SET t.change_seq = c.id;
+
+DROP INDEX idx_change_log_backfill ON change_log;
+
+-- Single row; continues above every backfilled change_seq.
+CREATE TABLE IF NOT EXISTS change_seq_counter (
+  id  TINYINT PRIMARY KEY,
+  v   BIGINT  NOT NULL
+) ENGINE=InnoDB;
+
+INSERT INTO change_seq_counter (id, v) SELECT 1, COALESCE(MAX(id), 0) FROM change_log;
+
+CREATE INDEX idx_ip_change_seq     ON ip_addresses(change_seq);
+CREATE INDEX idx_hash_change_seq   ON hash_indicators(change_seq);
+CREATE INDEX idx_domain_change_seq ON domain_indicators(change_seq);
+CREATE INDEX idx_url_change_seq    ON url_indicators(change_seq);
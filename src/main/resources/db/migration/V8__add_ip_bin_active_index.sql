@@ -0,0 +1,5 @@
+-- V8__add_ip_bin_active_index.sql
+-- Covering index for the binary IP feed (/blacklist/ips.bin), which reads the
+-- active addresses as ip_bin in byte order. uq_ip_bin alone would need a row
+-- lookup per address to check active.
+CREATE INDEX idx_ip_active_bin ON ip_addresses(active, ip_bin);
@@ -0,0 +1,20 @@
+-- V9__add_feed_consumers.sql
+-- Registry of blocklist consumers (/blacklist/**). Each consumer has its own
+-- bearer token, of which only the SHA-256 is stored (hex, as produced by
+-- SHA2('<token>', 256)). Every replica loads the active rows into memory every
+-- app.consumers.refresh-interval.
+--
+-- requests_per_minute / burst override the app.consumers defaults for one
+-- consumer; 0 disables its rate limit.
+CREATE TABLE IF NOT EXISTS feed_consumers (
+  id                   BIGINT PRIMARY KEY AUTO_INCREMENT,
+  name                 VARCHAR(64) NOT NULL,   -- metrics tag, e.g. 'suricata-eu'
+  token_sha256         CHAR(64)    NOT NULL,
+  requests_per_minute  INT         NULL,
+  burst                INT         NULL,
+  active               TINYINT(1)  NOT NULL DEFAULT 1,
+  created_at           TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at           TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+  UNIQUE KEY uq_feed_consumers_name (name),
+  UNIQUE KEY uq_feed_consumers_token (token_sha256)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
@@ -0,0 +1,107 @@
+package com.blacklisthub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.repository.DbRoute;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DatabaseRoutingTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final ConnectionFactory primary = mock(ConnectionFactory.class);
+    private final ConnectionFactory replica = mock(ConnectionFactory.class);
+
+    @Test
+    void readOnlyQueriesGoToTheReplicaAndEverythingElseToThePrimary() {
+        doReturn(Mono.just(primaryConnection)).when(primary).create();
+        doReturn(Mono.just(replicaConnection)).when(replica).create();
+        RoutingConnectionFactory routing = routing(replica);
+
+        StepVerifier.create(Mono.from(routing.create()))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+        StepVerifier.create(Mono.from(routing.create()).contextWrite(DbRoute::readOnly))
+                .expectNext(replicaConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkAndFeedQueriesUseTheirOwnPools() {
+        final Connection bulkConnection = mock(Connection.class);
+        final Connection feedConnection = mock(Connection.class);
+        final ConnectionFactory bulk = mock(ConnectionFactory.class);
+        final ConnectionFactory feed = mock(ConnectionFactory.class);
+        doReturn(Mono.just(primaryConnection)).when(primary).create();
+        doReturn(Mono.just(bulkConnection)).when(bulk).create();
+        doReturn(Mono.just(feedConnection)).when(feed).create();
+        RoutingConnectionFactory routing = new RoutingConnectionFactory();
+        routing.setTargetConnectionFactories(Map.of(DbRoute.INTERACTIVE, primary, DbRoute.BULK, bulk,
+                DbRoute.FEED, feed));
+        routing.setDefaultTargetConnectionFactory(primary);
+        routing.afterPropertiesSet();
+
+        StepVerifier.create(Mono.from(routing.create()).contextWrite(DbRoute::bulk))
+                .expectNext(bulkConnection)
+                .verifyComplete();
+        StepVerifier.create(Mono.from(routing.create()).contextWrite(DbRoute::feed))
+                .expectNext(feedConnection)
+                .verifyComplete();
+        StepVerifier.create(Mono.from(routing.create()))
+                .expectNext(primaryConnection)
+                .verifyComplete();
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimaryAndIsSkippedUntilRetry() {
+        doReturn(Mono.just(primaryConnection)).when(primary).create();
+        doReturn(Mono.error(new IllegalStateException("connection refused"))).when(replica).create();
+        ReplicaFallbackConnectionFactory fallback = new ReplicaFallbackConnectionFactory(replica, primary,
+                Duration.ofMinutes(1));
+        RoutingConnectionFactory routing = routing(fallback);
+
+        for (int i = 0; i < 3; i++) {
+            StepVerifier.create(Mono.from(routing.create()).contextWrite(DbRoute::readOnly))
+                    .expectNext(primaryConnection)
+                    .verifyComplete();
+        }
+
+        assertThat(fallback.isReplicaDown()).isTrue();
+        verify(replica, times(1)).create();
+    }
+
+    @Test
+    void replicaIsTriedAgainOnceTheRetryDelayHasPassed() {
+        doReturn(Mono.just(primaryConnection)).when(primary).create();
+        doReturn(Mono.error(new IllegalStateException("connection refused")), Mono.just(replicaConnection))
+                .when(replica).create();
+        ReplicaFallbackConnectionFactory fallback = new ReplicaFallbackConnectionFactory(replica, primary,
+                Duration.ZERO);
+
+        StepVerifier.create(Mono.from(fallback.create())).expectNext(primaryConnection).verifyComplete();
+        StepVerifier.create(Mono.from(fallback.create())).expectNext(replicaConnection).verifyComplete();
+
+        assertThat(fallback.isReplicaDown()).isFalse();
+    }
+
+    private RoutingConnectionFactory routing(ConnectionFactory readOnly) {
+        RoutingConnectionFactory routing = new RoutingConnectionFactory();
+        routing.setTargetConnectionFactories(Map.of(DbRoute.INTERACTIVE, primary, DbRoute.READ_ONLY, readOnly));
+        routing.setDefaultTargetConnectionFactory(primary);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+}
@@ -0,0 +1,77 @@
+package com.blacklisthub.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLNonTransientConnectionException;
+import java.time.Duration;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.blacklisthub.service.DatabaseReadyEvent;
+
+class DatabaseStartupTest {
+
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final Flyway flyway = mock(Flyway.class);
+    private final DatabaseStartup startup = new DatabaseStartup(events, Duration.ofMillis(10));
+
+    @Test
+    void migrationIsDeferredAndRetriedUntilTheDatabaseIsUp() {
+        when(flyway.migrate())
+                .thenThrow(unreachable())
+                .thenThrow(unreachable())
+                .thenReturn(mock(MigrateResult.class));
+
+        startup.deferredFlywayMigration().migrate(flyway);
+        verify(flyway, times(0)).migrate();
+
+        startup.migrate();
+
+        verify(events, timeout(2000)).publishEvent(any(DatabaseReadyEvent.class));
+        verify(flyway, times(3)).migrate();
+        startup.stop();
+    }
+
+    /** A migration that fails for another reason than connectivity is not retried. */
+    @Test
+    void brokenMigrationFailsAndRefusesTraffic() {
+        when(flyway.migrate()).thenThrow(new FlywayException("Migration V11__add_indicator_expiry.sql failed"));
+
+        startup.deferredFlywayMigration().migrate(flyway);
+        startup.migrate();
+
+        verify(events, timeout(2000)).publishEvent(argThat((ApplicationEvent event) -> event
+                instanceof AvailabilityChangeEvent<?> change && change.getState() == ReadinessState.REFUSING_TRAFFIC));
+        verify(flyway, times(1)).migrate();
+        verify(events, never()).publishEvent(any(DatabaseReadyEvent.class));
+        assertThat(startup.databaseMigrationHealthIndicator().health().getStatus()).isEqualTo(Status.DOWN);
+    }
+
+    @Test
+    void withoutFlywayTheDatabaseIsReadyRightAway() {
+        startup.migrate();
+
+        verify(events, timeout(2000)).publishEvent(any(DatabaseReadyEvent.class));
+    }
+
+    private static FlywayException unreachable() {
+        return new FlywayException("Unable to obtain connection from database",
+                new SQLNonTransientConnectionException("Communications link failure", "08S01"));
+    }
+}
@@ -0,0 +1,146 @@
+package com.blacklisthub.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.blacklisthub.controller.format.FeedFormat;
+import com.blacklisthub.controller.format.RenderedFeeds;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.security.BlocklistAuthFilter;
+import com.blacklisthub.service.ConsumerTelemetry;
+import com.blacklisthub.service.Snapshot;
+import com.blacklisthub.service.SnapshotStore;
+
+import reactor.core.publisher.Mono;
+
+class BlacklistControllerTest {
+
+    private final RenderedFeeds renderedFeeds = mock(RenderedFeeds.class);
+    private final FeedFormat format = mock(FeedFormat.class);
+    private final ConsumerTelemetry telemetry = mock(ConsumerTelemetry.class);
+
+    @TempDir
+    Path dir;
+    private Snapshot snapshot;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        snapshot = new SnapshotStore(dir.toString())
+                .write("urls.txt", "0123456789".getBytes(StandardCharsets.UTF_8))
+                .block();
+        when(format.mediaType()).thenReturn(FeedFormat.TEXT_PLAIN_UTF8);
+        when(renderedFeeds.format("urls.txt")).thenReturn(format);
+        when(renderedFeeds.get(format)).thenReturn(Mono.just(snapshot));
+        when(format.type()).thenReturn(IocType.URL);
+        when(format.extension()).thenReturn("txt");
+        FeedCachePolicy cachePolicy = new FeedCachePolicy(Duration.ofSeconds(30), Duration.ofMinutes(10), 0,
+                System.nanoTime());
+        client = WebTestClient.bindToController(new BlacklistController(renderedFeeds, cachePolicy, telemetry))
+                .webFilter((exchange, chain) -> {
+                    exchange.getAttributes().put(BlocklistAuthFilter.CONSUMER_ATTRIBUTE, "suricata-eu");
+                    return chain.filter(exchange);
+                })
+                .build();
+    }
+
+    @Test
+    void fullFeedAdvertisesRangesAndItsLength() {
+        client.get().uri("/blacklist/urls.txt").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .expectHeader().contentLength(10)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + snapshot.etag() + "\"")
+                .expectBody(String.class).isEqualTo("0123456789");
+    }
+
+    @Test
+    void rangeResumesAnInterruptedDownload() {
+        client.get().uri("/blacklist/urls.txt")
+                .header(HttpHeaders.RANGE, "bytes=4-")
+                .header(HttpHeaders.IF_RANGE, "\"" + snapshot.etag() + "\"")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PARTIAL_CONTENT)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10")
+                .expectHeader().contentLength(6)
+                .expectBody(String.class).isEqualTo("456789");
+    }
+
+    @Test
+    void rangeOfAnOlderVersionGetsTheWholeNewFeed() {
+        client.get().uri("/blacklist/urls.txt")
+                .header(HttpHeaders.RANGE, "bytes=4-")
+                .header(HttpHeaders.IF_RANGE, "\"0000\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.CONTENT_RANGE)
+                .expectHeader().contentLength(10)
+                .expectBody(String.class).isEqualTo("0123456789");
+    }
+
+    @Test
+    void unsatisfiableRangeReportsTheFeedLength() {
+        client.get().uri("/blacklist/urls.txt")
+                .header(HttpHeaders.RANGE, "bytes=20-")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                .expectHeader().valueEquals(HttpHeaders.CONTENT_RANGE, "bytes */10");
+    }
+
+    @Test
+    void headReturnsTheHeadersWithoutTheBody() {
+        client.head().uri("/blacklist/urls.txt").exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentLength(10)
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + snapshot.etag() + "\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void unchangedFeedIsNotSentAgainAndTheConsumerIsToldWhenToComeBack() {
+        client.get().uri("/blacklist/urls.txt")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + snapshot.etag() + "\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate())
+                .expectHeader().valueEquals(HttpHeaders.RETRY_AFTER, "30");
+
+        verify(telemetry).record("suricata-eu", "urls.txt", snapshot.etag(), true, 0);
+    }
+
+    @Test
+    void pollsAreRecordedWithTheBytesSent() {
+        client.get().uri("/blacklist/urls.txt").exchange()
+                .expectStatus().isOk()
+                .expectHeader().cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate())
+                .expectHeader().doesNotExist(HttpHeaders.RETRY_AFTER);
+
+        verify(telemetry).record("suricata-eu", "urls.txt", snapshot.etag(), false, 10);
+    }
+
+    @Test
+    void ifRangeDateMustBeTheExactRenderTime() {
+        assertThat(SnapshotResponses.ifRangeMatches(null, snapshot)).isTrue();
+        assertThat(SnapshotResponses.ifRangeMatches(httpDate(snapshot.renderedAt()), snapshot)).isTrue();
+        assertThat(SnapshotResponses.ifRangeMatches(httpDate(snapshot.renderedAt().minusSeconds(1)), snapshot))
+                .isFalse();
+        assertThat(SnapshotResponses.ifRangeMatches("W/\"" + snapshot.etag() + "\"", snapshot)).isFalse();
+    }
+}
@@ -0,0 +1,52 @@
+package com.blacklisthub.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.entity.IocType;
+
+class FeedCachePolicyTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    private final FeedCachePolicy policy = new FeedCachePolicy(Duration.ofSeconds(30), Duration.ofMinutes(10),
+            0.2, 0);
+
+    @Test
+    void quietListIsPolledAtTheMaximumAndABusyOneAtTheMinimum() {
+        assertThat(policy.maxAge(IocType.HASH, false, 120 * MINUTE, 0)).isEqualTo(Duration.ofMinutes(10));
+
+        for (int i = 1; i <= 20; i++)
+            policy.changed(IocType.IP, i * MINUTE / 10);
+        assertThat(policy.maxAge(IocType.IP, false, 2 * MINUTE, 0)).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void maxAgeIsHalfTheTimeBetweenChanges() {
+        for (int i = 1; i <= 3; i++)
+            policy.changed(IocType.URL, i * 4 * MINUTE);
+
+        assertThat(policy.maxAge(IocType.URL, false, 13 * MINUTE, 0)).isEqualTo(Duration.ofMinutes(2));
+    }
+
+    @Test
+    void jitterSpreadsConsumersAroundTheMaxAge() {
+        for (int i = 1; i <= 3; i++)
+            policy.changed(IocType.URL, i * 4 * MINUTE);
+
+        assertThat(policy.maxAge(IocType.URL, false, 13 * MINUTE, 1)).isEqualTo(Duration.ofSeconds(144));
+        assertThat(policy.maxAge(IocType.URL, false, 13 * MINUTE, -1)).isEqualTo(Duration.ofSeconds(96));
+    }
+
+    @Test
+    void bundleFollowsTheBusiestListAndStaleFeedsTheMinimum() {
+        for (int i = 1; i <= 3; i++)
+            policy.changed(IocType.DOMAIN, i * 4 * MINUTE);
+
+        assertThat(policy.maxAge(null, false, 13 * MINUTE, 0)).isEqualTo(Duration.ofMinutes(2));
+        assertThat(policy.maxAge(IocType.HASH, true, 13 * MINUTE, 0)).isEqualTo(Duration.ofSeconds(30));
+    }
+}
@@ -0,0 +1,100 @@
+package com.blacklisthub.controller.format;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Reference decoder for {@code /blacklist/ips.bin} and
+ * {@code /blacklist/hashes.bin}, written against the format documentation in
+ * {@link IpBinaryFormat} and {@link HashBinaryFormat} rather than the
+ * encoders. Self-contained so consumers can copy it.
+ */
+public final class BinaryFeedDecoder {
+    private BinaryFeedDecoder() {
+    }
+
+    /** Addresses in textual form: IPv4 in ascending order, then IPv6. */
+    public static List<String> decodeIps(byte[] feed) {
+        final ByteBuffer in = ByteBuffer.wrap(feed);
+        expectHeader(in, "BHIP");
+        final long count4 = Integer.toUnsignedLong(in.getInt());
+        final long count6 = Integer.toUnsignedLong(in.getInt());
+        final List<String> ips = new ArrayList<>();
+        BigInteger value = BigInteger.ZERO;
+        for (long i = 0; i < count4; i++) {
+            value = value.add(readVarint(in));
+            ips.add(address(value, 4));
+        }
+        value = BigInteger.ZERO;
+        for (long i = 0; i < count6; i++) {
+            value = value.add(readVarint(in));
+            ips.add(address(value, 16));
+        }
+        expectEnd(in);
+        return ips;
+    }
+
+    /** Digests as lowercase hex: sections by ascending length, each in ascending order. */
+    public static List<String> decodeHashes(byte[] feed) {
+        final ByteBuffer in = ByteBuffer.wrap(feed);
+        expectHeader(in, "BHHS");
+        final int sections = Byte.toUnsignedInt(in.get());
+        final List<String> hashes = new ArrayList<>();
+        for (int s = 0; s < sections; s++) {
+            final int length = Byte.toUnsignedInt(in.get());
+            final long count = Integer.toUnsignedLong(in.getInt());
+            final byte[] digest = new byte[length];
+            for (long i = 0; i < count; i++) {
+                in.get(digest);
+                hashes.add(HexFormat.of().formatHex(digest));
+            }
+        }
+        expectEnd(in);
+        return hashes;
+    }
+
+    private static void expectHeader(ByteBuffer in, String magic) {
+        final byte[] head = new byte[4];
+        in.get(head);
+        if (!Arrays.equals(head, magic.getBytes()))
+            throw new IllegalArgumentException("Not a " + magic + " feed");
+        final int version = Byte.toUnsignedInt(in.get());
+        if (version != 1)
+            throw new IllegalArgumentException("Unsupported version " + version);
+    }
+
+    private static void expectEnd(ByteBuffer in) {
+        if (in.hasRemaining())
+            throw new IllegalArgumentException(in.remaining() + " trailing bytes");
+    }
+
+    private static BigInteger readVarint(ByteBuffer in) {
+        BigInteger value = BigInteger.ZERO;
+        int shift = 0;
+        int b;
+        do {
+            b = Byte.toUnsignedInt(in.get());
+            value = value.or(BigInteger.valueOf(b & 0x7F).shiftLeft(shift));
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String address(BigInteger value, int length) {
+        final byte[] raw = value.toByteArray();
+        final byte[] bytes = new byte[length];
+        final int copy = Math.min(raw.length, length);
+        System.arraycopy(raw, raw.length - copy, bytes, length - copy, copy);
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.blacklisthub.controller.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BinaryFeedFormatTest {
+
+    private final IpBinaryFormat ips = new IpBinaryFormat();
+    private final HashBinaryFormat hashes = new HashBinaryFormat();
+
+    @Test
+    void ipsRoundTripThroughTheReferenceDecoder() {
+        List<String> addresses = List.of("0.0.0.0", "10.0.0.1", "10.0.0.2", "192.168.1.1", "255.255.255.255",
+                "::1", "2001:db8::1", "2001:db8::1:0", "fe80::1", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff");
+
+        byte[] feed = ips.render(ipBin(addresses));
+
+        assertThat(BinaryFeedDecoder.decodeIps(feed)).containsExactly("0.0.0.0", "10.0.0.1", "10.0.0.2",
+                "192.168.1.1", "255.255.255.255", "0:0:0:0:0:0:0:1", "2001:db8:0:0:0:0:0:1",
+                "2001:db8:0:0:0:0:1:0", "fe80:0:0:0:0:0:0:1", "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff");
+    }
+
+    @Test
+    void denseRangesTakeAboutOneBytePerAddress() {
+        List<String> addresses = IntStream.range(0, 10_000)
+                .mapToObj(i -> "2001:db8::" + Integer.toHexString(i))
+                .toList();
+
+        byte[] feed = ips.render(ipBin(addresses));
+        int text = addresses.stream().mapToInt(a -> a.length() + 1).sum();
+
+        assertThat(BinaryFeedDecoder.decodeIps(feed)).hasSize(10_000);
+        assertThat(feed.length).isLessThan(10_000 + 32).isLessThan(text / 10);
+    }
+
+    @Test
+    void emptyIpFeedIsJustTheHeader() {
+        byte[] feed = ips.render(List.of());
+
+        assertThat(feed).hasSize(13);
+        assertThat(BinaryFeedDecoder.decodeIps(feed)).isEmpty();
+    }
+
+    @Test
+    void unsortedIpsAreRejected() {
+        assertThatThrownBy(() -> ips.render(ipBin(List.of("10.0.0.2", "10.0.0.1"))))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void hashesAreGroupedByDigestLength() {
+        String md5 = "0123456789abcdef0123456789abcdef";
+        String sha1 = "00000000000000000000000000000000000000ff";
+        String sha256a = "1".repeat(64);
+        String sha256b = "f".repeat(64);
+        List<byte[]> digests = new ArrayList<>();
+        for (String hex : List.of(sha1, md5, sha256a, sha256b))
+            digests.add(HexFormat.of().parseHex(hex));
+
+        byte[] feed = hashes.render(digests);
+
+        assertThat(BinaryFeedDecoder.decodeHashes(feed)).containsExactly(md5, sha1, sha256a, sha256b);
+        assertThat(feed).hasSize(6 + 3 * 5 + 16 + 20 + 64);
+        assertThat(Arrays.copyOf(feed, 4)).isEqualTo("BHHS".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static List<byte[]> ipBin(List<String> addresses) {
+        return addresses.stream().map(a -> InetAddress.ofLiteral(a).getAddress()).toList();
+    }
+}
@@ -0,0 +1,338 @@
+package com.blacklisthub.controller.format;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.FeedQueries;
+import com.blacklisthub.service.ChangeLogPoller;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.Snapshot;
+import com.blacklisthub.service.SnapshotStore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class RenderedFeedsTest {
+
+    private final FeedQueries feedQueries = mock(FeedQueries.class);
+    private final ChangeLogPoller changeBus = mock(ChangeLogPoller.class);
+    private final AtomicInteger queries = new AtomicInteger();
+
+    @TempDir
+    Path dir;
+    private SnapshotStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new SnapshotStore(dir.toString());
+        when(changeBus.isConnected()).thenReturn(true);
+    }
+
+    @Test
+    void formatsAreRenderedOncePerDataChange() {
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(counted("10.0.0.1"));
+        when(feedQueries.activeValueBytes(IocType.DOMAIN)).thenReturn(counted("evil.test"));
+        RenderedFeeds feeds = feeds(new NginxFormat(), new SquidFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        assertThat(text(feeds.get(nginx))).isEqualTo("deny 10.0.0.1;\n");
+        assertThat(text(feeds.get(nginx))).isEqualTo("deny 10.0.0.1;\n");
+        assertThat(queries).hasValue(1);
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.DOMAIN, Set.of("7"))));
+        feeds.get(nginx).block();
+        assertThat(queries).hasValue(1);
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.IP, Set.of("3"))));
+        feeds.get(nginx).block();
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void failedRenderIsRetriedOnTheNextRequest() {
+        when(feedQueries.activeValueBytes(IocType.IP))
+                .thenReturn(Flux.error(new IllegalStateException("db down")), counted("10.0.0.1"));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        assertThatThrownBy(() -> feeds.get(nginx).block()).hasMessageContaining("db down");
+        assertThat(text(feeds.get(nginx))).isEqualTo("deny 10.0.0.1;\n");
+        verify(feedQueries, times(2)).activeValueBytes(IocType.IP);
+    }
+
+    @Test
+    void snapshotsAreServedFromFilesAndOnlyTheTwoNewestAreKept() throws IOException {
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(counted("10.0.0.1"));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        for (int i = 0; i < 3; i++) {
+            Snapshot snapshot = feeds.get(nginx).block();
+            assertThat(snapshot.body().isFile()).isTrue();
+            assertThat(snapshot.stale()).isFalse();
+            feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.IP, Set.of("1"))));
+        }
+
+        try (var files = Files.list(dir)) {
+            assertThat(files.map(f -> f.getFileName().toString()))
+                    .hasSize(2)
+                    .allMatch(name -> name.matches("ips\\.nginx\\.\\d+"));
+        }
+    }
+
+    @Test
+    void lastSnapshotIsServedStaleWhileTheDatabaseIsDown() {
+        when(feedQueries.activeValueBytes(IocType.IP))
+                .thenReturn(counted("10.0.0.1"), Flux.error(new IllegalStateException("db down")));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+        feeds.get(nginx).block();
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.IP, Set.of("1"))));
+        Snapshot stale = feeds.get(nginx).block();
+
+        assertThat(stale.stale()).isTrue();
+        assertThat(text(Mono.just(stale))).isEqualTo("deny 10.0.0.1;\n");
+    }
+
+    @Test
+    void snapshotsOfAPreviousRunAreServedStaleIfTheFirstRenderFails() {
+        store.write("ips.nginx", "deny 10.0.0.9;\n".getBytes(StandardCharsets.UTF_8)).block();
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(Flux.error(new IllegalStateException("db down")));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        feeds.reconcile();
+
+        Snapshot snapshot = feeds.get(feeds.format("ips.nginx")).block();
+
+        assertThat(snapshot.stale()).isTrue();
+        assertThat(text(Mono.just(snapshot))).isEqualTo("deny 10.0.0.9;\n");
+    }
+
+    /** While renders fail, the snapshot on disk is listed and hashed once, not per request. */
+    @Test
+    void fallbackSnapshotIsReadFromDiskOnce() {
+        new SnapshotStore(dir.toString()).write("ips.nginx", "deny 10.0.0.9;\n".getBytes(StandardCharsets.UTF_8))
+                .block();
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(Flux.error(new IllegalStateException("db down")));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        feeds.reconcile();
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        Snapshot first = feeds.get(nginx).block();
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.IP, Set.of("1"))));
+        Snapshot second = feeds.get(nginx).block();
+
+        assertThat(second.body()).isSameAs(first.body());
+        assertThat(second.etag()).isEqualTo(first.etag());
+    }
+
+    @Test
+    void bootServesTheLastSnapshotWithoutTheDatabaseAndReconcilesOnceItIsReady() {
+        store.write("ips.nginx", "deny 10.0.0.9;\n".getBytes(StandardCharsets.UTF_8)).block();
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(counted("10.0.0.1"));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        Snapshot boot = feeds.get(nginx).block();
+        assertThat(boot.stale()).isTrue();
+        assertThat(text(Mono.just(boot))).isEqualTo("deny 10.0.0.9;\n");
+        assertThat(queries).hasValue(0);
+
+        feeds.reconcile();
+
+        Snapshot reconciled = feeds.get(nginx).block();
+        assertThat(reconciled.stale()).isFalse();
+        assertThat(text(Mono.just(reconciled))).isEqualTo("deny 10.0.0.1;\n");
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void snapshotsAreStaleWhileTheChangeBusIsDisconnected() {
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(counted("10.0.0.1"));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        when(changeBus.isConnected()).thenReturn(false);
+        assertThat(feeds.get(nginx).block().stale()).isTrue();
+        when(changeBus.isConnected()).thenReturn(true);
+        assertThat(feeds.get(nginx).block().stale()).isFalse();
+        assertThat(queries).hasValue(1);
+    }
+
+    @Test
+    void emptyTextFeedIsASingleNewline() {
+        assertThat(render(new TextFormat(IocType.URL))).isEqualTo("\n");
+        assertThat(render(new TextFormat(IocType.URL), "http://a.test/", "http://b.test/"))
+                .isEqualTo("http://a.test/\nhttp://b.test/\n");
+    }
+
+    @Test
+    void bundleHoldsEveryListAsNdjsonAndIsRenderedOncePerChange() {
+        Map<IocType, List<byte[]>> lists = new EnumMap<>(IocType.class);
+        lists.put(IocType.IP, List.of(bytes("10.0.0.1")));
+        lists.put(IocType.URL, List.of(bytes("http://evil.test/a\"b\\c\td")));
+        when(feedQueries.activeValueBytesOfAllTypes()).thenReturn(Mono.fromSupplier(() -> {
+            queries.incrementAndGet();
+            return lists;
+        }));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+
+        Snapshot bundle = feeds.bundle().block();
+        assertThat(text(Mono.just(bundle))).isEqualTo("""
+                {"type":"ip","value":"10.0.0.1"}
+                {"type":"url","value":"http://evil.test/a\\"b\\\\c\\u0009d"}
+                """);
+        assertThat(feeds.bundle().block().etag()).isEqualTo(bundle.etag());
+        assertThat(queries).hasValue(1);
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.CHANNEL, Set.of("C1"))));
+        feeds.bundle().block();
+        assertThat(queries).hasValue(1);
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.URL, Set.of("9"))));
+        assertThat(feeds.bundle().block().etag()).isEqualTo(bundle.etag());
+        assertThat(queries).hasValue(2);
+    }
+
+    @Test
+    void shardsSplitTheListOnceAndTogetherCoverItExactlyOnce() throws IOException {
+        final String[] ips = new String[40];
+        for (int i = 0; i < ips.length; i++)
+            ips[i] = "10.0.0." + i;
+        when(feedQueries.activeValueBytes(IocType.IP)).thenReturn(counted(ips));
+        RenderedFeeds feeds = feeds(new NginxFormat());
+        FeedFormat nginx = feeds.format("ips.nginx");
+
+        final List<String> lines = new ArrayList<>();
+        for (int shard = 0; shard < 4; shard++) {
+            final int expected = shard;
+            List<String> shardLines = text(feeds.get(nginx, shard, 4)).lines().toList();
+            assertThat(shardLines).isNotEmpty().allSatisfy(line -> assertThat(FeedShards.shardOf(
+                    bytes(line.substring("deny ".length(), line.length() - 1)), 4)).isEqualTo(expected));
+            lines.addAll(shardLines);
+        }
+        assertThat(lines).containsExactlyInAnyOrderElementsOf(Stream.of(ips).map(ip -> "deny " + ip + ";").toList());
+        assertThat(queries).hasValue(1);
+        try (var files = Files.list(dir)) {
+            assertThat(files.map(f -> f.getFileName().toString()))
+                    .hasSize(4)
+                    .allMatch(name -> name.matches("ips\\.shard-[0-3]-of-4\\.nginx\\.\\d+"));
+        }
+
+        assertThat(text(feeds.get(nginx, 0, 1))).isEqualTo(text(feeds.get(nginx)));
+        assertThatThrownBy(() -> feeds.get(nginx, 4, 4).block()).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> feeds.get(nginx, 0, 65).block()).isInstanceOf(IllegalArgumentException.class);
+
+        feeds.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.IP, Set.of("1"))));
+        feeds.get(nginx, 2, 4).block();
+        assertThat(queries).hasValue(3);
+    }
+
+    @Test
+    void unknownFileNamesHaveNoFormat() {
+        RenderedFeeds feeds = feeds(new NginxFormat());
+
+        assertThat(feeds.format("ips.nginx")).isNotNull();
+        assertThat(feeds.format("domains.nginx")).isNull();
+        assertThat(feeds.format("ips.txt")).isNull();
+    }
+
+    @Test
+    void twoFormatsForTheSameFileAreRejected() {
+        assertThatThrownBy(() -> feeds(new NginxFormat(), new NginxFormat()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("ips.nginx");
+    }
+
+    @Test
+    void ipsetSplitsAddressFamiliesIntoTwoSets() {
+        assertThat(render(new IpsetFormat(), "10.0.0.1", "2001:db8::1", "10.0.0.2")).isEqualTo("""
+                create blacklisthub4 hash:ip family inet -exist
+                create blacklisthub6 hash:ip family inet6 -exist
+                flush blacklisthub4
+                flush blacklisthub6
+                add blacklisthub4 10.0.0.1
+                add blacklisthub4 10.0.0.2
+                add blacklisthub6 2001:db8::1
+                """);
+    }
+
+    @Test
+    void suricataAndSquidFormatsWrapEachValue() {
+        assertThat(render(new SuricataFormat(), "10.0.0.1")).isEqualTo("10.0.0.1,1,127\n");
+        assertThat(render(new SquidFormat(), "evil.test", "bad.example")).isEqualTo(".evil.test\n.bad.example\n");
+    }
+
+    @Test
+    void rpzBlocksEachDomainAndItsSubdomains() {
+        Clock clock = Clock.fixed(Instant.ofEpochSecond(1_700_000_000L), ZoneOffset.UTC);
+
+        assertThat(render(new RpzFormat(clock), "evil.test")).isEqualTo("""
+                $TTL 300
+                @ IN SOA localhost. hostmaster.localhost. 1700000000 3600 600 86400 300
+                @ IN NS localhost.
+                evil.test CNAME .
+                *.evil.test CNAME .
+                """);
+    }
+
+    private RenderedFeeds feeds(FeedFormat... formats) {
+        return new RenderedFeeds(feedQueries, store, changeBus, new BlacklistMetrics(new SimpleMeterRegistry()),
+                List.of(formats), Duration.ZERO, 64);
+    }
+
+    private Flux<byte[]> counted(String... values) {
+        return Flux.defer(() -> {
+            queries.incrementAndGet();
+            return Flux.fromArray(values).map(v -> v.getBytes(StandardCharsets.UTF_8));
+        });
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String render(FeedFormat format, String... values) {
+        return new String(format.render(Flux.fromArray(values)
+                .map(v -> v.getBytes(StandardCharsets.UTF_8))
+                .collectList()
+                .block()), StandardCharsets.UTF_8);
+    }
+
+    private static String text(Mono<Snapshot> snapshot) {
+        try {
+            return snapshot.block().body().getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
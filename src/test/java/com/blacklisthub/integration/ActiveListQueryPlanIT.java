@@ -0,0 +1,218 @@
+package com.blacklisthub.integration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.repository.DomainRepository;
+import com.blacklisthub.repository.ExpiryQueries;
+import com.blacklisthub.repository.FeedQueries;
+import com.blacklisthub.repository.HashRepository;
+import com.blacklisthub.repository.IpRepository;
+import com.blacklisthub.repository.UrlRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Checks the query plans of the active-list queries against a real MySQL: each
+ * must be served in order from its {@code (active, value)} index, with no full
+ * table scan and no filesort. The SQL is taken from the repositories'
+ * {@code @Query} annotations and from {@link FeedQueries}, so the test follows
+ * the queries the app runs. The expiry engine's window query
+ * ({@link ExpiryQueries}) must likewise be a range scan of its
+ * {@code (active, expires_at)} index.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataR2dbcTest
+@ImportAutoConfiguration(FlywayAutoConfiguration.class)
+class ActiveListQueryPlanIT {
+
+    @Container
+    @SuppressWarnings("resource")
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("blacklist_hub");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () -> "r2dbc:mysql://%s:%d/%s".formatted(
+                MYSQL.getHost(), MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT), MYSQL.getDatabaseName()));
+        registry.add("spring.r2dbc.username", MYSQL::getUsername);
+        registry.add("spring.r2dbc.password", MYSQL::getPassword);
+        registry.add("spring.flyway.url", MYSQL::getJdbcUrl);
+        registry.add("spring.flyway.user", MYSQL::getUsername);
+        registry.add("spring.flyway.password", MYSQL::getPassword);
+    }
+
+    // 900 rows per table (below the default CTE recursion limit), one in ten active.
+    private static final String SEED = "INSERT INTO %s (%s, active, created_by) "
+            + "WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < 900) "
+            + "SELECT %s, i MOD 10 = 0, (SELECT id FROM slack_users WHERE slack_user_id = 'U-plan') FROM n";
+
+    @Autowired
+    DatabaseClient db;
+    @Autowired
+    IpRepository ipRepository;
+    @Autowired
+    ReactiveTransactionManager transactionManager;
+
+    @BeforeEach
+    void seedOnce() {
+        Long seeded = db.sql("SELECT COUNT(*) FROM ip_addresses").map(row -> row.get(0, Long.class)).one().block();
+        if (seeded != null && seeded > 0)
+            return;
+        Flux.concat(
+                db.sql("INSERT INTO slack_users (slack_user_id, display_name) VALUES ('U-plan', 'plan')").then(),
+                db.sql(SEED.formatted("ip_addresses", "ip", "CONCAT('10.', i DIV 256, '.', i MOD 256, '.1')"))
+                        .then(),
+                db.sql(SEED.formatted("hash_indicators", "hash_value", "SHA2(i, 256)")).then(),
+                db.sql(SEED.formatted("domain_indicators", "domain_name", "CONCAT('d', i, '.example.com')"))
+                        .then(),
+                db.sql(SEED.formatted("url_indicators", "url_value", "CONCAT('http://u', i, '.example.com/p')"))
+                        .then(),
+                db.sql("ANALYZE TABLE ip_addresses, hash_indicators, domain_indicators, url_indicators").then())
+                .blockLast();
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "IpRepository,     idx_ip_active_ip,       true",
+            "HashRepository,   idx_hash_active_value,  true",
+            "DomainRepository, idx_domain_active_name, true",
+            "UrlRepository,    idx_url_active_sort,    false"
+    })
+    void activeValuesAreReadInIndexOrderWithoutFilesort(String repository, String index, boolean covering)
+            throws Exception {
+        Map<String, Object> plan = db.sql("EXPLAIN " + activeValuesQuery(repository)).fetch().one().block();
+
+        assertThat(plan).isNotNull();
+        assertThat(plan.get("key")).isEqualTo(index);
+        assertThat(plan.get("type")).isNotEqualTo("ALL");
+        String extra = String.valueOf(plan.get("Extra"));
+        assertThat(extra).doesNotContain("filesort");
+        if (covering)
+            assertThat(extra).contains("Using index");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "IP,     idx_ip_active_ip",
+            "HASH,   idx_hash_active_value",
+            "DOMAIN, idx_domain_active_name",
+            "URL,    idx_url_active_sort"
+    })
+    void feedByteQueriesKeepTheSamePlan(IocType type, String index) {
+        Map<String, Object> plan = db.sql("EXPLAIN " + FeedQueries.activeValueBytesSql(type)).fetch().one().block();
+
+        assertThat(plan).isNotNull();
+        assertThat(plan.get("key")).isEqualTo(index);
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "IP,   idx_ip_active_bin",
+            "HASH, idx_hash_active_value"
+    })
+    void binaryFeedQueriesAreServedFromTheIndex(IocType type, String index) {
+        Map<String, Object> plan = db.sql("EXPLAIN " + FeedQueries.activeBinaryValuesSql(type)).fetch().one()
+                .block();
+
+        assertThat(plan).isNotNull();
+        assertThat(plan.get("key")).isEqualTo(index);
+        String extra = String.valueOf(plan.get("Extra"));
+        assertThat(extra).doesNotContain("filesort").contains("Using index");
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "IP,     idx_ip_active_expires",
+            "HASH,   idx_hash_active_expires",
+            "DOMAIN, idx_domain_active_expires",
+            "URL,    idx_url_active_expires"
+    })
+    void expiringIndicatorsAreARangeScanOfTheExpiryIndex(IocType type, String index) {
+        Map<String, Object> plan = db.sql("EXPLAIN " + ExpiryQueries.expiringSql(type))
+                .bind("until", LocalDateTime.now().plusHours(6))
+                .fetch().one().block();
+
+        assertThat(plan).isNotNull();
+        assertThat(plan.get("key")).isEqualTo(index);
+        assertThat(plan.get("type")).isEqualTo("range");
+        String extra = String.valueOf(plan.get("Extra"));
+        assertThat(extra).doesNotContain("filesort").contains("Using index");
+    }
+
+    @Test
+    void binaryIpsAreTheInet6AtonOfTheActiveAddresses() {
+        StepVerifier.create(feedQueries().activeBinaryValues(IocType.IP).collectList())
+                .assertNext(values -> assertThat(values).hasSize(90).allSatisfy(v -> assertThat(v).hasSize(4)))
+                .verifyComplete();
+        StepVerifier.create(feedQueries().activeBinaryValues(IocType.HASH).collectList())
+                .assertNext(values -> assertThat(values).hasSize(90).allSatisfy(v -> assertThat(v).hasSize(32)))
+                .verifyComplete();
+    }
+
+    @Test
+    void feedBytesAreTheUtf8ValuesInTheSameOrder() {
+        List<String> expected = ipRepository.findActiveValues().collectList().block();
+
+        StepVerifier.create(feedQueries().activeValueBytes(IocType.IP)
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8))
+                .collectList())
+                .assertNext(values -> assertThat(values).hasSize(90).isEqualTo(expected))
+                .verifyComplete();
+    }
+
+    @Test
+    void allTypesAreReadInOneTransactionWithTheSameValuesAsTheSingleFeeds() {
+        FeedQueries queries = feedQueries();
+        Map<IocType, List<byte[]>> expected = new EnumMap<>(IocType.class);
+        for (IocType type : IocType.values())
+            expected.put(type, queries.activeValueBytes(type).collectList().block());
+
+        StepVerifier.create(queries.activeValueBytesOfAllTypes())
+                .assertNext(all -> {
+                    assertThat(all).containsOnlyKeys(IocType.values());
+                    for (IocType type : IocType.values())
+                        assertThat(all.get(type)).hasSize(90).containsExactlyElementsOf(expected.get(type));
+                })
+                .verifyComplete();
+    }
+
+    private FeedQueries feedQueries() {
+        return new FeedQueries(db, transactionManager);
+    }
+
+    private static String activeValuesQuery(String repository) throws Exception {
+        Class<?> type = switch (repository) {
+            case "IpRepository" -> IpRepository.class;
+            case "HashRepository" -> HashRepository.class;
+            case "DomainRepository" -> DomainRepository.class;
+            default -> UrlRepository.class;
+        };
+        return type.getMethod("findActiveValues").getAnnotation(Query.class).value();
+    }
+}
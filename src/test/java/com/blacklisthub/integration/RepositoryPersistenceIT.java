@@ -3,30 +3,46 @@ package com.blacklisthub.integration;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import org.testcontainers.containers.MySQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.BulkJobStatus;
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.FeedConsumerEntity;
 import com.blacklisthub.entity.IocAuditLogEntity;
 import com.blacklisthub.entity.IocType;
 import com.blacklisthub.entity.IpEntity;
 import com.blacklisthub.entity.SlackChannelWhitelistEntity;
 import com.blacklisthub.entity.SlackUserEntity;
 import com.blacklisthub.entity.UrlEntity;
+import com.blacklisthub.repository.BulkJobRepository;
+import com.blacklisthub.repository.ChangeLogRepository;
+import com.blacklisthub.repository.ConsumerPollRepository;
+import com.blacklisthub.repository.ExpiryQueries;
+import com.blacklisthub.repository.IndicatorQueries;
+import com.blacklisthub.repository.FeedConsumerRepository;
 import com.blacklisthub.repository.IocAuditLogRepository;
 import com.blacklisthub.repository.IpRepository;
 import com.blacklisthub.repository.SlackChannelWhitelistRepository;
 import com.blacklisthub.repository.SlackUserRepository;
 import com.blacklisthub.repository.UrlRepository;
+import com.blacklisthub.service.ChangeLogService;
 
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 /**
@@ -37,7 +53,12 @@ import reactor.test.StepVerifier;
  * {@code findByIpNormalized} query;</li>
  * <li>the polymorphic audit log, including the {@code IocType} enum mapping to
  * the {@code ENUM} column (the end-to-end gap left open by T-02);</li>
- * <li>the channel-whitelist authorization query.</li>
+ * <li>the channel-whitelist authorization query;</li>
+ * <li>the bulk job lease ({@code claim} / {@code findClaimable}) and the
+ * owner-conditional {@code checkpoint};</li>
+ * <li>the change log being written in the same transaction as the indicator,
+ * and the change sequence range scan;</li>
+ * <li>the conditional expiry update and the {@code system} audit user.</li>
  * </ul>
  */
 @Testcontainers(disabledWithoutDocker = true)
@@ -71,6 +92,18 @@ class RepositoryPersistenceIT {
     SlackChannelWhitelistRepository channelWhitelistRepository;
     @Autowired
     UrlRepository urlRepository;
+    @Autowired
+    BulkJobRepository bulkJobRepository;
+    @Autowired
+    ChangeLogRepository changeLogRepository;
+    @Autowired
+    FeedConsumerRepository feedConsumerRepository;
+    @Autowired
+    ConsumerPollRepository consumerPollRepository;
+    @Autowired
+    ReactiveTransactionManager transactionManager;
+    @Autowired
+    DatabaseClient db;
 
     private static SlackUserEntity newUser(String slackUserId, String displayName) {
         return SlackUserEntity.builder()
@@ -164,4 +197,214 @@ class RepositoryPersistenceIT {
                 .assertNext(exists -> assertThat(exists).isFalse())
                 .verifyComplete();
     }
+
+    @Test
+    void onlyActiveFeedConsumersAreLoaded() {
+        final String hash = "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+        StepVerifier.create(feedConsumerRepository.saveAll(List.of(
+                FeedConsumerEntity.builder().name("suricata-eu").tokenSha256(hash).requestsPerMinute(0)
+                        .active(true).createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build(),
+                FeedConsumerEntity.builder().name("retired").tokenSha256(hash.replace('9', '8'))
+                        .active(false).createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build()))
+                .thenMany(feedConsumerRepository.findByActiveTrue()))
+                .assertNext(consumer -> {
+                    assertThat(consumer.getName()).isEqualTo("suricata-eu");
+                    assertThat(consumer.getTokenSha256()).isEqualTo(hash);
+                    assertThat(consumer.getRequestsPerMinute()).isZero();
+                    assertThat(consumer.getBurst()).isNull();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void consumerPollsAreSummedAcrossFlushes() {
+        LocalDateTime now = LocalDateTime.now();
+        StepVerifier.create(consumerPollRepository.addPolls("suricata-eu", "ips.txt", "v1", now, null, 3, 2, 100)
+                .then(consumerPollRepository.addPolls("suricata-eu", "ips.txt", "v2", now, 60_000L, 1, 0, 120))
+                .thenMany(consumerPollRepository.findByConsumer("suricata-eu")))
+                .assertNext(polls -> {
+                    assertThat(polls.getFeed()).isEqualTo("ips.txt");
+                    assertThat(polls.getLastEtag()).isEqualTo("v2");
+                    assertThat(polls.getPollIntervalMs()).isEqualTo(60_000L);
+                    assertThat(polls.getRequests()).isEqualTo(4);
+                    assertThat(polls.getNotModified()).isEqualTo(2);
+                    assertThat(polls.getBytes()).isEqualTo(220);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkJobLeaseCanBeClaimedOnlyOnceUntilItGoesStale() {
+        LocalDateTime now = LocalDateTime.now();
+        BulkJobEntity queued = BulkJobEntity.builder()
+                .iocType(IocType.IP)
+                .command("/ip")
+                .slackUserId("U-bulk")
+                .channelId("C-bulk")
+                .items("10.0.0.1\n10.0.0.2")
+                .total(2)
+                .processed(0)
+                .added(0)
+                .reactivated(0)
+                .alreadyActive(0)
+                .invalid(0)
+                .errors(0)
+                .status(BulkJobStatus.QUEUED)
+                .createdAt(now)
+                .build();
+
+        StepVerifier.create(bulkJobRepository.save(queued)
+                .flatMap(job -> bulkJobRepository.claim(job.getId(), "worker-a", now, now.minusMinutes(2))
+                        .then(bulkJobRepository.claim(job.getId(), "worker-b", now, now.minusMinutes(2)))
+                        .zipWith(bulkJobRepository.findById(job.getId()))))
+                .assertNext(result -> {
+                    // worker-b loses while worker-a's heartbeat is fresh.
+                    assertThat(result.getT1()).isZero();
+                    assertThat(result.getT2().getStatus()).isEqualTo(BulkJobStatus.RUNNING);
+                    assertThat(result.getT2().getOwner()).isEqualTo("worker-a");
+                })
+                .verifyComplete();
+
+        StepVerifier.create(bulkJobRepository.findClaimable(now.plusMinutes(5), 10)
+                .filter(job -> "C-bulk".equals(job.getChannelId())))
+                .assertNext(stale -> assertThat(stale.getOwner()).isEqualTo("worker-a"))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkJobCheckpointAppendsDetailsOnlyForTheLeaseHolder() {
+        LocalDateTime now = LocalDateTime.now();
+        BulkJobEntity queued = BulkJobEntity.builder()
+                .iocType(IocType.IP)
+                .command("/ip")
+                .slackUserId("U-checkpoint")
+                .channelId("C-checkpoint")
+                .items("10.0.0.1\n10.0.0.2")
+                .total(2)
+                .processed(0)
+                .added(0)
+                .reactivated(0)
+                .alreadyActive(0)
+                .invalid(0)
+                .errors(0)
+                .status(BulkJobStatus.QUEUED)
+                .createdAt(now)
+                .build();
+
+        StepVerifier.create(bulkJobRepository.save(queued)
+                .flatMap(job -> bulkJobRepository.claim(job.getId(), "worker-a", now, now.minusMinutes(2))
+                        .then(bulkJobRepository.checkpoint(job.getId(), "worker-a", 1, 1, 0, 0, 0, 0, "• one\n",
+                                now))
+                        .then(bulkJobRepository.checkpoint(job.getId(), "worker-a", 2, 2, 0, 0, 0, 0, "• two\n",
+                                now))
+                        .zipWith(bulkJobRepository.checkpoint(job.getId(), "worker-b", 2, 9, 0, 0, 0, 0, "• b\n",
+                                now))
+                        .zipWith(bulkJobRepository.findById(job.getId()))))
+                .assertNext(result -> {
+                    assertThat(result.getT1().getT1()).isEqualTo(1);
+                    assertThat(result.getT1().getT2()).isZero();
+                    assertThat(result.getT2().getStatus()).isEqualTo(BulkJobStatus.RUNNING);
+                    assertThat(result.getT2().getOwner()).isEqualTo("worker-a");
+                    assertThat(result.getT2().getAdded()).isEqualTo(2);
+                    assertThat(result.getT2().getDetails()).isEqualTo("• one\n• two\n");
+                    assertThat(result.getT2().getItems()).isEqualTo("10.0.0.1\n10.0.0.2");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void changeRowCommitsAndRollsBackWithTheIndicatorWrite() {
+        ChangeLogService changeLog = new ChangeLogService(changeLogRepository,
+                TransactionalOperator.create(transactionManager));
+
+        StepVerifier.create(changeLogRepository.findMaxId()
+                .flatMap(before -> slackUserRepository.save(newUser("U-change", "changer"))
+                        .flatMap(user -> changeLog.write(ChangeEntity.IP,
+                                ipRepository.save(newIp("198.51.100.1", user.getId())),
+                                saved -> String.valueOf(saved.getId())))
+                        .flatMap(saved -> changeLogRepository.findAfter(before, 10).collectList()
+                                .map(rows -> rows.get(rows.size() - 1).getEntityKey().equals(
+                                        String.valueOf(saved.getId()))))))
+                .expectNext(true)
+                .verifyComplete();
+
+        // The change row cannot be written, so the indicator must not be either.
+        StepVerifier.create(slackUserRepository.findBySlackUserId("U-change")
+                .flatMap(user -> changeLog.write(ChangeEntity.IP,
+                        ipRepository.save(newIp("198.51.100.2", user.getId())),
+                        saved -> {
+                            throw new IllegalStateException("boom");
+                        })))
+                .expectError(IllegalStateException.class)
+                .verify();
+        StepVerifier.create(ipRepository.findByIpNormalized("198.51.100.2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void changedIndicatorsAreReadBackInChangeSequenceOrder() {
+        ChangeLogService changeLog = new ChangeLogService(changeLogRepository,
+                TransactionalOperator.create(transactionManager));
+
+        StepVerifier.create(db.sql("SELECT v FROM change_seq_counter").map(row -> row.get("v", Long.class)).one()
+                .flatMap(before -> slackUserRepository.save(newUser("U-seq", "sequencer"))
+                        .flatMap(user -> stamped(changeLog, newIp("198.51.100.10", user.getId()))
+                                .then(stamped(changeLog, newIp("198.51.100.11", user.getId()))))
+                        .thenMany(ipRepository.findChangedSince(before, 10))
+                        .collectList()))
+                .assertNext(changed -> {
+                    assertThat(changed).extracting(IpEntity::getIp)
+                            .containsExactly("198.51.100.10", "198.51.100.11");
+                    assertThat(changed).extracting(IpEntity::getChangeSeq).isSorted().doesNotHaveDuplicates();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void expiredIndicatorIsDeactivatedOnceAsTheSystemUser() {
+        ExpiryQueries expiry = new ExpiryQueries(db);
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        SlackUserEntity system = slackUserRepository.findBySlackUserId("system").block();
+        assertThat(system).isNotNull();
+        Long creator = slackUserRepository.save(newUser("U-expiry", "expirer")).block().getId();
+        IpEntity expired = newIp("198.51.100.20", creator);
+        expired.setExpiresAt(now.minusMinutes(1));
+        IpEntity later = newIp("198.51.100.21", creator);
+        later.setExpiresAt(now.plusDays(1));
+        Long expiredId = ipRepository.save(expired).block().getId();
+        Long laterId = ipRepository.save(later).block().getId();
+
+        StepVerifier.create(expiry.expiring(IocType.IP, now))
+                .expectNext(new ExpiryQueries.Expiring(expiredId, now.minusMinutes(1)))
+                .verifyComplete();
+
+        // A second attempt (another replica) and an unexpired indicator change nothing.
+        StepVerifier.create(expiry.deactivateIfExpired(IocType.IP, expiredId, now, system.getId())
+                .concatWith(expiry.deactivateIfExpired(IocType.IP, expiredId, now, system.getId()))
+                .concatWith(expiry.deactivateIfExpired(IocType.IP, laterId, now, system.getId())))
+                .expectNext(1L, 0L, 0L)
+                .verifyComplete();
+
+        StepVerifier.create(ipRepository.findById(expiredId))
+                .assertNext(ip -> {
+                    assertThat(ip.getActive()).isFalse();
+                    assertThat(ip.getDeactivatedBy()).isEqualTo(system.getId());
+                })
+                .verifyComplete();
+    }
+
+    private Mono<IpEntity> stamped(ChangeLogService changeLog, IpEntity ip) {
+        return changeLog.write(ChangeEntity.IP, ipRepository.save(ip), saved -> String.valueOf(saved.getId()),
+                saved -> new IndicatorQueries(db).stampChangeSeq(IocType.IP, saved.getId()).thenReturn(saved));
+    }
+
+    private static IpEntity newIp(String ip, Long createdBy) {
+        return IpEntity.builder()
+                .ip(ip)
+                .reason("change log test")
+                .active(true)
+                .createdBy(createdBy)
+                .createdAt(LocalDateTime.now())
+                .build();
+    }
 }
@@ -7,6 +7,8 @@ import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
 import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.FeedConsumerEntity;
 import com.blacklisthub.entity.IocAuditLogEntity;
 import com.blacklisthub.entity.IpEntity;
 import com.blacklisthub.entity.SlackChannelWhitelistEntity;
@@ -43,5 +45,7 @@ class EntityColumnMappingDiagnosticTest {
         assertThat(columnOf(SlackUserEntity.class, "slackUserId")).isEqualTo("slack_user_id");
         assertThat(columnOf(IocAuditLogEntity.class, "iocType")).isEqualTo("ioc_type");
         assertThat(columnOf(SlackChannelWhitelistEntity.class, "channelId")).isEqualTo("channel_id");
+        assertThat(columnOf(FeedConsumerEntity.class, "tokenSha256")).isEqualTo("token_sha256");
+        assertThat(columnOf(BulkJobEntity.class, "expiresAt")).isEqualTo("expires_at");
     }
 }
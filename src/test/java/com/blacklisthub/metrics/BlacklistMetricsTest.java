@@ -0,0 +1,66 @@
+package com.blacklisthub.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.entity.IocType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BlacklistMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final BlacklistMetrics metrics = new BlacklistMetrics(registry);
+
+    @Test
+    void commandTimerIsTaggedByTypeSubcommandAndReplyOutcome() {
+        StepVerifier.create(metrics.timeCommand(IocType.IP, "ADD", Mono.just(":white_check_mark: Added `1.2.3.4`")))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(metrics.timeCommand(IocType.IP, "add", Mono.just(":x: Error while adding `1.2.3.4`.")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(registry.get(BlacklistMetrics.COMMAND_TIMER)
+                .tags("type", "IP", "sub", "add", "outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(registry.get(BlacklistMetrics.COMMAND_TIMER)
+                .tags("type", "IP", "sub", "add", "outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void unknownSubcommandsDoNotCreateNewTagValues() {
+        assertThat(BlacklistMetrics.subcommandTag("whatever-typo")).isEqualTo("unknown");
+        assertThat(BlacklistMetrics.subcommandTag("")).isEqualTo("usage");
+        assertThat(BlacklistMetrics.subcommandTag("Bulk")).isEqualTo("bulk");
+    }
+
+    @Test
+    void byteFeedRecordsItsLength() {
+        StepVerifier.create(metrics.timeFeedBytes(IocType.IP, "ips.txt", Mono.just("10.0.0.1\n".getBytes())))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(registry.get(BlacklistMetrics.FEED_BYTES_SUMMARY).tags("type", "IP", "feed", "ips.txt", "shards", "1")
+                .summary().totalAmount()).isEqualTo(9);
+        assertThat(registry.get(BlacklistMetrics.FEED_RENDER_TIMER).tags("type", "IP", "feed", "ips.txt", "shards", "1", "outcome", "success")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shardedFeedRecordsTheTotalOfItsShards() {
+        StepVerifier.create(metrics.timeFeedShards(IocType.IP, "ips.txt", 2,
+                Mono.just(List.of("10.0.0.1\n".getBytes(), "10.0.0.2\n".getBytes()))))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(registry.get(BlacklistMetrics.FEED_BYTES_SUMMARY).tags("feed", "ips.txt", "shards", "2")
+                .summary().totalAmount()).isEqualTo(18);
+        assertThat(registry.get(BlacklistMetrics.FEED_RENDER_TIMER).tags("feed", "ips.txt", "shards", "2")
+                .timer().count()).isEqualTo(1);
+    }
+}
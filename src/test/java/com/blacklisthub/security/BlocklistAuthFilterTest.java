@@ -1,6 +1,13 @@
 package com.blacklisthub.security;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpHeaders;
@@ -9,6 +16,12 @@ import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
 import org.springframework.mock.web.server.MockServerWebExchange;
 import org.springframework.web.server.WebFilterChain;
 
+import com.blacklisthub.entity.FeedConsumerEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.FeedConsumerRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -19,9 +32,12 @@ class BlocklistAuthFilterTest {
     /** A chain that "handles" the request without setting a status code. */
     private static final WebFilterChain PASS_THROUGH = exchange -> Mono.empty();
 
+    private final FeedConsumerRepository repository = mock(FeedConsumerRepository.class);
+    private final SimpleMeterRegistry meters = new SimpleMeterRegistry();
+
     @Test
     void allowsBlocklistRequestWithValidToken() {
-        BlocklistAuthFilter filter = new BlocklistAuthFilter(TOKEN);
+        BlocklistAuthFilter filter = filter(TOKEN);
         MockServerWebExchange exchange = MockServerWebExchange.from(
                 MockServerHttpRequest.get("/blacklist/ips.txt")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer " + TOKEN));
@@ -32,7 +48,7 @@ class BlocklistAuthFilterTest {
 
     @Test
     void rejectsBlocklistRequestWithWrongToken() {
-        BlocklistAuthFilter filter = new BlocklistAuthFilter(TOKEN);
+        BlocklistAuthFilter filter = filter(TOKEN);
         MockServerWebExchange exchange = MockServerWebExchange.from(
                 MockServerHttpRequest.get("/blacklist/ips.txt")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer wrong"));
@@ -43,7 +59,7 @@ class BlocklistAuthFilterTest {
 
     @Test
     void rejectsBlocklistRequestWithoutAuthorizationHeader() {
-        BlocklistAuthFilter filter = new BlocklistAuthFilter(TOKEN);
+        BlocklistAuthFilter filter = filter(TOKEN);
         MockServerWebExchange exchange = MockServerWebExchange.from(
                 MockServerHttpRequest.get("/blacklist/hashes.txt"));
 
@@ -53,7 +69,7 @@ class BlocklistAuthFilterTest {
 
     @Test
     void rejectsEveryBlocklistRequestWhenTokenNotConfigured() {
-        BlocklistAuthFilter filter = new BlocklistAuthFilter("");
+        BlocklistAuthFilter filter = filter("");
         MockServerWebExchange exchange = MockServerWebExchange.from(
                 MockServerHttpRequest.get("/blacklist/ips.txt")
                         .header(HttpHeaders.AUTHORIZATION, "Bearer anything"));
@@ -64,11 +80,143 @@ class BlocklistAuthFilterTest {
 
     @Test
     void ignoresNonBlocklistPathsEvenWithoutToken() {
-        BlocklistAuthFilter filter = new BlocklistAuthFilter("");
+        BlocklistAuthFilter filter = filter("");
         MockServerWebExchange exchange = MockServerWebExchange.from(
                 MockServerHttpRequest.get("/actuator/health"));
 
         StepVerifier.create(filter.filter(exchange, PASS_THROUGH)).verifyComplete();
         assertThat(exchange.getResponse().getStatusCode()).isNull();
     }
+
+    @Test
+    void allowsConsumersRegisteredWithTheirTokenHash() {
+        when(repository.findByActiveTrue()).thenReturn(Flux.just(consumer("suricata-eu", "eu-token", null)));
+        ConsumerRegistry registry = registry(TOKEN);
+        BlocklistAuthFilter filter = new BlocklistAuthFilter(registry);
+        registry.refresh().block();
+
+        MockServerWebExchange exchange = request("eu-token");
+        StepVerifier.create(filter.filter(exchange, SEND_42_BYTES)).verifyComplete();
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(exchange.<String>getAttribute(BlocklistAuthFilter.CONSUMER_ATTRIBUTE)).isEqualTo("suricata-eu");
+        assertThat(meters.get(BlacklistMetrics.CONSUMER_BYTES_COUNTER).tag("consumer", "suricata-eu").counter()
+                .count()).isEqualTo(42);
+
+        StepVerifier.create(filter.filter(request(TOKEN), PASS_THROUGH)).verifyComplete();
+        assertThat(meters.get(BlacklistMetrics.CONSUMER_REQUESTS_COUNTER).tag("consumer", "api-token")
+                .tag("outcome", "served").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void consumerOverItsRateGets429WithoutAffectingOthers() {
+        when(repository.findByActiveTrue()).thenReturn(Flux.just(consumer("noisy", "noisy-token", 2)));
+        ConsumerRegistry registry = registry(TOKEN);
+        BlocklistAuthFilter filter = new BlocklistAuthFilter(registry);
+        registry.refresh().block();
+
+        for (int i = 0; i < 2; i++) {
+            MockServerWebExchange allowed = request("noisy-token");
+            StepVerifier.create(filter.filter(allowed, PASS_THROUGH)).verifyComplete();
+            assertThat(allowed.getResponse().getStatusCode()).isNull();
+        }
+        MockServerWebExchange limited = request("noisy-token");
+        StepVerifier.create(filter.filter(limited, PASS_THROUGH)).verifyComplete();
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(limited.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        MockServerWebExchange other = request(TOKEN);
+        StepVerifier.create(filter.filter(other, PASS_THROUGH)).verifyComplete();
+        assertThat(other.getResponse().getStatusCode()).isNull();
+    }
+
+    @Test
+    void sharedApiTokenIsNotRateLimitedByDefault() {
+        ConsumerRegistry registry = new ConsumerRegistry(repository, new BlacklistMetrics(meters), TOKEN, 1, 1, 0);
+        BlocklistAuthFilter filter = new BlocklistAuthFilter(registry);
+
+        for (int i = 0; i < 5; i++) {
+            MockServerWebExchange exchange = request(TOKEN);
+            StepVerifier.create(filter.filter(exchange, PASS_THROUGH)).verifyComplete();
+            assertThat(exchange.getResponse().getStatusCode()).isNull();
+        }
+    }
+
+    @Test
+    void sharedApiTokenCanBeGivenItsOwnRate() {
+        ConsumerRegistry registry = new ConsumerRegistry(repository, new BlacklistMetrics(meters), TOKEN, 60, 1, 1);
+        BlocklistAuthFilter filter = new BlocklistAuthFilter(registry);
+
+        StepVerifier.create(filter.filter(request(TOKEN), PASS_THROUGH)).verifyComplete();
+        MockServerWebExchange limited = request(TOKEN);
+        StepVerifier.create(filter.filter(limited, PASS_THROUGH)).verifyComplete();
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void consumerKeepsItsBucketAcrossRefreshes() {
+        when(repository.findByActiveTrue()).thenReturn(Flux.just(consumer("noisy", "noisy-token", 1)));
+        ConsumerRegistry registry = registry("");
+        BlocklistAuthFilter filter = new BlocklistAuthFilter(registry);
+        registry.refresh().block();
+
+        StepVerifier.create(filter.filter(request("noisy-token"), PASS_THROUGH)).verifyComplete();
+        registry.refresh().block();
+
+        MockServerWebExchange limited = request("noisy-token");
+        StepVerifier.create(filter.filter(limited, PASS_THROUGH)).verifyComplete();
+        assertThat(limited.getResponse().getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    void tokenBucketRefillsOneTokenPerInterval() {
+        final long second = 1_000_000_000L;
+        TokenBucket bucket = new TokenBucket(60, 3, 0);
+
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isZero();
+        assertThat(bucket.tryAcquire(0)).isEqualTo(second);
+        assertThat(bucket.tryAcquire(second / 2)).isEqualTo(second / 2);
+        assertThat(bucket.tryAcquire(second)).isZero();
+        assertThat(bucket.tryAcquire(second)).isEqualTo(second);
+        // A long idle period refills the bucket only up to its burst.
+        assertThat(bucket.tryAcquire(100 * second)).isZero();
+        assertThat(bucket.tryAcquire(100 * second)).isZero();
+        assertThat(bucket.tryAcquire(100 * second)).isZero();
+        assertThat(bucket.tryAcquire(100 * second)).isPositive();
+    }
+
+    /** A chain that sends a 42-byte response. */
+    private static final WebFilterChain SEND_42_BYTES = exchange -> {
+        exchange.getResponse().setStatusCode(HttpStatus.OK);
+        exchange.getResponse().getHeaders().setContentLength(42);
+        return exchange.getResponse().setComplete();
+    };
+
+    private BlocklistAuthFilter filter(String apiToken) {
+        return new BlocklistAuthFilter(registry(apiToken));
+    }
+
+    private ConsumerRegistry registry(String apiToken) {
+        return new ConsumerRegistry(repository, new BlacklistMetrics(meters), apiToken, 60, 10, 0);
+    }
+
+    private static MockServerWebExchange request(String token) {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/blacklist/ips.txt")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+    }
+
+    private static FeedConsumerEntity consumer(String name, String token, Integer burst) {
+        try {
+            return FeedConsumerEntity.builder()
+                    .name(name)
+                    .tokenSha256(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                            .digest(token.getBytes(StandardCharsets.UTF_8))))
+                    .burst(burst)
+                    .active(true)
+                    .build();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
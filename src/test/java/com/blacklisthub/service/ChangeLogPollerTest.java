@@ -0,0 +1,143 @@
+package com.blacklisthub.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.ChangeLogEntity;
+import com.blacklisthub.repository.ChangeLogRepository;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+class ChangeLogPollerTest {
+
+    private static final long GAP_TIMEOUT = Duration.ofSeconds(10).toNanos();
+
+    private final ChangeLogRepository repository = mock(ChangeLogRepository.class);
+    private final List<DataChangedEvent> published = new ArrayList<>();
+    private final ApplicationEventPublisher events = event -> published.add((DataChangedEvent) event);
+    private final ChangeLogPoller poller = new ChangeLogPoller(repository, events, Duration.ofSeconds(10),
+            Duration.ofDays(1));
+
+    @BeforeEach
+    void startAtTheEndOfTheLog() {
+        when(repository.findMaxId()).thenReturn(Mono.just(10L));
+        poller.start();
+    }
+
+    @Test
+    void changesArePublishedGroupedByEntityAndTheMarkAdvances() {
+        poller.apply(List.of(row(11, ChangeEntity.IP, "5"), row(12, ChangeEntity.IP, "6"),
+                row(13, ChangeEntity.CHANNEL, "C1")), 0);
+
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).keys(ChangeEntity.IP)).containsExactlyInAnyOrder("5", "6");
+        assertThat(published.get(0).keys(ChangeEntity.CHANNEL)).containsExactly("C1");
+        assertThat(published.get(0).touches(ChangeEntity.USER)).isFalse();
+        assertThat(poller.mark()).isEqualTo(13);
+    }
+
+    /**
+     * Id 12 commits after id 13: 13 is published at once, the scan stays at 11
+     * until 12 shows up, and 13 is not published again.
+     */
+    @Test
+    void lateCommitBehindAGapIsStillDelivered() {
+        poller.apply(List.of(row(11, ChangeEntity.IP, "1"), row(13, ChangeEntity.HASH, "3")), 0);
+        assertThat(poller.mark()).isEqualTo(11);
+
+        poller.apply(List.of(row(12, ChangeEntity.URL, "2"), row(13, ChangeEntity.HASH, "3")), 1);
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1).keys()).containsOnlyKeys(ChangeEntity.URL);
+        assertThat(poller.mark()).isEqualTo(13);
+    }
+
+    /** A rolled-back insert leaves a hole that is skipped after the gap timeout. */
+    @Test
+    void gapThatNeverFillsIsSkippedAfterTheTimeout() {
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), 0);
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), GAP_TIMEOUT - 1);
+        assertThat(poller.mark()).isEqualTo(10);
+
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), GAP_TIMEOUT);
+
+        assertThat(poller.mark()).isEqualTo(12);
+        assertThat(published).hasSize(1);
+        assertThat(published.get(0).keys(ChangeEntity.IP)).isEqualTo(Set.of("2"));
+    }
+
+    /**
+     * Id 11 belongs to a transaction still open when its gap timed out: once
+     * it commits, it is read back by id and published, once.
+     */
+    @Test
+    void commitBehindASkippedGapIsStillDelivered() {
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), 0);
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), GAP_TIMEOUT);
+        assertThat(poller.mark()).isEqualTo(12);
+
+        when(repository.findAfter(12, 1000)).thenReturn(Flux.empty());
+        when(repository.findByIds(List.of(11L))).thenReturn(Flux.just(row(11, ChangeEntity.DOMAIN, "1")));
+        poller.poll();
+        // Read again by a poll that was already running: not published twice.
+        poller.applyLate(List.of(row(11, ChangeEntity.DOMAIN, "1")), GAP_TIMEOUT + 1);
+
+        assertThat(published).hasSize(2);
+        assertThat(published.get(1).keys(ChangeEntity.DOMAIN)).containsExactly("1");
+        verify(repository).findByIds(List.of(11L));
+    }
+
+    /** A skipped id that never commits is forgotten after the retention. */
+    @Test
+    void skippedIdIsWatchedOnlyForTheRetention() {
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), 0);
+        poller.apply(List.of(row(12, ChangeEntity.IP, "2")), GAP_TIMEOUT);
+
+        poller.applyLate(List.of(), GAP_TIMEOUT + Duration.ofDays(1).toNanos());
+        poller.applyLate(List.of(row(11, ChangeEntity.DOMAIN, "1")), GAP_TIMEOUT + Duration.ofDays(1).toNanos());
+
+        assertThat(published).hasSize(1);
+        when(repository.findAfter(12, 1000)).thenReturn(Flux.empty());
+        poller.poll();
+        verify(repository, never()).findByIds(anyCollection());
+    }
+
+    @Test
+    void pollIsSkippedUntilTheStartingPointIsKnown() {
+        ChangeLogPoller unstarted = new ChangeLogPoller(repository, events, Duration.ofSeconds(10),
+                Duration.ofDays(1));
+        when(repository.findMaxId()).thenReturn(Mono.error(new IllegalStateException("db down")));
+
+        // Before DatabaseReadyEvent the log is not read at all.
+        unstarted.poll();
+        verify(repository, times(1)).findMaxId();
+
+        unstarted.start();
+        unstarted.poll();
+
+        verify(repository, times(3)).findMaxId();
+        verify(repository, never()).findAfter(anyLong(), anyInt());
+    }
+
+    private static ChangeLogEntity row(long id, ChangeEntity entity, String key) {
+        return ChangeLogEntity.builder().id(id).entity(entity).entityKey(key).build();
+    }
+}
@@ -0,0 +1,71 @@
+package com.blacklisthub.service;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.repository.ConsumerPollRepository;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ConsumerTelemetryTest {
+
+    private final ConsumerPollRepository repository = mock(ConsumerPollRepository.class);
+    private final ConsumerTelemetry telemetry = new ConsumerTelemetry(repository);
+
+    @Test
+    void flushAddsTheCountsSinceTheLastFlush() {
+        when(repository.addPolls(anyString(), anyString(), anyString(), any(), any(), anyLong(), anyLong(),
+                anyLong())).thenReturn(Mono.just(1));
+
+        telemetry.record("suricata-eu", "ips.txt", "v1", false, 100);
+        telemetry.record("suricata-eu", "ips.txt", "v1", true, 0);
+        telemetry.record("suricata-eu", "ips.txt", "v1", true, 0);
+        StepVerifier.create(telemetry.flush()).expectNext(1L).verifyComplete();
+        verify(repository).addPolls(eq("suricata-eu"), eq("ips.txt"), eq("v1"), any(), any(), eq(3L), eq(2L),
+                eq(100L));
+
+        telemetry.record("suricata-eu", "ips.txt", "v2", false, 120);
+        StepVerifier.create(telemetry.flush()).expectNext(1L).verifyComplete();
+        verify(repository).addPolls(eq("suricata-eu"), eq("ips.txt"), eq("v2"), any(), any(), eq(1L), eq(0L),
+                eq(120L));
+
+        // Nothing new: no write.
+        StepVerifier.create(telemetry.flush()).expectNext(0L).verifyComplete();
+    }
+
+    @Test
+    void countsOfAFailedFlushAreSentWithTheNextOne() {
+        when(repository.addPolls(anyString(), anyString(), anyString(), any(), any(), anyLong(), anyLong(),
+                anyLong())).thenReturn(Mono.error(new IllegalStateException("db down")), Mono.just(1));
+
+        telemetry.record("squid-hq", "domains.squid", "v1", false, 50);
+        assertThatThrownBy(() -> telemetry.flush().block()).hasMessageContaining("db down");
+        telemetry.record("squid-hq", "domains.squid", "v1", true, 0);
+        StepVerifier.create(telemetry.flush()).expectNext(1L).verifyComplete();
+
+        verify(repository).addPolls(eq("squid-hq"), eq("domains.squid"), eq("v1"), any(), any(), eq(2L), eq(1L),
+                eq(50L));
+    }
+
+    @Test
+    void firstPollHasNoIntervalYet() {
+        when(repository.addPolls(anyString(), anyString(), anyString(), any(), any(), anyLong(), anyLong(),
+                anyLong())).thenReturn(Mono.just(1));
+
+        telemetry.record("suricata-eu", "hashes.bin", "v1", false, 10);
+        telemetry.flush().block();
+
+        verify(repository).addPolls(eq("suricata-eu"), eq("hashes.bin"), eq("v1"), any(), isNull(), eq(1L),
+                eq(0L), eq(10L));
+    }
+}
@@ -0,0 +1,210 @@
+package com.blacklisthub.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.BulkJobStatus;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.BulkJobRepository;
+import com.blacklisthub.repository.IpRepository;
+import com.blacklisthub.slack.config.BulkJobProps;
+import com.blacklisthub.slack.config.IocDescriptorConfig;
+import com.blacklisthub.slack.ioc.BulkChunk;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.blacklisthub.slack.service.IocCommandService;
+import com.blacklisthub.slack.service.SlackUserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * The worker against an in-memory {@code bulk_jobs} row that applies the
+ * lease conditions of the repository's queries.
+ */
+class BulkJobWorkerTest {
+
+    private final BulkJobRepository repository = mock(BulkJobRepository.class);
+    private final IocCommandService iocCommandService = mock(IocCommandService.class);
+    private final SlackUserService slackUserService = mock(SlackUserService.class);
+    private final SlackResponder responder = mock(SlackResponder.class);
+    private final BulkJobProps props = new BulkJobProps(2, 1, 100, Duration.ofMinutes(2));
+    private final BulkJobEntity row = BulkJobEntity.builder()
+            .id(7L)
+            .iocType(IocType.IP)
+            .command("/ip")
+            .slackUserId("U1")
+            .channelId("C1")
+            .items("10.0.0.1\n10.0.0.2")
+            .total(2)
+            .processed(0)
+            .added(0)
+            .reactivated(0)
+            .alreadyActive(0)
+            .invalid(0)
+            .errors(0)
+            .status(BulkJobStatus.QUEUED)
+            .build();
+
+    @BeforeEach
+    void fakeRow() {
+        when(repository.findClaimable(any(), anyInt())).thenAnswer(
+                inv -> claimable(inv.getArgument(0)) ? Flux.just(snapshot()) : Flux.empty());
+        when(repository.claim(anyLong(), anyString(), any(), any())).thenAnswer(inv -> {
+            if (!claimable(inv.getArgument(3)))
+                return Mono.just(0);
+            row.setStatus(BulkJobStatus.RUNNING);
+            row.setOwner(inv.getArgument(1));
+            row.setHeartbeatAt(inv.getArgument(2));
+            return Mono.just(1);
+        });
+        when(repository.checkpoint(anyLong(), anyString(), anyInt(), anyInt(), anyInt(), anyInt(), anyInt(),
+                anyInt(), any(), any())).thenAnswer(inv -> {
+                    if (!holds(inv.getArgument(1)))
+                        return Mono.just(0);
+                    row.setProcessed(inv.getArgument(2));
+                    row.setAdded(inv.getArgument(3));
+                    row.setHeartbeatAt(inv.getArgument(9));
+                    return Mono.just(1);
+                });
+        when(repository.finish(anyLong(), anyString(), anyString(), any())).thenAnswer(inv -> {
+            if (!holds(inv.getArgument(1)))
+                return Mono.just(0);
+            row.setStatus(BulkJobStatus.valueOf(inv.getArgument(2)));
+            return Mono.just(1);
+        });
+        when(slackUserService.ensureAndEnrichSlackUser("U1", null))
+                .thenReturn(Mono.just(SlackUserEntity.builder().id(1L).build()));
+        when(responder.progress(any(), any())).thenReturn(BulkProgressListener.NONE);
+    }
+
+    /**
+     * While the second chunk runs, the row stays leased to the first worker:
+     * another worker polling the queue finds nothing to claim.
+     */
+    @Test
+    void jobInProgressCannotBeClaimedAgainAfterItsFirstCheckpoint() {
+        Sinks.One<BulkChunk> secondChunk = Sinks.one();
+        chunk("10.0.0.1", Mono.just(added()));
+        chunk("10.0.0.2", secondChunk.asMono());
+
+        BulkJobWorker worker = worker();
+
+        assertThat(row.getProcessed()).isEqualTo(1);
+        assertThat(row.getStatus()).isEqualTo(BulkJobStatus.RUNNING);
+        final String owner = row.getOwner();
+        assertThat(owner).isNotNull();
+
+        worker().poll();
+        worker.poll();
+        verify(repository, times(1)).claim(anyLong(), anyString(), any(), any());
+        assertThat(row.getOwner()).isEqualTo(owner);
+
+        secondChunk.tryEmitValue(added());
+
+        assertThat(row.getProcessed()).isEqualTo(2);
+        assertThat(row.getAdded()).isEqualTo(2);
+        assertThat(row.getStatus()).isEqualTo(BulkJobStatus.DONE);
+        verify(responder).post(eq("C1"), eq("U1"), any(), eq("/ip"));
+        verify(repository, never()).save(any());
+    }
+
+    /** A worker whose lease was taken over stops without finishing or reporting the job. */
+    @Test
+    void workerThatLostItsLeaseStopsWithoutTouchingTheJob() {
+        Sinks.One<BulkChunk> firstChunk = Sinks.one();
+        chunk("10.0.0.1", firstChunk.asMono());
+
+        worker();
+        row.setOwner("worker-other");
+        firstChunk.tryEmitValue(added());
+
+        assertThat(row.getProcessed()).isZero();
+        assertThat(row.getStatus()).isEqualTo(BulkJobStatus.RUNNING);
+        verify(iocCommandService, never()).bulkChunk(any(), any(), eq(List.of("10.0.0.2")), any(), any(), any(),
+                anyInt(), anyInt());
+        verify(repository, never()).finish(anyLong(), anyString(), anyString(), any());
+        verify(responder, never()).post(any(), any(), any(), any());
+    }
+
+    @Test
+    void queueIsNotPolledBeforeTheDatabaseIsReady() {
+        unready().poll();
+
+        verify(repository, never()).findClaimable(any(), anyInt());
+        assertThat(row.getStatus()).isEqualTo(BulkJobStatus.QUEUED);
+    }
+
+    /** A worker that got {@code DatabaseReadyEvent}, and so polled the queue once. */
+    private BulkJobWorker worker() {
+        BulkJobWorker worker = unready();
+        worker.onDatabaseReady();
+        return worker;
+    }
+
+    private BulkJobWorker unready() {
+        return new BulkJobWorker(repository, iocCommandService, slackUserService, responder, props,
+                List.of(new IocDescriptorConfig().ipDescriptor(mock(IpRepository.class))),
+                new BlacklistMetrics(new SimpleMeterRegistry()));
+    }
+
+    private void chunk(String value, Mono<BulkChunk> result) {
+        when(iocCommandService.bulkChunk(any(), any(), eq(List.of(value)), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(result);
+    }
+
+    private static BulkChunk added() {
+        return new BulkChunk(1, 0, 0, 0, 0, "• added\n");
+    }
+
+    private boolean claimable(LocalDateTime staleBefore) {
+        return row.getStatus() == BulkJobStatus.QUEUED
+                || (row.getStatus() == BulkJobStatus.RUNNING && row.getHeartbeatAt().isBefore(staleBefore));
+    }
+
+    private boolean holds(String owner) {
+        return row.getStatus() == BulkJobStatus.RUNNING && owner.equals(row.getOwner());
+    }
+
+    /** What {@code findClaimable} reads: a fresh copy of the row. */
+    private BulkJobEntity snapshot() {
+        return BulkJobEntity.builder()
+                .id(row.getId())
+                .iocType(row.getIocType())
+                .command(row.getCommand())
+                .slackUserId(row.getSlackUserId())
+                .channelId(row.getChannelId())
+                .items(row.getItems())
+                .total(row.getTotal())
+                .processed(row.getProcessed())
+                .added(row.getAdded())
+                .reactivated(row.getReactivated())
+                .alreadyActive(row.getAlreadyActive())
+                .invalid(row.getInvalid())
+                .errors(row.getErrors())
+                .status(row.getStatus())
+                .owner(row.getOwner())
+                .heartbeatAt(row.getHeartbeatAt())
+                .build();
+    }
+}
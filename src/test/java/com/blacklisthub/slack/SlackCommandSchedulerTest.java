@@ -0,0 +1,60 @@
+package com.blacklisthub.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.slack.config.CommandSchedulerProps;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+class SlackCommandSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private SlackCommandScheduler scheduler(int inFlight, int queued, int perUser) {
+        return new SlackCommandScheduler(new CommandSchedulerProps(inFlight, queued, perUser),
+                new BlacklistMetrics(registry), Schedulers.immediate());
+    }
+
+    @Test
+    void queuedCommandsAreServedRoundRobinAcrossUsers() {
+        SlackCommandScheduler scheduler = scheduler(1, 10, 10);
+        List<String> order = new ArrayList<>();
+        Sinks.Empty<Void> gate = Sinks.empty();
+
+        // Occupies the only slot until the gate opens.
+        scheduler.submit("blocker", () -> gate.asMono().thenReturn("blocker")).subscribe(order::add);
+        scheduler.submit("alice", () -> Mono.just("alice-1")).subscribe(order::add);
+        scheduler.submit("alice", () -> Mono.just("alice-2")).subscribe(order::add);
+        scheduler.submit("alice", () -> Mono.just("alice-3")).subscribe(order::add);
+        scheduler.submit("bob", () -> Mono.just("bob-1")).subscribe(order::add);
+
+        assertThat(order).isEmpty();
+        gate.tryEmitEmpty();
+
+        assertThat(order).containsExactly("blocker", "alice-1", "bob-1", "alice-2", "alice-3");
+    }
+
+    @Test
+    void userOverItsQueueLimitGetsBusyReply() {
+        SlackCommandScheduler scheduler = scheduler(1, 10, 1);
+        Sinks.Empty<Void> gate = Sinks.empty();
+
+        scheduler.submit("blocker", () -> gate.asMono().thenReturn("done")).subscribe();
+        scheduler.submit("alice", () -> Mono.just("first")).subscribe();
+
+        StepVerifier.create(scheduler.submit("alice", () -> Mono.just("second")))
+                .expectNext(SlackCommandScheduler.BUSY_REPLY)
+                .verifyComplete();
+        assertThat(registry.get(BlacklistMetrics.COMMANDS_REJECTED_COUNTER).counter().count()).isEqualTo(1);
+    }
+}
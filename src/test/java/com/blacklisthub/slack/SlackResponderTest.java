@@ -0,0 +1,65 @@
+package com.blacklisthub.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.slack.config.SlackResponseProps;
+import com.slack.api.methods.MethodsClient;
+import com.slack.api.methods.request.chat.ChatPostMessageRequest;
+import com.slack.api.methods.response.chat.ChatPostMessageResponse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.scheduler.Schedulers;
+
+class SlackResponderTest {
+
+    private final MethodsClient slackMethods = mock(MethodsClient.class);
+    private final SlackResponder responder = new SlackResponder(new SlackResponseProps(3500, 5, Duration.ZERO),
+            slackMethods, new BlacklistMetrics(new SimpleMeterRegistry()), Schedulers.immediate());
+
+    @Test
+    void postGoesToTheChannel() throws Exception {
+        when(slackMethods.chatPostMessage(any(ChatPostMessageRequest.class))).thenReturn(response(null));
+
+        responder.post("C1", "U1", "done", "/ip");
+
+        assertThat(posted()).extracting(ChatPostMessageRequest::getChannel).containsExactly("C1");
+    }
+
+    /** A channel the bot is not in refuses the post; the user who ran the command gets it instead. */
+    @Test
+    void refusedPostIsSentToTheUserAsADirectMessage() throws Exception {
+        when(slackMethods.chatPostMessage(any(ChatPostMessageRequest.class)))
+                .thenReturn(response("not_in_channel"), response(null));
+
+        responder.post("C1", "U1", "done", "/ip");
+
+        List<ChatPostMessageRequest> posts = posted();
+        assertThat(posts).extracting(ChatPostMessageRequest::getChannel).containsExactly("C1", "U1");
+        assertThat(posts.get(1).getText()).contains("<#C1>").endsWith("done");
+    }
+
+    private List<ChatPostMessageRequest> posted() throws Exception {
+        ArgumentCaptor<ChatPostMessageRequest> requests = ArgumentCaptor.forClass(ChatPostMessageRequest.class);
+        verify(slackMethods, atLeastOnce()).chatPostMessage(requests.capture());
+        return requests.getAllValues();
+    }
+
+    private static ChatPostMessageResponse response(String error) {
+        ChatPostMessageResponse resp = new ChatPostMessageResponse();
+        resp.setOk(error == null);
+        resp.setError(error);
+        return resp;
+    }
+}
@@ -0,0 +1,80 @@
+package com.blacklisthub.slack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import com.blacklisthub.entity.BulkJobEntity;
+import com.blacklisthub.entity.BulkJobStatus;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.repository.BulkJobRepository;
+import com.blacklisthub.repository.IpRepository;
+import com.blacklisthub.slack.config.BulkJobProps;
+import com.blacklisthub.slack.config.IocDescriptorConfig;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.util.SlackCommand;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class BulkJobServiceTest {
+
+    private final BulkJobRepository repository = mock(BulkJobRepository.class);
+    private final ApplicationEventPublisher events = mock(ApplicationEventPublisher.class);
+    private final BulkJobService service = new BulkJobService(repository,
+            new BulkJobProps(2, 100, 3, Duration.ofMinutes(2)), events);
+    private final IocDescriptor<?> ip = new IocDescriptorConfig().ipDescriptor(mock(IpRepository.class));
+    private final SlackCommand cmd = SlackCommand.of("/ip", "bulk x", "U1", "T1", "C1");
+
+    @Test
+    void submitPersistsQueuedJobAndNotifiesWorkers() {
+        when(repository.save(any(BulkJobEntity.class))).thenAnswer(inv -> {
+            BulkJobEntity job = inv.getArgument(0);
+            job.setId(12L);
+            return Mono.just(job);
+        });
+
+        StepVerifier.create(service.submit(ip, cmd, List.of("10.0.0.1", "10.0.0.2"), "scan", null))
+                .assertNext(msg -> assertThat(msg).contains("Bulk job `#12` queued: 2 IPs"))
+                .verifyComplete();
+
+        ArgumentCaptor<BulkJobEntity> saved = ArgumentCaptor.forClass(BulkJobEntity.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getIocType()).isEqualTo(IocType.IP);
+        assertThat(saved.getValue().getItems()).isEqualTo("10.0.0.1\n10.0.0.2");
+        assertThat(saved.getValue().getChannelId()).isEqualTo("C1");
+        assertThat(saved.getValue().getStatus()).isEqualTo(BulkJobStatus.QUEUED);
+        verify(events).publishEvent(new BulkJobService.Submitted(12L));
+    }
+
+    @Test
+    void submitRejectsBulksOverTheLimitWithoutPersisting() {
+        StepVerifier.create(service.submit(ip, cmd, List.of("a", "b", "c", "d"), null, null))
+                .expectNext(":warning: Bulk limit exceeded. Max 3 IPs allowed per bulk.")
+                .verifyComplete();
+
+        verify(repository, never()).save(any());
+        verifyNoInteractions(events);
+    }
+
+    @Test
+    void reportRendersCountersAndDetails() {
+        BulkJobEntity job = BulkJobEntity.builder().id(7L).total(2).added(1).reactivated(0).alreadyActive(1)
+                .invalid(0).errors(0).details("• :white_check_mark: Added `a`\n").build();
+
+        assertThat(BulkJobService.report(job))
+                .startsWith("*Bulk result overview* (job `#7`)\n• Total requested: 2\n• Added: 1\n")
+                .endsWith("*Details:*\n• :white_check_mark: Added `a`\n");
+    }
+}
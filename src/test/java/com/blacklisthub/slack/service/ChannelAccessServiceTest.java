@@ -0,0 +1,112 @@
+package com.blacklisthub.slack.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.SlackChannelWhitelistEntity;
+import com.blacklisthub.repository.SlackChannelWhitelistRepository;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.service.DataChangedEvent;
+import com.blacklisthub.service.SnapshotStore;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ChannelAccessServiceTest {
+
+    private final SlackChannelWhitelistRepository repo = mock(SlackChannelWhitelistRepository.class);
+    private final ChangeLogService changeLog = mock(ChangeLogService.class);
+    private final SnapshotStore snapshots = mock(SnapshotStore.class);
+    private final ChannelAccessService service;
+
+    ChannelAccessServiceTest() {
+        when(changeLog.write(any(), any(), any())).thenAnswer(inv -> inv.getArgument(1));
+        when(snapshots.latest(anyString())).thenReturn(Mono.empty());
+        when(snapshots.write(anyString(), any())).thenReturn(Mono.empty());
+        service = new ChannelAccessService(repo, changeLog, snapshots, List.of("C-STATIC"), Duration.ofMinutes(1));
+    }
+
+    @Test
+    void staticAndLoadedChannelsAreAuthorizedWithoutTouchingTheDb() {
+        when(repo.findByActiveTrue()).thenReturn(Flux.just(
+                SlackChannelWhitelistEntity.builder().channelId("C-DB").active(true).build()));
+
+        StepVerifier.create(service.refresh()).expectNext(1).verifyComplete();
+        StepVerifier.create(service.isChannelAllowed("C-STATIC")).expectNext(true).verifyComplete();
+        StepVerifier.create(service.isChannelAllowed("C-DB")).expectNext(true).verifyComplete();
+
+        verify(repo, never()).existsByChannelIdAndActiveTrue(anyString());
+    }
+
+    @Test
+    void deniedChannelIsLookedUpOnceThenServedFromTheNegativeCache() {
+        when(repo.existsByChannelIdAndActiveTrue("C-OTHER")).thenReturn(Mono.just(false));
+
+        StepVerifier.create(service.isChannelAllowed("C-OTHER")).expectNext(false).verifyComplete();
+        StepVerifier.create(service.isChannelAllowed("C-OTHER")).expectNext(false).verifyComplete();
+
+        verify(repo, times(1)).existsByChannelIdAndActiveTrue("C-OTHER");
+    }
+
+    @Test
+    void allowingAChannelInvalidatesItsCachedDenial() {
+        when(repo.existsByChannelIdAndActiveTrue("C-NEW")).thenReturn(Mono.just(false));
+        when(repo.findByChannelId("C-NEW")).thenReturn(Mono.empty());
+        when(repo.save(any(SlackChannelWhitelistEntity.class)))
+                .thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        StepVerifier.create(service.isChannelAllowed("C-NEW")).expectNext(false).verifyComplete();
+        StepVerifier.create(service.allowChannel("C-NEW", "secops", "T1")).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.isChannelAllowed("C-NEW")).expectNext(true).verifyComplete();
+
+        verify(repo, times(1)).existsByChannelIdAndActiveTrue("C-NEW");
+        verify(changeLog).write(eq(ChangeEntity.CHANNEL), any(), any());
+    }
+
+    /** A channel revoked on another replica is dropped once its change arrives. */
+    @Test
+    void channelChangeFromAnotherReplicaReloadsTheWhitelist() {
+        when(repo.findByActiveTrue()).thenReturn(Flux.just(
+                SlackChannelWhitelistEntity.builder().channelId("C-DB").active(true).build()));
+        StepVerifier.create(service.refresh()).expectNext(1).verifyComplete();
+
+        when(repo.findByActiveTrue()).thenReturn(Flux.empty());
+        when(repo.existsByChannelIdAndActiveTrue("C-DB")).thenReturn(Mono.just(false));
+        service.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.CHANNEL, Set.of("C-DB"))));
+
+        StepVerifier.create(service.isChannelAllowed("C-DB")).expectNext(false).verifyComplete();
+    }
+
+    @Test
+    void whitelistSnapshotLetsARestartedServiceAuthorizeWithoutTheDb(@TempDir Path dir) {
+        SnapshotStore store = new SnapshotStore(dir.toString());
+        when(repo.findByActiveTrue()).thenReturn(Flux.just(
+                SlackChannelWhitelistEntity.builder().channelId("C-DB").active(true).build()));
+        ChannelAccessService before = new ChannelAccessService(repo, changeLog, store, List.of(),
+                Duration.ofMinutes(1));
+        StepVerifier.create(before.refresh()).expectNext(1).verifyComplete();
+
+        ChannelAccessService restarted = new ChannelAccessService(repo, changeLog, store, List.of(),
+                Duration.ofMinutes(1));
+
+        StepVerifier.create(restarted.isChannelAllowed("C-DB")).expectNext(true).verifyComplete();
+        verify(repo, never()).existsByChannelIdAndActiveTrue(anyString());
+    }
+}
@@ -0,0 +1,109 @@
+package com.blacklisthub.slack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.ExpiryQueries;
+import com.blacklisthub.repository.ExpiryQueries.Expiring;
+import com.blacklisthub.repository.IndicatorQueries;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.slack.service.IndicatorExpiryService.Key;
+import com.blacklisthub.slack.util.AuditHelper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class IndicatorExpiryServiceTest {
+
+    private final ExpiryQueries queries = mock(ExpiryQueries.class);
+    private final IndicatorQueries indicators = mock(IndicatorQueries.class);
+    private final AuditHelper auditHelper = mock(AuditHelper.class);
+    private final SlackUserService slackUserService = mock(SlackUserService.class);
+    private final ChangeLogService changeLog = stampingChangeLog();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final IndicatorExpiryService service = new IndicatorExpiryService(queries, indicators, changeLog,
+            auditHelper, slackUserService, passThroughTransactions(), new BlacklistMetrics(registry), Duration.ofHours(6), 2);
+
+    /**
+     * Only the indicators the conditional update actually deactivated are
+     * audited (as the system user), logged as changes and stamped.
+     */
+    @Test
+    void onlyIndicatorsStillDueAreDeactivatedAuditedAndStamped() {
+        when(slackUserService.systemUser()).thenReturn(Mono.just(SlackUserEntity.builder().id(1L).build()));
+        when(queries.deactivateIfExpired(eq(IocType.IP), anyLong(), any(), eq(1L))).thenReturn(Mono.just(1L));
+        // Extended (or expired by another replica) since it was scheduled.
+        when(queries.deactivateIfExpired(eq(IocType.IP), eq(11L), any(), eq(1L))).thenReturn(Mono.just(0L));
+        when(queries.deactivateIfExpired(eq(IocType.HASH), anyLong(), any(), eq(1L))).thenReturn(Mono.just(1L));
+        when(indicators.stampChangeSeq(any(), anyLong())).thenReturn(Mono.just(99L));
+        when(auditHelper.log(any(), any(), any(), any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.expire(List.of(
+                new Key(IocType.IP, 10L), new Key(IocType.IP, 11L), new Key(IocType.IP, 12L),
+                new Key(IocType.HASH, 20L))))
+                .expectNext(3L)
+                .verifyComplete();
+
+        verify(auditHelper).log(IocType.IP, 10L, "DEACTIVATE", 1L, "{\"active\":1}",
+                "{\"active\":0,\"expired\":true}");
+        verify(auditHelper, never()).log(eq(IocType.IP), eq(11L), any(), any(), any(), any());
+        verify(indicators, never()).stampChangeSeq(IocType.IP, 11L);
+        verify(indicators).stampChangeSeq(IocType.HASH, 20L);
+        verify(changeLog).write(eq(ChangeEntity.HASH), any(), any(), any());
+        assertThat(registry.get(BlacklistMetrics.EXPIRED_COUNTER).tag("type", "IP").counter().count())
+                .isEqualTo(2);
+    }
+
+    /** A reload schedules what the index returns and drops what it no longer does. */
+    @Test
+    void reloadSchedulesTheWindowAndDropsExpiriesThatWereRemoved() {
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        when(queries.expiring(eq(IocType.URL), any()))
+                .thenReturn(Flux.just(new Expiring(1L, past), new Expiring(2L, past)))
+                .thenReturn(Flux.just(new Expiring(2L, past)));
+        when(slackUserService.systemUser()).thenReturn(Mono.just(SlackUserEntity.builder().id(1L).build()));
+        when(queries.deactivateIfExpired(any(), anyLong(), any(), anyLong())).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(service.load(IocType.URL)).expectNext(2).verifyComplete();
+        StepVerifier.create(service.load(IocType.URL)).expectNext(1).verifyComplete();
+        service.tick();
+
+        verify(queries).deactivateIfExpired(eq(IocType.URL), eq(2L), any(), eq(1L));
+        verify(queries, never()).deactivateIfExpired(eq(IocType.URL), eq(1L), any(), anyLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ChangeLogService stampingChangeLog() {
+        ChangeLogService changeLog = mock(ChangeLogService.class);
+        when(changeLog.write(any(), any(), any(), any())).thenAnswer(inv -> ((Mono<Object>) inv.getArgument(1))
+                .flatMap(saved -> ((Function<Object, Mono<Object>>) inv.getArgument(3)).apply(saved)));
+        return changeLog;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TransactionalOperator passThroughTransactions() {
+        TransactionalOperator operator = mock(TransactionalOperator.class);
+        when(operator.transactional(any(Mono.class))).thenAnswer(inv -> inv.getArgument(0));
+        return operator;
+    }
+}
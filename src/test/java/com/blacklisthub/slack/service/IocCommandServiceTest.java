@@ -0,0 +1,230 @@
+package com.blacklisthub.slack.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.blacklisthub.entity.ChangeEntity;
+import com.blacklisthub.entity.HashEntity;
+import com.blacklisthub.entity.IocType;
+import com.blacklisthub.entity.IpEntity;
+import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
+import com.blacklisthub.repository.IndicatorQueries;
+import com.blacklisthub.repository.HashRepository;
+import com.blacklisthub.repository.IpRepository;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.slack.config.IocDescriptorConfig;
+import com.blacklisthub.slack.ioc.BulkProgressListener;
+import com.blacklisthub.slack.ioc.IocDescriptor;
+import com.blacklisthub.slack.util.AuditHelper;
+import com.blacklisthub.slack.util.SlackCommand;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class IocCommandServiceTest {
+
+    private final AuditHelper auditHelper = mock(AuditHelper.class);
+    private final SlackUserService slackUserService = mock(SlackUserService.class);
+    private final ChangeLogService changeLog = passThroughChangeLog();
+    private final IndicatorQueries queries = mock(IndicatorQueries.class);
+    private final IocCommandService service = new IocCommandService(auditHelper, slackUserService,
+            new BlacklistMetrics(new SimpleMeterRegistry()), mock(BulkJobService.class), changeLog, queries);
+    private final IocDescriptorConfig descriptors = new IocDescriptorConfig();
+
+    /**
+     * T-05: an internal failure (e.g. a raw DB/SQL error) must never reach the
+     * user-facing Slack message; only a generic message is returned.
+     */
+    @Test
+    void addIpDoesNotLeakInternalErrorDetailsToUser() {
+        IpRepository ipRepository = mock(IpRepository.class);
+        IocDescriptor<IpEntity> ip = descriptors.ipDescriptor(ipRepository);
+
+        SlackUserEntity user = SlackUserEntity.builder().id(1L).build();
+        when(slackUserService.ensureAndEnrichSlackUser(anyString(), anyString())).thenReturn(Mono.just(user));
+        // The lookup fails with a raw error that carries sensitive internals.
+        when(ipRepository.findByIpNormalized("203.0.113.5"))
+                .thenReturn(Mono.error(new RuntimeException(
+                        "Table 'blacklist_hub.ip_addresses' - SQL syntax error near INET6_ATON")));
+        when(ipRepository.save(any(IpEntity.class))).thenReturn(Mono.just(new IpEntity()));
+
+        StepVerifier.create(service.add(ip, "U123", "T123", "203.0.113.5", "reason"))
+                .assertNext(msg -> {
+                    // No internal details leaked.
+                    assertThat(msg).doesNotContain("SQL");
+                    assertThat(msg).doesNotContain("ip_addresses");
+                    assertThat(msg).doesNotContain("blacklist_hub");
+                    assertThat(msg).doesNotContain("INET6_ATON");
+                    // Still actionable: operation + the user's own input value.
+                    assertThat(msg).contains("Error while adding");
+                    assertThat(msg).contains("203.0.113.5");
+                })
+                .verifyComplete();
+    }
+
+    /**
+     * The descriptor's normalizer runs before lookup and persistence, and the
+     * CREATE audit entry carries the type-specific key.
+     */
+    @Test
+    void addHashStoresNormalizedValueAndAuditsWithTypeKey() {
+        HashRepository hashRepository = mock(HashRepository.class);
+        IocDescriptor<HashEntity> hash = descriptors.hashDescriptor(hashRepository);
+        String upper = "EA7DEC8FA52D2300350367691AE2FBEA13DBD5BF80D6B43B05EEDF197529AA77";
+        String lower = upper.toLowerCase();
+
+        SlackUserEntity user = SlackUserEntity.builder().id(7L).build();
+        when(slackUserService.ensureAndEnrichSlackUser(anyString(), anyString())).thenReturn(Mono.just(user));
+        when(hashRepository.findByNormalizedHash(lower)).thenReturn(Mono.empty());
+        when(hashRepository.save(any(HashEntity.class))).thenAnswer(inv -> {
+            HashEntity e = inv.getArgument(0);
+            e.setId(42L);
+            return Mono.just(e);
+        });
+        when(auditHelper.log(any(), any(), anyString(), any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.add(hash, "U1", "T1", upper, "malware"))
+                .expectNext(":white_check_mark: Added `" + upper + "`")
+                .verifyComplete();
+
+        verify(auditHelper).log(eq(IocType.HASH), eq(42L), eq("CREATE"), eq(7L), eq(null),
+                eq("{\"hash\":\"" + lower + "\",\"reason\":\"malware\",\"active\":1}"));
+        verify(changeLog).write(eq(ChangeEntity.HASH), any(), any(), any());
+    }
+
+    /**
+     * The saved indicator takes its change sequence from the counter, after it
+     * is saved and audited, not by saving the whole row again.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void writeStampsTheIndicatorWithItsChangeSequence() {
+        ChangeLogService sequencing = mock(ChangeLogService.class);
+        when(sequencing.write(any(), any(), any(), any())).thenAnswer(inv -> ((Mono<Object>) inv.getArgument(1))
+                .flatMap(saved -> ((Function<Object, Mono<Object>>) inv.getArgument(3)).apply(saved)));
+        IocCommandService sequenced = new IocCommandService(auditHelper, slackUserService,
+                new BlacklistMetrics(new SimpleMeterRegistry()), mock(BulkJobService.class), sequencing, queries);
+        IpRepository ipRepository = mock(IpRepository.class);
+        IocDescriptor<IpEntity> ip = descriptors.ipDescriptor(ipRepository);
+
+        List<Long> savedSeqs = new CopyOnWriteArrayList<>();
+        when(slackUserService.ensureAndEnrichSlackUser(anyString(), anyString()))
+                .thenReturn(Mono.just(SlackUserEntity.builder().id(1L).build()));
+        when(ipRepository.findByIpNormalized("192.0.2.1")).thenReturn(Mono.empty());
+        when(ipRepository.save(any(IpEntity.class))).thenAnswer(inv -> {
+            IpEntity e = inv.getArgument(0);
+            e.setId(4L);
+            savedSeqs.add(e.getChangeSeq());
+            return Mono.just(e);
+        });
+        when(auditHelper.log(any(), any(), anyString(), any(), any(), any())).thenReturn(Mono.empty());
+        when(queries.stampChangeSeq(IocType.IP, 4L)).thenReturn(Mono.just(99L));
+
+        StepVerifier.create(sequenced.add(ip, "U1", "T1", "192.0.2.1", null))
+                .expectNext(":white_check_mark: Added `192.0.2.1`")
+                .verifyComplete();
+
+        assertThat(savedSeqs).containsExactly((Long) null);
+        verify(queries).stampChangeSeq(IocType.IP, 4L);
+    }
+
+    /** {@code --ttl} gives the new indicator an expiry, which is audited and echoed back. */
+    @Test
+    void addWithTtlStoresAndAuditsTheExpiry() {
+        IpRepository ipRepository = mock(IpRepository.class);
+        IocDescriptor<IpEntity> ip = descriptors.ipDescriptor(ipRepository);
+        LocalDateTime expiresAt = LocalDateTime.of(2030, 1, 8, 12, 0);
+
+        List<IpEntity> saved = new CopyOnWriteArrayList<>();
+        when(slackUserService.ensureAndEnrichSlackUser(anyString(), anyString()))
+                .thenReturn(Mono.just(SlackUserEntity.builder().id(3L).build()));
+        when(ipRepository.findByIpNormalized("192.0.2.9")).thenReturn(Mono.empty());
+        when(ipRepository.save(any(IpEntity.class))).thenAnswer(inv -> {
+            IpEntity e = inv.getArgument(0);
+            e.setId(5L);
+            saved.add(e);
+            return Mono.just(e);
+        });
+        when(auditHelper.log(any(), any(), anyString(), any(), any(), any())).thenReturn(Mono.empty());
+
+        StepVerifier.create(service.add(ip, "U1", "T1", "192.0.2.9", "scanner", expiresAt))
+                .expectNext(":white_check_mark: Added `192.0.2.9` (expires 2030-01-08 12:00)")
+                .verifyComplete();
+
+        assertThat(saved).singleElement().extracting(IpEntity::getExpiresAt).isEqualTo(expiresAt);
+        verify(auditHelper).log(eq(IocType.IP), eq(5L), eq("CREATE"), eq(3L), eq(null),
+                eq("{\"ip\":\"192.0.2.9\",\"reason\":\"scanner\",\"active\":1,"
+                        + "\"expires_at\":\"2030-01-08T12:00\"}"));
+    }
+
+    @Test
+    void malformedOrMisplacedTtlIsRejectedBeforeAnyLookup() {
+        IpRepository ipRepository = mock(IpRepository.class);
+        IocDescriptor<IpEntity> ip = descriptors.ipDescriptor(ipRepository);
+
+        StepVerifier.create(service.execute(ip, SlackCommand.of("/ip", "add 192.0.2.9 --ttl 7y", "U1", "T1", "C1")))
+                .assertNext(msg -> assertThat(msg).startsWith(":warning: Invalid TTL: `7y`"))
+                .verifyComplete();
+        StepVerifier.create(service.execute(ip, SlackCommand.of("/ip", "edit 192.0.2.9 --ttl 7d", "U1", "T1", "C1")))
+                .assertNext(msg -> assertThat(msg).contains("only applies to"))
+                .verifyComplete();
+
+        verifyNoInteractions(ipRepository, slackUserService);
+    }
+
+    /**
+     * Each processed item of a bulk chunk is reported to the progress listener
+     * with job-wide counts, and the chunk carries one detail line per item.
+     */
+    @Test
+    void bulkChunkReportsJobWideProgressPerItem() {
+        IpRepository ipRepository = mock(IpRepository.class);
+        IocDescriptor<IpEntity> ip = descriptors.ipDescriptor(ipRepository);
+
+        SlackUserEntity user = SlackUserEntity.builder().id(1L).build();
+        when(ipRepository.findByIpNormalized(anyString())).thenReturn(Mono.empty());
+        when(ipRepository.save(any(IpEntity.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+        when(auditHelper.log(any(), any(), anyString(), any(), any(), any())).thenReturn(Mono.empty());
+
+        List<Integer> reported = new CopyOnWriteArrayList<>();
+        BulkProgressListener progress = (done, total) -> {
+            assertThat(total).isEqualTo(10);
+            reported.add(done);
+        };
+
+        StepVerifier.create(service.bulkChunk(ip, user, List.of("10.0.0.1", "10.0.0.2", "not-an-ip"), "scan",
+                null, progress, 4, 10))
+                .assertNext(chunk -> {
+                    assertThat(chunk.added()).isEqualTo(2);
+                    assertThat(chunk.invalid()).isEqualTo(1);
+                    assertThat(chunk.details())
+                            .contains("• :white_check_mark: Added `10.0.0.1`\n")
+                            .contains("• :warning: Invalid `not-an-ip`\n");
+                })
+                .verifyComplete();
+
+        assertThat(reported).containsExactlyInAnyOrder(5, 6, 7);
+    }
+
+    /** The write runs as-is; transactions and the change row are covered by the IT. */
+    private static ChangeLogService passThroughChangeLog() {
+        ChangeLogService changeLog = mock(ChangeLogService.class);
+        when(changeLog.write(any(), any(), any(), any())).thenAnswer(inv -> inv.getArgument(1));
+        return changeLog;
+    }
+}
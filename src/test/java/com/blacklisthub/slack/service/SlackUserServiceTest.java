@@ -1,5 +1,6 @@
 package com.blacklisthub.slack.service;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
@@ -7,15 +8,32 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.jupiter.api.Test;
 
+import com.blacklisthub.entity.ChangeEntity;
 import com.blacklisthub.entity.SlackUserEntity;
+import com.blacklisthub.metrics.BlacklistMetrics;
 import com.blacklisthub.repository.SlackUserRepository;
+import com.blacklisthub.service.ChangeLogService;
+import com.blacklisthub.service.DataChangedEvent;
 import com.slack.api.methods.MethodsClient;
 import com.slack.api.methods.request.users.UsersInfoRequest;
+import com.slack.api.methods.request.users.UsersListRequest;
 import com.slack.api.methods.response.users.UsersInfoResponse;
+import com.slack.api.methods.response.users.UsersListResponse;
+import com.slack.api.model.ResponseMetadata;
+import com.slack.api.model.User;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
 
 class SlackUserServiceTest {
@@ -28,7 +46,7 @@ class SlackUserServiceTest {
     void secondLookupIsServedFromCacheWithoutHittingSlackOrDb() throws Exception {
         SlackUserRepository slackUserRepository = mock(SlackUserRepository.class);
         MethodsClient slackMethods = mock(MethodsClient.class);
-        SlackUserService service = new SlackUserService(slackUserRepository, slackMethods);
+        SlackUserService service = newService(slackUserRepository, slackMethods);
 
         SlackUserEntity existing = SlackUserEntity.builder()
                 .id(1L)
@@ -37,7 +55,7 @@ class SlackUserServiceTest {
                 .build();
         when(slackUserRepository.findBySlackUserId("U1")).thenReturn(Mono.just(existing));
 
-        // Not-ok response so enrichment short-circuits and returns the stored user as-is.
+        // Not-ok response so the background enrichment short-circuits and returns the stored user as-is.
         UsersInfoResponse notOk = new UsersInfoResponse();
         notOk.setOk(false);
         when(slackMethods.usersInfo(any(UsersInfoRequest.class))).thenReturn(notOk);
@@ -56,4 +74,84 @@ class SlackUserServiceTest {
         // Existing user found: the create branch (save) must never run (lazy switchIfEmpty).
         verify(slackUserRepository, never()).save(any());
     }
+
+    /**
+     * The bulk refresh pages through users.list and only rewrites known users
+     * whose names actually changed; the cache then serves the new names.
+     */
+    @Test
+    void bulkRefreshPagesUsersListAndUpdatesChangedUsers() throws Exception {
+        SlackUserRepository slackUserRepository = mock(SlackUserRepository.class);
+        MethodsClient slackMethods = mock(MethodsClient.class);
+        SlackUserService service = newService(slackUserRepository, slackMethods);
+
+        SlackUserEntity renamed = SlackUserEntity.builder().id(1L).slackUserId("U1").displayName("old").build();
+        SlackUserEntity unchanged = SlackUserEntity.builder().id(2L).slackUserId("U2").displayName("same").build();
+        when(slackUserRepository.findAll()).thenReturn(Flux.just(renamed, unchanged));
+        when(slackUserRepository.save(any(SlackUserEntity.class))).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+        UsersListResponse first = page("next-page", member("U1", "new"));
+        UsersListResponse second = page("", member("U2", "same"), member("U3", "stranger"));
+        when(slackMethods.usersList(any(UsersListRequest.class))).thenReturn(first, second);
+
+        StepVerifier.create(service.bulkRefresh())
+                .expectNext(1L)
+                .verifyComplete();
+
+        verify(slackMethods, times(2)).usersList(any(UsersListRequest.class));
+        verify(slackUserRepository, times(1)).save(any());
+        StepVerifier.create(service.ensureAndEnrichSlackUser("U1", "T1"))
+                .assertNext(u -> assertThat(u.getDisplayName()).isEqualTo("new"))
+                .verifyComplete();
+        verify(slackUserRepository, never()).findBySlackUserId("U1");
+        verify(slackMethods, never()).usersInfo(any(UsersInfoRequest.class));
+    }
+
+    /** A name change made on another replica reaches the cache through the change log. */
+    @Test
+    void userChangedElsewhereIsRefreshedFromTheDb() {
+        SlackUserRepository slackUserRepository = mock(SlackUserRepository.class);
+        MethodsClient slackMethods = mock(MethodsClient.class);
+        SlackUserService service = newService(slackUserRepository, slackMethods);
+
+        SlackUserEntity old = SlackUserEntity.builder().id(1L).slackUserId("U1").displayName("old").build();
+        SlackUserEntity renamed = old.toBuilder().displayName("renamed").build();
+        when(slackUserRepository.findAll()).thenReturn(Flux.just(old));
+        when(slackUserRepository.findBySlackUserId("U1")).thenReturn(Mono.just(renamed));
+        service.warmUp();
+
+        service.onDataChanged(new DataChangedEvent(Map.of(ChangeEntity.USER, Set.of("U1", "U-unknown"))));
+
+        StepVerifier.create(service.ensureAndEnrichSlackUser("U1", "T1"))
+                .assertNext(u -> assertThat(u.getDisplayName()).isEqualTo("renamed"))
+                .verifyComplete();
+        // Users this replica never cached are not loaded.
+        verify(slackUserRepository, never()).findBySlackUserId("U-unknown");
+    }
+
+    private static SlackUserService newService(SlackUserRepository repository, MethodsClient slackMethods) {
+        ChangeLogService changeLog = mock(ChangeLogService.class);
+        when(changeLog.write(any(), any(), any())).thenAnswer(inv -> inv.getArgument(1));
+        return new SlackUserService(repository, slackMethods, new BlacklistMetrics(new SimpleMeterRegistry()),
+                changeLog, Schedulers.immediate(), Duration.ofMinutes(15), Duration.ofHours(24));
+    }
+
+    private static UsersListResponse page(String nextCursor, User... members) {
+        UsersListResponse resp = new UsersListResponse();
+        resp.setOk(true);
+        resp.setMembers(List.of(members));
+        ResponseMetadata metadata = new ResponseMetadata();
+        metadata.setNextCursor(nextCursor);
+        resp.setResponseMetadata(metadata);
+        return resp;
+    }
+
+    private static User member(String id, String displayName) {
+        User.Profile profile = new User.Profile();
+        profile.setDisplayNameNormalized(displayName);
+        User user = new User();
+        user.setId(id);
+        user.setProfile(profile);
+        return user;
+    }
 }
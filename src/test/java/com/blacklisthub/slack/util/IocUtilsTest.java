@@ -2,6 +2,8 @@ package com.blacklisthub.slack.util;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.time.Duration;
+
 import org.junit.jupiter.api.Test;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -110,4 +112,20 @@ class IocUtilsTest {
         JsonNode node = MAPPER.readTree(jsonObject);
         assertThat(node.get("reason").asText()).isEqualTo(withControl);
     }
+
+    // --- parseTtl ---
+
+    @Test
+    void parsesTtlInMinutesHoursDaysAndWeeks() {
+        assertThat(IocUtils.parseTtl("30m")).isEqualTo(Duration.ofMinutes(30));
+        assertThat(IocUtils.parseTtl("12H")).isEqualTo(Duration.ofHours(12));
+        assertThat(IocUtils.parseTtl("7d")).isEqualTo(Duration.ofDays(7));
+        assertThat(IocUtils.parseTtl("2w")).isEqualTo(Duration.ofDays(14));
+    }
+
+    @Test
+    void rejectsMalformedOrZeroTtl() {
+        for (String ttl : new String[] { null, "", "d", "0d", "-1d", "7", "7y", "1.5h", "P7D", "123456d" })
+            assertThat(IocUtils.parseTtl(ttl)).as(ttl).isNull();
+    }
 }
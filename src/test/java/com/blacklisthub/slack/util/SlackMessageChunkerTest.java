@@ -0,0 +1,48 @@
+package com.blacklisthub.slack.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SlackMessageChunkerTest {
+
+    @Test
+    void shortMessageIsASinglePage() {
+        assertThat(SlackMessageChunker.chunk("hello", 100)).containsExactly("hello");
+    }
+
+    @Test
+    void pagesAreCutAtLineBoundariesAndRejoinToTheOriginal() {
+        String text = "line\n".repeat(100).trim();
+        List<String> pages = SlackMessageChunker.chunk(text, 50);
+
+        assertThat(pages).hasSizeGreaterThan(1).allSatisfy(p -> assertThat(p.length()).isLessThanOrEqualTo(50));
+        assertThat(String.join("\n", pages)).isEqualTo(text);
+    }
+
+    @Test
+    void codeBlockIsClosedAndReopenedAcrossPages() {
+        StringBuilder sb = new StringBuilder(":white_check_mark: <@U1> ```\n");
+        for (int i = 0; i < 300; i++)
+            sb.append("10.0.").append(i / 256).append('.').append(i % 256).append('\n');
+        sb.append("```");
+
+        List<String> pages = SlackMessageChunker.chunk(sb.toString(), 500);
+
+        assertThat(pages).hasSizeGreaterThan(2);
+        assertThat(pages.get(0)).startsWith(":white_check_mark: <@U1> ```").endsWith("```");
+        assertThat(pages.subList(1, pages.size()))
+                .allSatisfy(p -> assertThat(p).startsWith("```\n").endsWith("```"));
+        assertThat(pages).allSatisfy(p -> assertThat(p.length()).isLessThanOrEqualTo(500));
+    }
+
+    @Test
+    void overlongLineIsHardSplit() {
+        List<String> pages = SlackMessageChunker.chunk("a".repeat(1200) + "\nshort", 100);
+
+        assertThat(pages).allSatisfy(p -> assertThat(p.length()).isLessThanOrEqualTo(100));
+        assertThat(pages.get(pages.size() - 1)).endsWith("short");
+    }
+}
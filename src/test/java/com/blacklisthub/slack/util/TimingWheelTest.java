@@ -0,0 +1,71 @@
+package com.blacklisthub.slack.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    // 10 ms ticks, 4 slots, 3 levels: 64 ticks (640 ms) ahead.
+    private final TimingWheel<String> wheel = new TimingWheel<>(10, 4, 3, 1_000);
+
+    @Test
+    void keysAreDueAtTheFirstTickAtOrAfterTheirDeadlineAndNotBefore() {
+        wheel.schedule("a", 1_025);
+        wheel.schedule("b", 1_040);
+
+        assertThat(wheel.advance(1_020)).isEmpty();
+        assertThat(wheel.advance(1_029)).isEmpty();
+        assertThat(wheel.advance(1_030)).containsExactly("a");
+        assertThat(wheel.advance(1_040)).containsExactly("b");
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void farDeadlinesMoveDownTheLevelsAndFireOnTime() {
+        for (int ms = 50; ms <= 630; ms += 20)
+            wheel.schedule("k" + ms, 1_000 + ms);
+
+        for (int now = 1_000; now <= 1_640; now += 10) {
+            final int at = now;
+            assertThat(wheel.advance(now)).allSatisfy(key -> {
+                int deadline = 1_000 + Integer.parseInt(key.substring(1));
+                assertThat(deadline).isLessThanOrEqualTo(at).isGreaterThan(at - 10);
+            });
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void largeJumpsReturnEverythingDue() {
+        wheel.schedule("soon", 1_010);
+        wheel.schedule("later", 1_500);
+        wheel.schedule("last", 1_630);
+
+        assertThat(wheel.advance(1_600)).containsExactlyInAnyOrder("soon", "later");
+        assertThat(wheel.advance(1_700)).containsExactly("last");
+    }
+
+    @Test
+    void rescheduledAndCancelledKeysOnlyFireAtTheirLatestDeadline() {
+        wheel.schedule("moved", 1_050);
+        wheel.schedule("moved", 1_300);
+        wheel.schedule("cancelled", 1_050);
+        wheel.cancel("cancelled");
+        wheel.schedule("filtered", 1_050);
+        wheel.cancelIf(key -> key.startsWith("f"));
+
+        assertThat(wheel.advance(1_100)).isEmpty();
+        assertThat(wheel.advance(1_300)).containsExactly("moved");
+    }
+
+    @Test
+    void passedDeadlinesAreDueNextAndDeadlinesBeyondTheHorizonAreRejected() {
+        assertThat(wheel.horizonMillis()).isEqualTo(630);
+        assertThat(wheel.schedule("late", 900)).isTrue();
+        assertThat(wheel.schedule("far", 1_000 + 640)).isFalse();
+
+        assertThat(wheel.advance(1_000)).containsExactly("late");
+        assertThat(wheel.size()).isZero();
+    }
+}